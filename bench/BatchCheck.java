@@ -0,0 +1,82 @@
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Проверка на пакетното изпълнение с много промени след запис в основен файл.
+ * <p>
+ * Създава временна папка с файл с команди: {@code write base}, последван от зададен брой
+ * {@code book} редове, и го изпълнява с {@code Main --batch <файл> --yes} в отделен процес
+ * в тази папка. Проверява, че процесът завършва в срок (журналът се свива поне веднъж по време
+ * на изпълнението), че всички команди са успели и че основният файл съдържа всички събития,
+ * а журналът е изтрит.
+ * </p>
+ */
+class BatchCheck {
+    /** Най-дългото време за едно изпълнение, в секунди. */
+    private static final int TIMEOUT = 120;
+
+    /**
+     * {@code java -cp <класовете на програмата> BatchCheck [брой book редове]}; пакетното изпълнение е в отделен процес.
+     */
+    public static void main(String[] args) throws IOException, InterruptedException {
+        int books = args.length > 0 ? Integer.parseInt(args[0]) : 1500;
+        if (books < 1000)
+            throw new IllegalArgumentException("Use at least 1000 book lines, the journal compacts every 500 records!");
+        Path dir = Files.createTempDirectory("batch-check");
+        try {
+            List<String> lines = new ArrayList<>();
+            lines.add("write base");
+            LocalDate day = LocalDate.of(LocalDate.now().getYear(), 1, 1);
+            for (int i = 0; i < books; i++) {
+                // по 20 събития на ден от 08:00, по половин час всяко
+                if (i > 0 && i % 20 == 0)
+                    day = day.plusDays(1);
+                int minute = 8 * 60 + (i % 20) * 30;
+                lines.add(String.format("book %02d/%02d %02d:%02d %02d:%02d Check_%d", day.getDayOfMonth(), day.getMonthValue(),
+                        minute / 60, minute % 60, (minute + 30) / 60, (minute + 30) % 60, i));
+            }
+            Path batch = dir.resolve("check.txt");
+            Files.write(batch, lines, StandardCharsets.UTF_8);
+
+            String java = Path.of(System.getProperty("java.home"), "bin", "java").toString();
+            Process process = new ProcessBuilder(java, "-cp", System.getProperty("java.class.path"),
+                    "Main", "--batch", batch.toString(), "--yes")
+                    .directory(dir.toFile())
+                    .redirectErrorStream(true)
+                    .redirectOutput(dir.resolve("output.txt").toFile())
+                    .start();
+            long start = System.nanoTime();
+            if (!process.waitFor(TIMEOUT, TimeUnit.SECONDS)) {
+                process.destroyForcibly();
+                throw new IllegalStateException("Batch did not finish in " + TIMEOUT + " s, it is stuck!");
+            }
+            double seconds = (System.nanoTime() - start) / 1e9;
+
+            List<String> output = Files.readAllLines(dir.resolve("output.txt"), StandardCharsets.UTF_8);
+            String summary = output.stream().filter(l -> l.startsWith("Batch finished")).findFirst()
+                    .orElseThrow(() -> new IllegalStateException("Batch did not report a summary (exit code " + process.exitValue() + ")"));
+            if (!summary.contains("(0 failed)"))
+                throw new IllegalStateException("Some commands failed: " + summary);
+            long saved = Files.readAllLines(dir.resolve("base.txt"), StandardCharsets.UTF_8).stream()
+                    .filter(l -> !l.isBlank()).count();
+            if (saved != books)
+                throw new IllegalStateException("base.txt has " + saved + " event/s, expected " + books);
+            if (Files.exists(dir.resolve("calendar.journal")))
+                throw new IllegalStateException("The journal was not removed after the final write!");
+            System.out.printf("%d book line/s after a write: OK in %.2f s (%s)%n", books, seconds, summary);
+        } finally {
+            try (Stream<Path> files = Files.walk(dir)) {
+                files.sorted(Comparator.reverseOrder()).map(Path::toFile).forEach(File::delete);
+            }
+        }
+    }
+}
@@ -0,0 +1,183 @@
+package Models;
+
+import Interfaces.CalendarListener;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Проверка на календара при едновременни четения и промени.
+ * <p>
+ * Една нишка записва, премахва и променя събития, докато няколко нишки четат
+ * ({@code page}, {@code getEvents}, {@code slotsOn}, {@code findMatching}, {@code busyDays} и обхождане с итератор).
+ * Всяко прочетено състояние трябва да е последователно: събитията в деня са подредени и не се
+ * застъпват, а броят им съвпада с {@link Calendar#size()}. Наблюдател следи, че уведомленията
+ * пристигат в реда на промените и могат да четат от календара, а справките не бива да чакат,
+ * докато промените са спрени за запис. Накрая се извежда броят четения в секунда при различен брой четящи нишки.
+ * </p>
+ */
+class ConcurrencyCheck {
+    private static final int DAYS = 60;
+
+    /**
+     * {@code java Models.ConcurrencyCheck [най-много четящи нишки] [секунди]}; изпълнява се за 1, 2, 4... четящи нишки.
+     */
+    public static void main(String[] args) throws InterruptedException {
+        int readers = args.length > 0 ? Integer.parseInt(args[0]) : 4;
+        double seconds = args.length > 1 ? Double.parseDouble(args[1]) : 3;
+        checkPaused();
+        for (int n = 1; n <= readers; n *= 2)
+            check(n, seconds);
+    }
+
+    /**
+     * Справките трябва да отговарят, докато друга нишка е спряла промените, както при запис на календара.
+     */
+    private static void checkPaused() throws InterruptedException {
+        Calendar calendar = new Calendar();
+        calendar.tryBook(new Event("meeting", LocalDate.of(calendar.currentYear.getYear(), 3, 1),
+                LocalTime.of(9, 0), LocalTime.of(10, 0), "check"));
+        calendar.pauseChanges();
+        try {
+            Thread reader = new Thread(() -> {
+                calendar.getEvents();
+                calendar.page(0, 10);
+                calendar.eventsOn(LocalDate.of(calendar.currentYear.getYear(), 3, 1));
+            }, "paused-reader");
+            reader.start();
+            reader.join(5_000);
+            if (reader.isAlive())
+                throw new IllegalStateException("Reads wait while changes are paused!");
+        } finally {
+            calendar.resumeChanges();
+        }
+    }
+
+    private static void check(int readers, double seconds) throws InterruptedException {
+        Calendar calendar = new Calendar();
+        LocalDate first = LocalDate.of(calendar.currentYear.getYear(), 3, 1);
+        AtomicLong balance = new AtomicLong();
+        calendar.addListener(new CalendarListener() {
+            @Override
+            public void eventAdded(Event event) {
+                balance.incrementAndGet();
+                calendar.size();
+            }
+
+            @Override
+            public void eventRemoved(Event event) {
+                balance.decrementAndGet();
+                calendar.isModified();
+            }
+        });
+
+        AtomicBoolean running = new AtomicBoolean(true);
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        AtomicLong reads = new AtomicLong();
+        AtomicLong writes = new AtomicLong();
+        List<Thread> threads = new ArrayList<>();
+
+        threads.add(new Thread(() -> {
+            Random random = new Random(1);
+            while (running.get()) {
+                LocalDate date = first.plusDays(random.nextInt(DAYS));
+                LocalTime start = LocalTime.of(8 + random.nextInt(10), random.nextInt(4) * 15);
+                LocalTime end = start.plusMinutes(15 + random.nextInt(8) * 15);
+                switch (random.nextInt(3)) {
+                    case 0:
+                        calendar.tryBook(new Event("meeting " + random.nextInt(100), date, start, end, "check"));
+                        break;
+                    case 1:
+                        calendar.removeAt(date, start, end);
+                        break;
+                    default:
+                    {
+                        List<Event> day = calendar.eventsOn(date);
+                        if (!day.isEmpty()) {
+                            Event event = day.get(random.nextInt(day.size()));
+                            LocalTime newEnd = event.getStartTime().plusMinutes(15 + random.nextInt(8) * 15);
+                            calendar.change(event, "end", String.format("%02d:%02d", newEnd.getHour(), newEnd.getMinute()));
+                        }
+                    }
+                }
+                writes.incrementAndGet();
+            }
+        }, "writer"));
+
+        for (int i = 0; i < readers; i++) {
+            int seed = i;
+            threads.add(new Thread(() -> {
+                Random random = new Random(100 + seed);
+                while (running.get()) {
+                    LocalDate date = first.plusDays(random.nextInt(DAYS));
+                    switch (random.nextInt(6)) {
+                        case 0:
+                            checkOrdered(calendar.page(0, Integer.MAX_VALUE));
+                            break;
+                        case 5:
+                            checkOrdered(calendar.getEvents());
+                            break;
+                        case 1:
+                            calendar.slotsOn(date, LocalTime.of(1, 0));
+                            break;
+                        case 2:
+                            calendar.findMatching("meeting 4");
+                            break;
+                        case 3:
+                            calendar.busyDays(first, first.plusDays(DAYS), 5);
+                            break;
+                        default:
+                        {
+                            List<Event> events = new ArrayList<>();
+                            calendar.eventIterator(date, date.plusDays(3)).forEachRemaining(events::add);
+                            checkOrdered(events);
+                        }
+                    }
+                    reads.incrementAndGet();
+                }
+            }, "reader-" + i));
+        }
+
+        for (Thread t : threads) {
+            t.setUncaughtExceptionHandler((thread, e) -> {
+                failure.compareAndSet(null, e);
+                running.set(false);
+            });
+            t.start();
+        }
+        long start = System.nanoTime();
+        Thread.sleep((long) (seconds * 1000));
+        running.set(false);
+        for (Thread t : threads) {
+            t.join(10_000);
+            if (t.isAlive())
+                throw new IllegalStateException(t.getName() + " did not finish, the calendar is stuck!");
+        }
+        double elapsed = (System.nanoTime() - start) / 1e9;
+
+        if (failure.get() != null)
+            throw new IllegalStateException("Check failed: " + failure.get(), failure.get());
+        if (calendar.page(0, Integer.MAX_VALUE).size() != calendar.size())
+            throw new IllegalStateException("Size does not match the events!");
+        if (balance.get() != calendar.size())
+            throw new IllegalStateException("Listeners saw " + balance.get() + " events, the calendar has " + calendar.size());
+        System.out.printf("%d reader/s: %.0f reads/s, %.0f writes/s%n", readers, reads.get() / elapsed, writes.get() / elapsed);
+    }
+
+    private static void checkOrdered(List<Event> events) {
+        for (int i = 1; i < events.size(); i++) {
+            Event previous = events.get(i - 1);
+            Event current = events.get(i);
+            if (previous.getDate().isAfter(current.getDate()))
+                throw new IllegalStateException("Days out of order: " + previous.getDate() + " > " + current.getDate());
+            if (previous.getDate().equals(current.getDate()) && previous.getEndTime().isAfter(current.getStartTime()))
+                throw new IllegalStateException("Overlapping events on " + current.getDate());
+        }
+    }
+}
@@ -0,0 +1,106 @@
+package Models;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Зарежда един и същ текстов файл в събития с предишния и със сегашния вид на {@link Event}.
+ * <p>
+ * {@link ClockEvent} е копие на полетата на {@link Event} отпреди премахването на полето
+ * {@code currentYear = LocalDate.now()}. Двата случая минават през един и същ {@link EventFileParser},
+ * така че разликата идва само от събитието. За всеки се извеждат най-доброто време,
+ * заделената памет и паметта, която остава заета от заредените събития.
+ * </p>
+ */
+class EventLoadBenchmark {
+    private static final int REPEATS = 5;
+
+    /**
+     * Събитие с полетата на {@link Event} преди промяната: всеки конструктор чете часовника.
+     */
+    private static final class ClockEvent {
+        private final String name;
+        private final LocalTime startTime;
+        private final LocalTime endTime;
+        private final LocalDate chosenDate;
+        private final String desc;
+        private final boolean holiday;
+        private final LocalDate currentYear = LocalDate.now();
+
+        ClockEvent(String name, LocalDate date, LocalTime start, LocalTime end, String desc) {
+            this.name = name;
+            this.startTime = start;
+            this.endTime = end;
+            this.chosenDate = date;
+            this.desc = desc;
+            this.holiday = false;
+        }
+    }
+
+    /**
+     * {@code java -Xmx2g Models.EventLoadBenchmark [брой събития]}
+     */
+    public static void main(String[] args) throws IOException {
+        int count = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        Path dir = Files.createTempDirectory("load-benchmark");
+        Path file = dir.resolve("events.txt");
+        try {
+            LocalDate first = LocalDate.of(2026, 1, 1);
+            try (BufferedWriter out = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+                for (int i = 0; i < count; i++) {
+                    LocalTime start = LocalTime.of(8 + i % 10, 0);
+                    out.write(FileController.formatLine(new Event("Meeting " + i % 100, first.plusDays(i / 10 % 365),
+                            start, start.plusMinutes(45), "Room " + i % 20)));
+                    out.newLine();
+                }
+            }
+
+            List<Object> events = new ArrayList<>(count);
+            EventFileParser.Sink before = (name, day, start, end, desc) -> events.add(new ClockEvent(name,
+                    LocalDate.ofEpochDay(day), LocalTime.of(start / 60, start % 60), LocalTime.of(end / 60, end % 60), desc));
+            EventFileParser.Sink after = (name, day, start, end, desc) -> events.add(new Event(name,
+                    LocalDate.ofEpochDay(day), LocalTime.of(start / 60, start % 60), LocalTime.of(end / 60, end % 60), desc));
+
+            System.out.printf("%d events from %s (%.1f MB)%n", count, file.getFileName(), Files.size(file) / 1048576.0);
+            // всеки вид се зарежда два пъти на смени, за да не облагодетелства загряването
+            for (int round = 1; round <= 2; round++) {
+                load("before (clock per event)", file, events, before, count);
+                load("after", file, events, after, count);
+            }
+        } finally {
+            Files.deleteIfExists(file);
+            Files.deleteIfExists(dir);
+        }
+    }
+
+    private static void load(String label, Path file, List<Object> events, EventFileParser.Sink sink, int count) {
+        Measure.Result result = Measure.run(REPEATS, () -> {
+            events.clear();
+            try {
+                new EventFileParser().parse(file, sink);
+            } catch (IOException e) {
+                throw new IllegalStateException("Could not read " + file + ": " + e.getMessage(), e);
+            }
+            if (events.size() != count)
+                throw new IllegalStateException("Loaded " + events.size() + " of " + count + " events!");
+        });
+        long loaded = usedMemory();
+        events.clear();
+        long retained = loaded - usedMemory();
+        System.out.printf("  %-26s %s, %.0f B/event retained%n", label + ":", result, (double) retained / count);
+    }
+
+    private static long usedMemory() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++)
+            System.gc();
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
@@ -0,0 +1,93 @@
+package Models;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Сравнява свободните интервали от поддържаните списъци ({@link FreeGapIndex}) с изчисляването им
+ * наново с обхождане на събитията от деня.
+ * <p>
+ * Зарежда календар за година с даден брой случайни събития на ден, като първите дни от годината са
+ * изцяло заети в работното време. Сравнява се {@code freeGaps} за всеки ден от годината и търсенето на
+ * следващ свободен интервал ({@code nextfree}) по двата начина. Резултатите трябва да съвпадат.
+ * </p>
+ */
+class FreeGapBenchmark {
+    private static final int REPEATS = 20;
+
+    /**
+     * {@code java Models.FreeGapBenchmark [брой изцяло заети дни] [събития на ден]}
+     */
+    public static void main(String[] args) {
+        int busyDays = args.length > 0 ? Integer.parseInt(args[0]) : 120;
+        int eventsPerDay = args.length > 1 ? Integer.parseInt(args[1]) : 8;
+        Calendar calendar = new Calendar();
+        LocalDate first = LocalDate.of(calendar.currentYear.getYear(), 1, 1);
+        int year = first.lengthOfYear();
+        Random random = new Random(18);
+        for (int d = 0; d < year; d++) {
+            LocalDate date = first.plusDays(d);
+            if (d < busyDays) {
+                for (int h = 8; h < 17; h++)
+                    calendar.tryBook(new Event("Busy", date, LocalTime.of(h, 0), LocalTime.of(h + 1, 0), ""));
+                continue;
+            }
+            for (int i = 0; i < eventsPerDay; i++) {
+                LocalTime start = LocalTime.of(7 + random.nextInt(11), random.nextInt(12) * 5);
+                calendar.tryBook(new Event("Meeting", date, start, start.plusMinutes(5 + random.nextInt(6) * 5), ""));
+            }
+        }
+
+        for (int d = 0; d < year; d++) {
+            LocalDate date = first.plusDays(d);
+            if (!calendar.freeGaps(date).equals(calendar.sweptGaps(date)))
+                throw new IllegalStateException("Gap lists and sweep disagree on " + date);
+        }
+        Measure.Result listed = Measure.run(REPEATS, () -> {
+            for (int d = 0; d < year; d++)
+                calendar.freeGaps(first.plusDays(d));
+        });
+        Measure.Result swept = Measure.run(REPEATS, () -> {
+            for (int d = 0; d < year; d++)
+                calendar.sweptGaps(first.plusDays(d));
+        });
+
+        LocalDateTime from = first.atTime(9, 0);
+        LocalTime hours = LocalTime.of(2, 0);
+        Event expected = calendar.nextFree(from, hours, year);
+        Event actual = nextFreeBySweep(calendar, from, hours, year);
+        if (expected == null ? actual != null : actual == null || !expected.getDate().equals(actual.getDate())
+                || !expected.getStartTime().equals(actual.getStartTime()))
+            throw new IllegalStateException("nextfree differs between gap lists and sweep!");
+        Measure.Result nextListed = Measure.run(REPEATS, () -> calendar.nextFree(from, hours, year));
+        Measure.Result nextSwept = Measure.run(REPEATS, () -> nextFreeBySweep(calendar, from, hours, year));
+
+        System.out.printf("%d events, %d fully busy day/s%n", calendar.size(), busyDays);
+        System.out.printf("  freeGaps for %d days: gap lists %.3f ms, sweep %.3f ms%n", year, listed.millis(), swept.millis());
+        System.out.printf("  nextfree 02:00 (found %s): gap lists %.3f ms, sweep %.3f ms%n",
+                expected == null ? "none" : expected.getDate() + " " + expected.getStartTime(), nextListed.millis(), nextSwept.millis());
+    }
+
+    /**
+     * Същото като {@link Calendar#nextFree(LocalDateTime, LocalTime, int)}, но с интервали, изчислени с обхождане.
+     */
+    private static Event nextFreeBySweep(Calendar calendar, LocalDateTime from, LocalTime hours, int maxDays) {
+        int duration = hours.getHour() * 60 + hours.getMinute();
+        LocalDate date = from.toLocalDate();
+        int earliest = from.getHour() * 60 + from.getMinute();
+        for (int i = 0; i < maxDays; i++, date = date.plusDays(1), earliest = 0) {
+            List<Gap> gaps = calendar.sweptGaps(date);
+            for (Gap gap : gaps) {
+                int start = Math.max(gap.startMinute(), earliest);
+                if (start + duration <= gap.endMinute()) {
+                    LocalTime time = LocalTime.of(start / 60, start % 60);
+                    return new Event("Slot", date, time, time.plusMinutes(duration), "empty slot");
+                }
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,186 @@
+package Models;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+/**
+ * Проверка на {@link IntervalTree} спрямо по-старите начини за търсене на припокриване.
+ * <p>
+ * Генерира случайни събития и заявки и сравнява резултатите на дървото с два оракула:
+ * проверка минута по минута (точното правило: полуотворен интервал {@code [начало, край)},
+ * а събитие с нулева продължителност заема една минута, както в {@link OccupancyBitmap}) и
+ * старото обхождане час по час, с което календарът търсеше припокривания преди дървото.
+ * Дървото трябва да съвпада точно с първия оракул. Разликите със стария цикъл се броят по вид
+ * и за всяка от тях се проверява, че грешката е в стария цикъл, а не в дървото.
+ * </p>
+ */
+class IntervalTreeCheck {
+    private static final int DAYS = 10;
+    private static final int EVENTS = 400;
+
+    /**
+     * {@code java Models.IntervalTreeCheck [брой заявки] [начало на случайните числа]}
+     */
+    public static void main(String[] args) {
+        int queries = args.length > 0 ? Integer.parseInt(args[0]) : 100_000;
+        long seed = args.length > 1 ? Long.parseLong(args[1]) : 42;
+        Random random = new Random(seed);
+        LocalDate first = LocalDate.of(2026, 3, 1);
+        List<Event> events = new ArrayList<>();
+        IntervalTree tree = new IntervalTree();
+        for (int i = 0; i < EVENTS; i++) {
+            Event e = randomEvent(random, first, "event " + i);
+            events.add(e);
+            tree.insert(e);
+        }
+        // премахването трябва да оставя дървото в същото състояние като списъка
+        for (int i = 0; i < EVENTS / 4; i++) {
+            Event removed = events.remove(random.nextInt(events.size()));
+            if (!tree.remove(removed))
+                throw new IllegalStateException("Tree could not remove " + removed.getName());
+        }
+
+        int agreed = 0;
+        long missed = 0, extra = 0;
+        for (int q = 0; q < queries; q++) {
+            Event query = randomEvent(random, first, "query");
+            Set<Event> expected = identitySet(minuteByMinute(query, events));
+            Set<Event> actual = identitySet(tree.query(query));
+            if (!expected.equals(actual))
+                throw new IllegalStateException("Tree disagrees with the minute-by-minute oracle for " + describe(query)
+                        + ": expected " + expected.size() + ", got " + actual.size());
+
+            Set<Event> loop = identitySet(hourByHour(query, events));
+            if (loop.equals(actual)) {
+                agreed++;
+                continue;
+            }
+            for (Event e : actual) {
+                if (!loop.contains(e))
+                    missed++;
+            }
+            for (Event e : loop) {
+                if (!actual.contains(e))
+                    extra++;
+            }
+        }
+        System.out.printf("%d queries: tree matches the minute-by-minute oracle in all; old hour-by-hour loop agrees in %d (%.1f%%), "
+                + "misses %d overlap/s, reports %d false overlap/s%n", queries, agreed, 100.0 * agreed / queries, missed, extra);
+    }
+
+    /**
+     * Случайно събитие в рамките на един ден. Часовете са кратни на 5 минути, а около 5% от
+     * събитията са с нулева продължителност, за да се провери и този случай.
+     */
+    private static Event randomEvent(Random random, LocalDate first, String name) {
+        LocalDate date = first.plusDays(random.nextInt(DAYS));
+        int start = random.nextInt(24 * 12) * 5;
+        int length = random.nextInt(20) == 0 ? 0 : 5 + random.nextInt(36) * 5;
+        int end = Math.min(start + length, 23 * 60 + 55);
+        return new Event(name, date, LocalTime.of(start / 60, start % 60), LocalTime.of(end / 60, end % 60), "");
+    }
+
+    /**
+     * Точното правило: две събития се припокриват, ако имат обща заета минута в един и същи ден.
+     */
+    private static List<Event> minuteByMinute(Event event, List<Event> events) {
+        List<Event> overlaps = new ArrayList<>();
+        for (Event e : events) {
+            if (!e.getDate().equals(event.getDate()))
+                continue;
+            for (int m = OccupancyBitmap.startMinute(event); m < OccupancyBitmap.endMinute(event); m++) {
+                if (m >= OccupancyBitmap.startMinute(e) && m < OccupancyBitmap.endMinute(e)) {
+                    overlaps.add(e);
+                    break;
+                }
+            }
+        }
+        return overlaps;
+    }
+
+    /**
+     * Старото търсене на припокриване час по час, пренесено без промени от {@code Calendar.findOverlap}
+     * отпреди интервалното дърво.
+     */
+    private static List<Event> hourByHour(Event event, List<Event> events) {
+        List<Event> overlaps = new ArrayList<>();
+
+        for (Event e : events) {
+            if (e.getMonth() == event.getMonth() && e.getDay() == event.getDay()) {
+                if (event.getStartTime().getHour() == event.getEndTime().getHour()) {
+                    if (event.getStartTime().isAfter(e.getStartTime()) && event.getEndTime().isBefore(e.getEndTime())) {
+                        overlaps.add(e);
+                        continue;
+                    }
+                    if(event.getStartTime().isAfter(e.getStartTime()) && event.getStartTime().isBefore(e.getEndTime()))
+                    {
+                        overlaps.add(e);
+                        continue;
+                    }
+                    if(event.getEndTime().isAfter(e.getStartTime()) && event.getEndTime().isBefore(e.getEndTime()))
+                    {
+                        overlaps.add(e);
+                        continue;
+                    }
+                    if(event.getStartTime().isBefore(e.getStartTime()) && event.getEndTime().isAfter(e.getEndTime()))
+                        overlaps.add(e);
+                } else {
+                    if(e.getStartTime().isAfter(event.getStartTime()) && e.getEndTime().isBefore(event.getEndTime()))
+                    {
+                        overlaps.add(e);
+                        continue;
+                    }
+                    for (int i = event.getStartTime().getHour(); i <= event.getEndTime().getHour(); i++) {
+                        if (i == event.getStartTime().getHour()) {
+                            if (event.getStartTime().isAfter(e.getStartTime()) && event.getStartTime().isBefore(e.getEndTime())) {
+                                overlaps.add(e);
+                                break;
+                            }
+                            if(event.getStartTime().equals(e.getStartTime()))
+                            {
+                                overlaps.add(e);
+                                break;
+                            }
+                        } else if(i == event.getEndTime().getHour()) {
+                            if(event.getEndTime().isAfter(e.getStartTime()) && event.getEndTime().isBefore(e.getEndTime()))
+                            {
+                                overlaps.add(e);
+                                break;
+                            }
+                            if(event.getStartTime().isBefore(e.getEndTime()) && event.getEndTime().isAfter(e.getEndTime()))
+                            {
+                                overlaps.add(e);
+                                break;
+                            }
+                        } else{
+                            if(i > e.getStartTime().getHour() && i < e.getEndTime().getHour())
+                            {
+                                overlaps.add(e);
+                                break;
+                            }
+                        }
+                    }
+                }
+            }
+        }
+        return overlaps;
+    }
+
+    private static Set<Event> identitySet(List<Event> events) {
+        Map<Event, Boolean> map = new IdentityHashMap<>();
+        Set<Event> set = Collections.newSetFromMap(map);
+        set.addAll(events);
+        return set;
+    }
+
+    private static String describe(Event e) {
+        return e.getDate() + " " + e.getStartTime() + "-" + e.getEndTime();
+    }
+}
@@ -0,0 +1,62 @@
+package Models;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+
+/**
+ * Общо измерване за сравнителните проверки в пакета: време и заделена памет на едно действие.
+ * <p>
+ * Действието се изпълнява няколко пъти и се връща най-доброто време, за да не се мерят
+ * зареждането на класовете и компилацията. Заделената памет се взима от
+ * {@code com.sun.management.ThreadMXBean} за текущата нишка, ако JVM я поддържа.
+ * </p>
+ */
+final class Measure {
+    /**
+     * Резултатът от едно измерване.
+     *
+     * @param millis най-доброто време в милисекунди
+     * @param bytes  заделената памет при последното изпълнение, в байтове, или {@code -1}, ако не се поддържа
+     */
+    record Result(double millis, long bytes) {
+        @Override
+        public String toString() {
+            return bytes < 0 ? String.format("%.2f ms", millis)
+                    : String.format("%.2f ms, %.1f MB allocated", millis, bytes / 1048576.0);
+        }
+    }
+
+    private Measure() {
+    }
+
+    /**
+     * Измерва действие.
+     *
+     * @param repeats колко пъти да се изпълни
+     * @param action  действието
+     * @return най-доброто време и заделената памет
+     */
+    static Result run(int repeats, Runnable action) {
+        double best = Double.MAX_VALUE;
+        long bytes = -1;
+        for (int i = 0; i < repeats; i++) {
+            long allocated = allocatedBytes();
+            long start = System.nanoTime();
+            action.run();
+            best = Math.min(best, (System.nanoTime() - start) / 1e6);
+            long after = allocatedBytes();
+            bytes = allocated < 0 ? -1 : after - allocated;
+        }
+        return new Result(best, bytes);
+    }
+
+    private static long allocatedBytes() {
+        ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        if (bean instanceof com.sun.management.ThreadMXBean) {
+            com.sun.management.ThreadMXBean sun = (com.sun.management.ThreadMXBean) bean;
+            if (sun.isThreadAllocatedMemorySupported() && sun.isThreadAllocatedMemoryEnabled())
+                return sun.getThreadAllocatedBytes(Thread.currentThread().getId());
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,79 @@
+package Models;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+
+/**
+ * Измерва паметта на събитие в {@link Calendar} с индекси, в календар, зареден в хранилище
+ * (както го зарежда {@link CalendarRegistry}), и в самото {@link EventStore}.
+ * <p>
+ * Зарежда даден брой събития (по 8 на ден, с повтарящи се имена и описания, както при
+ * истински календар) и извежда реално заетите байтове на събитие, измерени по заетата памет
+ * след събиране на боклука, заедно с оценката от {@link Calendar#estimatedBytes()},
+ * която {@link CalendarRegistry} използва за лимита си.
+ * </p>
+ */
+class MemoryCheck {
+    /**
+     * Създава i-тото събитие за измерването. Низовете и датите се създават наново всеки път,
+     * както при четене от файл, за да не се споделят между календара и хранилището.
+     */
+    static Event event(int i) {
+        LocalDate day = LocalDate.of(2020, 1, 1).plusDays(i / 8);
+        LocalTime start = LocalTime.of(9 + i % 8, 15);
+        return new Event("Meeting " + i % 50, day, start, start.plusMinutes(45), "Room " + i % 20);
+    }
+
+    /**
+     * {@code java -Xmx1g Models.MemoryCheck [брой събития]}
+     */
+    public static void main(String[] args) {
+        int count = args.length > 0 ? Integer.parseInt(args[0]) : 200_000;
+        long before = usedMemory();
+        Calendar calendar = new Calendar();
+        for (int i = 0; i < count; i++)
+            calendar.restore(event(i));
+        long calendarBytes = usedMemory() - before;
+        double estimated = (double) calendar.estimatedBytes() / count;
+        int calendarSize = calendar.size();
+        calendar = null;
+
+        before = usedMemory();
+        Calendar compact = new Calendar();
+        EventStore loaded = new EventStore();
+        for (int i = 0; i < count; i++)
+            loaded.add(event(i));
+        compact.setEvents(loaded);
+        loaded = null;
+        long compactBytes = usedMemory() - before;
+        double compactEstimated = (double) compact.estimatedBytes() / count;
+        int compactSize = compact.size();
+        compact = null;
+
+        before = usedMemory();
+        EventStore store = new EventStore();
+        for (int i = 0; i < count; i++)
+            store.add(event(i));
+        long storeBytes = usedMemory() - before;
+
+        // пази измерените структури живи до края на измерването
+        if (calendarSize != store.size() || compactSize != store.size())
+            throw new IllegalStateException("Calendars and store hold a different number of events!");
+        System.out.printf("%d events: Calendar %.0f B/event (estimate %.0f), compact Calendar %.0f B/event (estimate %.0f),"
+                        + " EventStore %.0f B/event%n", count, (double) calendarBytes / count, estimated,
+                (double) compactBytes / count, compactEstimated, (double) storeBytes / count);
+    }
+
+    private static long usedMemory() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+            try {
+                Thread.sleep(50);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
@@ -0,0 +1,143 @@
+package Models;
+
+import java.io.BufferedOutputStream;
+import java.io.FileDescriptor;
+import java.io.FileOutputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.LocalTime;
+
+/**
+ * Сравнява извеждането на много събития чрез {@link EventPrinter} с досегашното
+ * {@code System.out.println(e.ShowEvent())} за всяко събитие.
+ * <p>
+ * Изходът се пренасочва към поток, устроен като {@link System#out} (буфер от 128 байта и изпращане
+ * след всеки ред), който пише във временен файл, в стандартния изход (за измерване с пренасочване
+ * към {@code cat} или терминал) или никъде. Двата начина трябва да изведат еднакъв брой байтове.
+ * Резултатът се извежда в {@link System#err}, за да не се смесва с измервания изход.
+ * </p>
+ */
+class PrintBenchmark {
+    private static final int REPEATS = 5;
+
+    /**
+     * Къде отива измерваният изход.
+     */
+    private enum Target {
+        /** Временен файл. */
+        FILE,
+        /** Стандартният изход на процеса. */
+        STDOUT,
+        /** Никъде – мери се само форматирането. */
+        NULL
+    }
+
+    /**
+     * Поток, който брои изпратените байтове.
+     */
+    private static final class Counting extends FilterOutputStream {
+        long bytes;
+
+        Counting(OutputStream out) {
+            super(out);
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            out.write(b);
+            bytes++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+            bytes += len;
+        }
+    }
+
+    /**
+     * {@code java Models.PrintBenchmark [брой събития] [file|stdout|null] | cat > /dev/null}
+     */
+    public static void main(String[] args) throws IOException {
+        int count = args.length > 0 ? Integer.parseInt(args[0]) : 100_000;
+        Target target = args.length > 1 ? Target.valueOf(args[1].toUpperCase()) : Target.FILE;
+        Calendar calendar = new Calendar();
+        LocalDate first = LocalDate.of(calendar.currentYear.getYear(), 1, 1);
+        for (int i = 0; i < count; i++) {
+            LocalTime start = LocalTime.of(i % 24, 0);
+            calendar.restore(new Event("Meeting " + i, first.plusDays(i / 24), start, start.plusMinutes(30), "Room " + i % 20));
+        }
+
+        Path file = target == Target.FILE ? Files.createTempFile("print-benchmark", ".txt") : null;
+        PrintStream original = System.out;
+        try {
+            long[] bytes = new long[2];
+            Measure.Result perEvent = measure(target, file, bytes, 0, () -> {
+                int i = 0;
+                for (Event e : calendar.page(0, Integer.MAX_VALUE)) {
+                    System.out.println("Index: " + i + '|');
+                    System.out.println(e.ShowEvent());
+                    i++;
+                }
+            });
+            Measure.Result printer = measure(target, file, bytes, 1, calendar::printEvents);
+            calendar.setFormat(EventPrinter.Format.COMPACT);
+            long[] compactBytes = new long[1];
+            Measure.Result compact = measure(target, file, compactBytes, 0, calendar::printEvents);
+            calendar.setFormat(EventPrinter.Format.FULL);
+
+            if (bytes[0] != bytes[1])
+                throw new IllegalStateException("Outputs differ: " + bytes[0] + " vs " + bytes[1] + " bytes");
+            System.err.printf("%d events to %s (%.1f MB)%n", count, target.name().toLowerCase(), bytes[0] / 1048576.0);
+            System.err.printf("  println + ShowEvent: %8.1f ms%n", perEvent.millis());
+            System.err.printf("  EventPrinter:        %8.1f ms (%.1fx)%n", printer.millis(), perEvent.millis() / printer.millis());
+            System.err.printf("  compact format:      %8.1f ms (%.1f MB)%n", compact.millis(), compactBytes[0] / 1048576.0);
+        } finally {
+            System.setOut(original);
+            if (file != null)
+                Files.deleteIfExists(file);
+        }
+    }
+
+    /**
+     * Измерва извеждането, като всеки път отваря наново поток като {@link System#out}.
+     */
+    private static Measure.Result measure(Target target, Path file, long[] bytes, int slot, Runnable print) {
+        PrintStream original = System.out;
+        return Measure.run(REPEATS, () -> {
+            Counting counting;
+            try {
+                counting = new Counting(open(target, file));
+            } catch (IOException e) {
+                throw new IllegalStateException("Could not open the output: " + e.getMessage(), e);
+            }
+            PrintStream console = new PrintStream(new BufferedOutputStream(counting, 128), true);
+            System.setOut(console);
+            try {
+                print.run();
+                console.flush();
+            } finally {
+                System.setOut(original);
+                if (target == Target.FILE)
+                    console.close();
+            }
+            bytes[slot] = counting.bytes;
+        });
+    }
+
+    private static OutputStream open(Target target, Path file) throws IOException {
+        switch (target) {
+            case FILE:
+                return Files.newOutputStream(file);
+            case STDOUT:
+                return new FileOutputStream(FileDescriptor.out);
+            default:
+                return OutputStream.nullOutputStream();
+        }
+    }
+}
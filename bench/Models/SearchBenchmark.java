@@ -0,0 +1,88 @@
+package Models;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Сравнява търсенето с {@link SearchIndex} с линейното обхождане на всички събития.
+ * <p>
+ * Създава дадения брой събития с по 6 случайни думи в описанието (от речник с около 1000 думи)
+ * и изпълнява едни и същи заявки
+ * (цели думи, части от думи и няколко ключови думи) по двата начина. Линейното обхождане използва
+ * същата точна проверка като индекса, затова резултатите трябва да съвпадат. Извеждат се времето
+ * за изграждане на индекса и най-доброто време за всяка заявка.
+ * </p>
+ */
+class SearchBenchmark {
+    private static final int REPEATS = 5;
+    private static final String[] WORDS = {
+            "budget", "review", "standup", "planning", "client", "meeting", "design", "release",
+            "retro", "hiring", "lunch", "training", "sprint", "demo", "sync", "roadmap",
+            "security", "audit", "offsite", "interview", "support", "incident", "backlog", "report"
+    };
+    private static final String[] SYLLABLES = {"ka", "lo", "mi", "ten", "ra", "vo", "sun", "de", "pi", "ros"};
+    private static final String[] QUERIES = {"budget", "udge", "re", "client demo", "xyz"};
+
+    /**
+     * Речникът: думите от {@link #WORDS} и измислени думи от по три срички.
+     */
+    private static List<String> vocabulary() {
+        List<String> words = new ArrayList<>(List.of(WORDS));
+        for (String a : SYLLABLES)
+            for (String b : SYLLABLES)
+                for (String c : SYLLABLES)
+                    words.add(a + b + c);
+        return words;
+    }
+
+    /**
+     * {@code java -Xmx2g Models.SearchBenchmark [брой събития...]}, по подразбиране 10 000, 100 000 и 1 000 000.
+     */
+    public static void main(String[] args) {
+        if (args.length == 0)
+            args = new String[]{"10000", "100000", "1000000"};
+        for (String arg : args)
+            compare(Integer.parseInt(arg));
+    }
+
+    private static void compare(int count) {
+        Random random = new Random(count);
+        List<String> words = vocabulary();
+        List<Event> events = new ArrayList<>(count);
+        LocalDate first = LocalDate.of(2026, 1, 1);
+        for (int i = 0; i < count; i++) {
+            StringBuilder desc = new StringBuilder();
+            for (int w = 0; w < 6; w++)
+                desc.append(w == 0 ? "" : " ").append(words.get(random.nextInt(words.size())));
+            LocalTime start = LocalTime.of(8 + i % 9, 0);
+            events.add(new Event(words.get(random.nextInt(words.size())) + " " + i, first.plusDays(i % 365),
+                    start, start.plusHours(1), desc.toString()));
+        }
+
+        SearchIndex index = new SearchIndex();
+        Measure.Result build = Measure.run(1, () -> {
+            for (Event e : events)
+                index.add(e);
+        });
+        System.out.printf("%d events, index built in %s%n", count, build);
+        System.out.printf("  %-12s %8s %12s %12s%n", "query", "found", "linear", "index");
+        for (String query : QUERIES) {
+            String[] keywords = query.trim().toUpperCase().split("\\s+");
+            int[] found = new int[2];
+            Measure.Result linear = Measure.run(REPEATS, () -> {
+                int n = 0;
+                for (Event e : events)
+                    if (SearchIndex.matches(e, keywords))
+                        n++;
+                found[0] = n;
+            });
+            Measure.Result indexed = Measure.run(REPEATS, () -> found[1] = index.search(query).size());
+            if (found[0] != found[1])
+                throw new IllegalStateException("'" + query + "': linear scan found " + found[0] + ", index " + found[1]);
+            System.out.printf("  %-12s %8d %9.2f ms %9.2f ms%n", query, found[0], linear.millis(), indexed.millis());
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package Codecs;
+
+import Interfaces.EventEncoder;
+import Models.Event;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Iterator;
+
+/**
+ * Износ на събития във формат CSV (RFC 4180).
+ * <p>
+ * Първият ред е заглавен: {@code name,date,start,end,description}. Полета, които съдържат
+ * запетая, кавичка или нов ред, се ограждат в кавички, а кавичките в тях се удвояват.
+ * </p>
+ */
+public class CsvEncoder implements EventEncoder {
+
+    @Override
+    public String extension() {
+        return ".csv";
+    }
+
+    @Override
+    public void encode(Iterator<Event> events, Writer out) throws IOException {
+        out.write("name,date,start,end,description\r\n");
+        while (events.hasNext()) {
+            Event e = events.next();
+            writeField(e.getName(), out);
+            out.write(',');
+            out.write(e.getDate().toString());
+            out.write(',');
+            out.write(e.getStartTime().toString());
+            out.write(',');
+            out.write(e.getEndTime().toString());
+            out.write(',');
+            writeField(e.getDesc(), out);
+            out.write("\r\n");
+        }
+    }
+
+    /**
+     * Записва едно текстово поле, като го огражда в кавички само при нужда.
+     */
+    private static void writeField(String value, Writer out) throws IOException {
+        boolean quote = false;
+        for (int i = 0; i < value.length() && !quote; i++) {
+            char c = value.charAt(i);
+            quote = c == ',' || c == '"' || c == '\n' || c == '\r';
+        }
+        if (!quote) {
+            out.write(value);
+            return;
+        }
+        out.write('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"')
+                out.write('"');
+            out.write(c);
+        }
+        out.write('"');
+    }
+}
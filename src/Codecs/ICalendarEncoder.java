@@ -0,0 +1,119 @@
+package Codecs;
+
+import Interfaces.EventEncoder;
+import Models.Event;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.util.Iterator;
+
+/**
+ * Износ на събития във формат iCalendar (RFC 5545), разпознаван от повечето календарни приложения.
+ * <p>
+ * Всяко събитие става {@code VEVENT} с локално време (без часова зона). Текстовите стойности
+ * се екранират, а редовете по-дълги от 75 байта се пренасят, както изисква стандартът.
+ * </p>
+ */
+public class ICalendarEncoder implements EventEncoder {
+    /** Максимална дължина на ред в байтове, без {@code CRLF}. */
+    private static final int LINE_LIMIT = 75;
+
+    @Override
+    public String extension() {
+        return ".ics";
+    }
+
+    @Override
+    public void encode(Iterator<Event> events, Writer out) throws IOException {
+        ZonedDateTime now = ZonedDateTime.now(ZoneOffset.UTC);
+        out.write("BEGIN:VCALENDAR\r\n");
+        out.write("VERSION:2.0\r\n");
+        out.write("PRODID:-//OOP1-Project//Calendar//EN\r\n");
+        int seq = 0;
+        while (events.hasNext()) {
+            Event e = events.next();
+            out.write("BEGIN:VEVENT\r\n");
+            out.write("UID:");
+            out.write(Integer.toString(seq++));
+            out.write('-');
+            out.write(Long.toString(now.toEpochSecond()));
+            out.write("@oop1-project\r\n");
+            out.write("DTSTAMP:");
+            writeDateTime(now.toLocalDate(), now.toLocalTime(), out);
+            out.write("Z\r\n");
+            out.write("DTSTART:");
+            writeDateTime(e.getDate(), e.getStartTime(), out);
+            out.write("\r\n");
+            out.write("DTEND:");
+            writeDateTime(e.getDate(), e.getEndTime(), out);
+            out.write("\r\n");
+            writeText("SUMMARY:", e.getName(), out);
+            writeText("DESCRIPTION:", e.getDesc(), out);
+            out.write("END:VEVENT\r\n");
+        }
+        out.write("END:VCALENDAR\r\n");
+    }
+
+    /**
+     * Записва дата и час във формат {@code ГГГГММДДTЧЧММСС}.
+     */
+    private static void writeDateTime(LocalDate date, LocalTime time, Writer out) throws IOException {
+        writeNumber(date.getYear(), 4, out);
+        writeNumber(date.getMonthValue(), 2, out);
+        writeNumber(date.getDayOfMonth(), 2, out);
+        out.write('T');
+        writeNumber(time.getHour(), 2, out);
+        writeNumber(time.getMinute(), 2, out);
+        writeNumber(time.getSecond(), 2, out);
+    }
+
+    private static void writeNumber(int value, int digits, Writer out) throws IOException {
+        for (int div = (int) Math.pow(10, digits - 1); div > 0; div /= 10)
+            out.write('0' + (value / div) % 10);
+    }
+
+    /**
+     * Записва текстово свойство, като екранира специалните символи и пренася дългите редове.
+     */
+    private static void writeText(String property, String value, Writer out) throws IOException {
+        out.write(property);
+        int lineBytes = property.length();
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            String escaped = null;
+            switch (c) {
+                case '\\':
+                    escaped = "\\\\";
+                    break;
+                case ';':
+                    escaped = "\\;";
+                    break;
+                case ',':
+                    escaped = "\\,";
+                    break;
+                case '\n':
+                    escaped = "\\n";
+                    break;
+                case '\r':
+                    continue;
+                default:
+                    break;
+            }
+            int bytes = escaped != null ? escaped.length() : c < 0x80 ? 1 : c < 0x800 || Character.isSurrogate(c) ? 2 : 3;
+            if (lineBytes + bytes > LINE_LIMIT && !Character.isLowSurrogate(c)) {
+                out.write("\r\n ");
+                lineBytes = 1;
+            }
+            if (escaped != null)
+                out.write(escaped);
+            else
+                out.write(c);
+            lineBytes += bytes;
+        }
+        out.write("\r\n");
+    }
+}
@@ -0,0 +1,88 @@
+package Codecs;
+
+import Interfaces.EventEncoder;
+import Models.Event;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Iterator;
+
+/**
+ * Износ на събития във формат JSON Lines: по един JSON обект на ред, например
+ * {@code {"name":"Work","date":"2025-06-02","start":"08:00","end":"17:00","description":"..."}}.
+ */
+public class JsonLinesEncoder implements EventEncoder {
+
+    @Override
+    public String extension() {
+        return ".jsonl";
+    }
+
+    @Override
+    public void encode(Iterator<Event> events, Writer out) throws IOException {
+        while (events.hasNext()) {
+            writeEvent(events.next(), out);
+            out.write('\n');
+        }
+    }
+
+    /**
+     * Записва едно събитие като JSON обект (без нов ред след него).
+     *
+     * @param e   събитието
+     * @param out изходният поток
+     * @throws IOException при грешка при запис
+     */
+    public static void writeEvent(Event e, Writer out) throws IOException {
+        out.write("{\"name\":");
+        writeString(e.getName(), out);
+        out.write(",\"date\":\"");
+        out.write(e.getDate().toString());
+        out.write("\",\"start\":\"");
+        out.write(e.getStartTime().toString());
+        out.write("\",\"end\":\"");
+        out.write(e.getEndTime().toString());
+        out.write("\",\"description\":");
+        writeString(e.getDesc(), out);
+        out.write('}');
+    }
+
+    /**
+     * Записва низ като JSON стойност в кавички, като екранира специалните символи.
+     *
+     * @param value низът
+     * @param out   изходният поток
+     * @throws IOException при грешка при запис
+     */
+    public static void writeString(String value, Writer out) throws IOException {
+        out.write('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"':
+                    out.write("\\\"");
+                    break;
+                case '\\':
+                    out.write("\\\\");
+                    break;
+                case '\n':
+                    out.write("\\n");
+                    break;
+                case '\r':
+                    out.write("\\r");
+                    break;
+                case '\t':
+                    out.write("\\t");
+                    break;
+                default:
+                    if (c < 0x20) {
+                        out.write("\\u00");
+                        out.write(Character.forDigit(c >> 4, 16));
+                        out.write(Character.forDigit(c & 0xF, 16));
+                    } else
+                        out.write(c);
+            }
+        }
+        out.write('"');
+    }
+}
@@ -1,6 +1,6 @@
 package Commands;
 
-import Interfaces.Command;
+import Interfaces.QueryCommand;
 import Models.Calendar;
 
 import java.time.DateTimeException;
@@ -11,42 +11,99 @@ import java.time.LocalTime;
  * Команда за показване на дневния график (агенда) за конкретна дата.
  * <p>
  * Използва се за визуализация на всички събития в даден ден от текущата година в календара.
- * Приема една дата като аргумент, във формат {@code dd/mm}.
+ * Приема една дата като аргумент, във формат {@code dd/mm}. По избор може да се зададе и крайна дата,
+ * за да се покаже агендата за целия период, както и брой събития на страница и колко събития да се пропуснат.
  * </p>
  *
  * <p><b>Пример за използване:</b></p>
  * <pre>
  * agenda 12/06
+ * agenda 01/06 30/06 20 40
  * </pre>
  */
-public class Agenda implements Command {
+public class Agenda implements QueryCommand {
+
+    /**
+     * Разчетените аргументи на командата.
+     */
+    private record Page(LocalDate from, LocalDate to, int limit, int offset) {
+    }
 
     /**
      * Изпълнява командата за показване на дневната агенда.
      *
      * @param calendar обектът {@link Calendar}, от който се извлича и показва информацията
-     * @param args     аргументи на командата – очаква масив с точно два елемента,
-     *                 където вторият е датата във формат {@code dd/mm}
+     * @param args     аргументи на командата – датата във формат {@code dd/mm}, по избор крайна дата,
+     *                 брой събития на страница и брой пропуснати събития
      *
-     * @throws IllegalArgumentException ако аргументите са невалидни или датата не е подадена в правилен формат
+     * @throws IllegalArgumentException ако броят на аргументите е грешен,
+     *                                  или ако датата или числата не са валидни
      */
     @Override
     public void execute(Calendar calendar, String[] args)
     {
-        if (args.length != 2)
-            throw new IllegalArgumentException("Agenda takes 1 argument! (Agenda <date>) [date format: dd/mm]");
+        Page page = parse(calendar, args);
+        calendar.agenda(page.from(), page.to(), page.offset(), page.limit());
+    }
+
+    /**
+     * Връща страницата от събития, без да я извежда.
+     *
+     * @return списък със събитията
+     */
+    @Override
+    public Object query(Calendar calendar, String[] args)
+    {
+        Page page = parse(calendar, args);
+        return calendar.page(page.from(), page.to(), page.offset(), page.limit());
+    }
+
+    private Page parse(Calendar calendar, String[] args)
+    {
+        if (args.length < 2 || args.length > 5)
+            throw new IllegalArgumentException("Agenda takes 1 to 4 arguments! (Agenda <date> [todate] [limit] [offset]) [date format: dd/mm]");
+
+        LocalDate from = parseDate(calendar, args[1]);
+        LocalDate to = from;
+        int next = 2;
+        if (args.length > next && args[next].contains("/"))
+            to = parseDate(calendar, args[next++]);
+        if (args.length > next + 2)
+            throw new IllegalArgumentException("Agenda takes 1 to 4 arguments! (Agenda <date> [todate] [limit] [offset]) [date format: dd/mm]");
 
-        LocalDate date;
+        int limit = args.length > next ? parseCount(args[next], "Limit") : Integer.MAX_VALUE;
+        int offset = args.length > next + 1 ? parseCount(args[next + 1], "Offset") : 0;
+        return new Page(from, to, limit, offset);
+    }
 
-        String[] input = args[1].split("/");
+    private LocalDate parseDate(Calendar calendar, String arg)
+    {
+        String[] input = arg.split("/");
 
         if (input.length != 2)
             throw new IllegalArgumentException("Date must consist of a day and month separated by '/'");
         try {
-            date = LocalDate.of(calendar.currentYear.getYear(), Integer.parseInt(input[1]), Integer.parseInt(input[0]));
+            return LocalDate.of(calendar.currentYear.getYear(), Integer.parseInt(input[1]), Integer.parseInt(input[0]));
         } catch (NumberFormatException | DateTimeException e) {
             throw new IllegalArgumentException("Month and day must be valid numbers and represent a real date");
         }
-        calendar.agenda(date);
+    }
+
+    static int parseCount(String arg, String what)
+    {
+        try {
+            int value = Integer.parseInt(arg);
+            if (value < 0)
+                throw new IllegalArgumentException(what + " cannot be negative!");
+            return value;
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException(what + " must be a whole number!");
+        }
+    }
+
+    @Override
+    public boolean changesCalendar()
+    {
+        return false;
     }
 }
@@ -1,37 +1,94 @@
 package Commands;
 
-import Interfaces.Command;
+import Interfaces.QueryCommand;
 import Models.Calendar;
+import Models.Event;
+
+import java.time.DateTimeException;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.Arrays;
 
 /**
  * Команда за създаване и добавяне на ново събитие в календара.
  * <p>
- * Използва се за ръчно въвеждане на събитие от потребителя чрез конзолен вход.
- * Не приема аргументи – информацията за събитието се събира интерактивно.
+ * Без аргументи информацията за събитието се събира интерактивно чрез конзолен вход.
+ * Събитието може да се зададе и направо: дата ({@code dd/mm}), начален и краен час ({@code hh:mm}),
+ * име (една дума) и по избор описание (останалата част от реда).
  * </p>
  *
  * <p><b>Пример за използване:</b></p>
  * <pre>
  * book
+ * book 12/06 10:00 11:30 Standup Daily sync with the team
  * </pre>
  */
-public class Book implements Command {
+public class Book implements QueryCommand {
 
     /**
      * Изпълнява командата за добавяне на ново събитие.
-     * Извиква метода {@code createEvent()} за създаване на събитие и го добавя в календара.
+     * Без аргументи извиква метода {@code createEvent()} за създаване на събитие и го добавя в календара.
      *
      * @param calendar обектът {@link Calendar}, в който ще се добави новото събитие
-     * @param args     масив с аргументи – не трябва да съдържа нищо освен името на командата
+     * @param args     масив с аргументи – само името на командата, или дата, начален час, краен час,
+     *                 име и по избор описание
      *
-     * @throws IllegalArgumentException ако са подадени аргументи (командата не приема такива)
+     * @throws IllegalArgumentException ако аргументите са грешни по брой или формат
      */
     @Override
     public void execute(Calendar calendar, String[] args)
     {
-        if(args.length != 1)
-            throw new IllegalArgumentException("Book doesn't take any arguments!");
+        if(args.length == 1)
+        {
+            calendar.book(calendar.createEvent());
+            return;
+        }
+        calendar.book(parse(calendar, args));
+    }
 
-        calendar.book(calendar.createEvent());
+    /**
+     * Добавя събитието, зададено с аргументите, без съобщения.
+     *
+     * @return {@link Boolean#TRUE}, ако събитието е добавено, и {@link Boolean#FALSE}, ако се застъпва с друго
+     */
+    @Override
+    public Object query(Calendar calendar, String[] args)
+    {
+        return calendar.tryBook(parse(calendar, args));
+    }
+
+    private Event parse(Calendar calendar, String[] args)
+    {
+        if(args.length < 5)
+            throw new IllegalArgumentException("Book takes no arguments or at least 4! (book [<date> <starttime> <endtime> <name> [description]])" +
+                    " [date format: dd/mm] [time format: hh:mm]");
+
+        LocalDate date;
+        String[] input = args[1].split("/");
+        if (input.length != 2)
+            throw new IllegalArgumentException("Date must consist of a day and month separated by '/'");
+        try {
+            date = LocalDate.of(calendar.currentYear.getYear(), Integer.parseInt(input[1]), Integer.parseInt(input[0]));
+        } catch (NumberFormatException | DateTimeException e) {
+            throw new IllegalArgumentException("Month and day must be valid numbers and represent a real date");
+        }
+
+        LocalTime start = parseTime(args[2], "Starttime");
+        LocalTime end = parseTime(args[3], "Endtime");
+        String desc = String.join(" ", Arrays.asList(args).subList(5, args.length));
+        return new Event(args[4], date, start, end, desc);
+    }
+
+    private LocalTime parseTime(String arg, String what)
+    {
+        String[] input = arg.split(":");
+        if (input.length != 2)
+            throw new IllegalArgumentException(what + " must consist of hours and minutes separated by ':'");
+        try{
+            return LocalTime.of(Integer.parseInt(input[0]), Integer.parseInt(input[1]));
+        }catch(NumberFormatException | DateTimeException e)
+        {
+            throw new IllegalArgumentException(what + " hours and minutes must be valid numbers and represent a real time");
+        }
     }
 }
@@ -0,0 +1,52 @@
+package Commands;
+
+import Interfaces.Command;
+import Models.Calendar;
+import Models.SlotCache;
+
+/**
+ * Команда за преглед на кеша за свободни интервали.
+ * <p>
+ * Без аргументи извежда броя на записите и колко от търсенията с {@code findslot}
+ * и {@code findslotwith} са обслужени от кеша. С аргумент {@code clear} изпразва кеша.
+ * </p>
+ *
+ * <p><b>Пример за използване:</b></p>
+ * <pre>
+ * cache
+ * cache clear
+ * </pre>
+ */
+public class Cache implements Command {
+
+    /**
+     * Изпълнява командата за преглед или изчистване на кеша.
+     *
+     * @param calendar обектът {@link Calendar}, чийто кеш се преглежда
+     * @param args     аргументи на командата – по избор {@code clear}
+     *
+     * @throws IllegalArgumentException ако аргументите са повече от един или не са {@code clear}
+     */
+    @Override
+    public void execute(Calendar calendar, String[] args)
+    {
+        SlotCache cache = calendar.getSlotCache();
+        if (args.length == 2 && args[1].equalsIgnoreCase("clear")) {
+            cache.clear();
+            System.out.println("The slot cache has been cleared.");
+            return;
+        }
+        if (args.length != 1)
+            throw new IllegalArgumentException("Cache takes no arguments or 'clear'! (cache [clear])");
+
+        System.out.println("Slot cache: " + cache.size() + "/" + cache.getCapacity() + " entries");
+        System.out.printf("Hits: %d, misses: %d, hit rate: %.1f%%%n",
+                cache.getHits(), cache.getMisses(), cache.hitRate() * 100);
+    }
+
+    @Override
+    public boolean changesCalendar()
+    {
+        return false;
+    }
+}
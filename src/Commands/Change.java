@@ -4,17 +4,21 @@ import Interfaces.Command;
 import Models.Calendar;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 
 /**
  * Команда за промяна на избрано поле от съществуващо събитие в календара.
  * <p>
  * Позволява на потребителя да избере събитие по индекс и да промени конкретно негово поле (име, описание, дата и др.).
- * Приема два аргумента: индекс на събитието и желаното поле за редакция.
+ * Приема два аргумента: индекс на събитието и желаното поле за редакция. Новата стойност
+ * може да се даде и направо като трети аргумент – тогава не се задават въпроси.
  * </p>
  *
  * <p><b>Пример за използване:</b></p>
  * <pre>
  * change 3 date
+ * change 3 start 14:30
+ * change 3 desc Moved after lunch
  * </pre>
  */
 public class Change implements Command {
@@ -45,6 +49,7 @@ public class Change implements Command {
      *                 <ul>
      *                     <li>{@code args[1]} – индекс на събитието в списъка</li>
      *                     <li>{@code args[2]} – името на полето, което ще бъде променено</li>
+     *                     <li>{@code args[3..]} – по избор новата стойност (за име и описание – останалата част от реда)</li>
      *                 </ul>
      *
      * @throws IllegalArgumentException ако броят на аргументите е грешен, индексът е невалиден,
@@ -53,8 +58,8 @@ public class Change implements Command {
     @Override
     public void execute(Calendar calendar, String[] args)
     {
-        if(args.length != 3)
-            throw new IllegalArgumentException("Change takes 2 arguments! Requires the index of the event and the desired field as an argument.\nExample: change <index> date | Use showall to see all events and their indexes!");
+        if(args.length < 3)
+            throw new IllegalArgumentException("Change takes 2 or more arguments! Requires the index of the event and the desired field as an argument, optionally the new value.\nExample: change <index> date [dd/mm] | Use showall to see all events and their indexes!");
         int index;
         try{
             index = Integer.parseInt(args[1]);
@@ -63,13 +68,22 @@ public class Change implements Command {
         {
             throw new IllegalArgumentException("Invalid first argument! Index must be a number!");
         }
-        if(index < 0 || index > calendar.getEvents().size() - 1)
+        if(index < 0 || index > calendar.size() - 1)
             throw new IllegalArgumentException("Invalid first argument! Index out of range!");
         if(!actions.contains(args[2].toLowerCase()))
             throw new IllegalArgumentException("Invalid second argument! Valid arguments: 'name', 'desc', 'start', 'end', 'date'");
 
         if(args[2].equalsIgnoreCase("description"))
             args[2] = "desc";
-        calendar.change(calendar.getEvents().get(index), args[2]);
+        if(args.length == 3)
+        {
+            calendar.change(calendar.eventAt(index), args[2]);
+            return;
+        }
+        String value = String.join(" ", Arrays.asList(args).subList(3, args.length));
+        if(calendar.change(calendar.eventAt(index), args[2], value))
+            System.out.println("Event changed.");
+        else
+            System.out.println("Change not possible due to overlapping event/s!");
     }
 }
\ No newline at end of file
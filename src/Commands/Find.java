@@ -1,21 +1,23 @@
 package Commands;
 
-import Interfaces.Command;
+import Interfaces.QueryCommand;
 import Models.Calendar;
 
 /**
  * Команда за търсене на събития в календара по ключова дума.
  * <p>
  * Ключовата дума може да съвпада с част от заглавието или описанието на събитие.
- * Командата приема един аргумент – текстът за търсене.
+ * Командата приема един аргумент – текстът за търсене. Ако той съдържа няколко думи,
+ * се намират събитията, които съдържат всяка от тях.
  * </p>
  *
  * <p><b>Пример за използване:</b></p>
  * <pre>
  * find Meeting
+ * find budget review
  * </pre>
  */
-public class Find implements Command {
+public class Find implements QueryCommand {
 
     /**
      * Изпълнява командата за търсене на събития по ключова дума.
@@ -38,4 +40,24 @@ public class Find implements Command {
         String info = args[1];
         calendar.findEvents(info);
     }
+
+    /**
+     * Връща съвпадащите събития в хронологичен ред, без да ги извежда.
+     *
+     * @return списък със събитията
+     */
+    @Override
+    public Object query(Calendar calendar, String[] args)
+    {
+        if(args.length != 2)
+            throw new IllegalArgumentException("Find takes 1 argument! (find <info>)");
+
+        return calendar.findMatching(args[1]);
+    }
+
+    @Override
+    public boolean changesCalendar()
+    {
+        return false;
+    }
 }
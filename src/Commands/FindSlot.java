@@ -1,14 +1,16 @@
 package Commands;
 
-import Interfaces.Command;
+import Interfaces.QueryCommand;
 import Models.Calendar;
 import Models.Event;
+import Models.EventPrinter;
 import Models.Holidays;
 
 import java.time.DateTimeException;
 import java.time.LocalDate;
 import java.time.LocalTime;
 import java.time.Month;
+import java.util.ArrayList;
 import java.util.List;
 
 /**
@@ -19,11 +21,21 @@ import java.util.List;
  *     <li><b>Дата на започване</b> във формат {@code dd/mm}</li>
  *     <li><b>Продължителност</b> на желаното събитие в часове (1 до 9)</li>
  * </ul>
+ * Може да се зададе и период: {@code findslot <от> <до> <продължителност> [брой]}. Тогава се търси
+ * във всеки ден от периода, а резултатите се извеждат по реда на датите. Ако е зададен брой,
+ * търсенето спира след толкова намерени слота.
  * </p>
  *
  * <p><b>Пример:</b> {@code findslot 12/06 2} – търси свободни слотове за 2 часа, започвайки от 12 юни.</p>
+ * <p><b>Пример:</b> {@code findslot 01/07 30/09 01:30 5} – първите 5 свободни слота от час и половина през третото тримесечие.</p>
  */
-public class FindSlot implements Command {
+public class FindSlot implements QueryCommand {
+
+    /**
+     * Разчетените аргументи при търсене в период.
+     */
+    private record Range(LocalDate from, LocalDate to, LocalTime hours, int limit) {
+    }
 
     /**
      * Изпълнява командата за търсене на свободен времеви интервал в календара.
@@ -34,10 +46,11 @@ public class FindSlot implements Command {
      *                     <li>{@code args[1]} – начална дата във формат {@code dd/mm}</li>
      *                     <li>{@code args[2]} – желана продължителност в часове (от 1 до 9)</li>
      *                 </ul>
+     *                 или при търсене в период: начална дата, крайна дата, продължителност и по избор брой слотове
      *
      * @throws IllegalArgumentException ако:
      * <ul>
-     *     <li>броят на аргументите е различен от 3</li>
+     *     <li>броят на аргументите е различен от 3, 4 или 5</li>
      *     <li>датата или часовете не са валидни числа</li>
      *     <li>датата не съществува (например 30 февруари)</li>
      *     <li>часовете са извън позволения диапазон</li>
@@ -45,45 +58,129 @@ public class FindSlot implements Command {
      */
     @Override
     public void execute(Calendar calendar, String[] args)
+    {
+        if(args.length == 4 || args.length == 5)
+        {
+            findInRange(calendar, parseRange(calendar, args));
+            return;
+        }
+        checkSingle(args);
+
+        LocalDate date = parseDate(calendar, args[1]);
+        LocalTime hours = parseHours(args[2]);
+
+        List<Event> results = calendar.findSlot(date, hours);
+
+        if(results != null)
+        {
+            System.out.println("The available slots are: \n");
+            EventPrinter printer = calendar.newPrinter();
+            for(Event e : results)
+                printer.event(e);
+            printer.flush();
+        }
+    }
+
+    /**
+     * Връща свободните слотове за деня или периода, без да ги извежда.
+     * В почивен ден няма слотове.
+     *
+     * @return списък със слотовете по реда на датите
+     */
+    @Override
+    public Object query(Calendar calendar, String[] args)
+    {
+        if(args.length == 4 || args.length == 5)
+        {
+            Range range = parseRange(calendar, args);
+            List<Event> slots = new ArrayList<>();
+            calendar.findSlots(range.from(), range.to(), range.hours(), range.limit(), slots::add);
+            return slots;
+        }
+        checkSingle(args);
+        return calendar.slotsOn(parseDate(calendar, args[1]), parseHours(args[2]));
+    }
+
+    private void checkSingle(String[] args)
     {
         if(args.length != 3)
-            throw new IllegalArgumentException("FindSlot takes 2 arguments! (findslot <fromdate> <hours>) [fromdate format: dd/mm]");
+            throw new IllegalArgumentException("FindSlot takes 2 arguments! (findslot <fromdate> <hours>) [fromdate format: dd/mm]" +
+                    " or a range (findslot <fromdate> <todate> <hours> [limit])");
+    }
 
-        LocalTime hours;
-        LocalDate date;
+    /**
+     * Търси свободни слотове във всеки ден от период и ги извежда по реда на датите.
+     */
+    private void findInRange(Calendar calendar, Range range)
+    {
+        System.out.println("The available slots are: \n");
+        EventPrinter printer = calendar.newPrinter();
+        int found = calendar.findSlots(range.from(), range.to(), range.hours(), range.limit(), printer::event);
+        printer.flush();
+        if(found == 0)
+            System.out.println("There are no available slots in the chosen period\n");
+    }
+
+    private Range parseRange(Calendar calendar, String[] args)
+    {
+        LocalDate from = parseDate(calendar, args[1]);
+        LocalDate to = parseDate(calendar, args[2]);
+        LocalTime hours = parseHours(args[3]);
+        int limit = Integer.MAX_VALUE;
+        if(args.length == 5)
+        {
+            try{
+                limit = Integer.parseInt(args[4]);
+            }
+            catch(NumberFormatException e)
+            {
+                throw new IllegalArgumentException("The number of slots must be a whole number!");
+            }
+        }
 
-        String[] input = args[1].split("/");
+        if(from.isAfter(to))
+            throw new IllegalArgumentException("'From' date must be before 'To' date");
+        if(limit < 1)
+            throw new IllegalArgumentException("The number of slots must be positive!");
+        return new Range(from, to, hours, limit);
+    }
+
+    private LocalDate parseDate(Calendar calendar, String arg)
+    {
+        String[] input = arg.split("/");
         if (input.length != 2)
             throw new IllegalArgumentException("Date must consist of a day and month separated by '/'");
         try{
-            date = LocalDate.of(calendar.currentYear.getYear(), Integer.parseInt(input[1]), Integer.parseInt(input[0]));
+            return LocalDate.of(calendar.currentYear.getYear(), Integer.parseInt(input[1]), Integer.parseInt(input[0]));
         }
         catch(NumberFormatException | DateTimeException e)
         {
             throw new IllegalArgumentException("Month and day must be valid numbers and represent a real date");
         }
+    }
 
-        input = args[2].split(":");
+    private LocalTime parseHours(String arg)
+    {
+        LocalTime hours;
+        String[] input = arg.split(":");
         if (input.length != 2)
             throw new IllegalArgumentException("Hours must consist of hours and minutes separated by ':'");
 
         try{
             hours = LocalTime.of(Integer.parseInt(input[0]), Integer.parseInt(input[1]));
         }
-        catch(DateTimeException e)
+        catch(NumberFormatException | DateTimeException e)
         {
-            throw new IllegalArgumentException("Invalid third argument! Hours must be valid numbers and represent a real time!");
+            throw new IllegalArgumentException("Invalid duration! Hours must be valid numbers and represent a real time!");
         }
         if(hours.isAfter(LocalTime.of(9,0)))
             throw new IllegalArgumentException("Event cannot be longer than 9hrs or shorter than 1hr]");
+        return hours;
+    }
 
-        List<Event> results = calendar.findSlot(date, hours);
-
-        if(results != null)
-        {
-            System.out.println("The available slots are: \n");
-            for(Event e : results)
-                System.out.println(e.ShowEvent());
-        }
+    @Override
+    public boolean changesCalendar()
+    {
+        return false;
     }
 }
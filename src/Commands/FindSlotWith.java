@@ -1,26 +1,32 @@
 package Commands;
 
 import Interfaces.Command;
+import Models.BinarySnapshot;
 import Models.Calendar;
 import Models.Event;
+import Models.EventPrinter;
 
 import java.time.DateTimeException;
 import java.time.LocalDate;
 import java.time.LocalTime;
 import java.time.Month;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
 import java.util.List;
 
 /**
- * Команда за търсене на свободни времеви слотове, които са налични както в текущия календар, така и в друг потребителски файл.
+ * Команда за търсене на свободни времеви слотове, които са налични както в текущия календар, така и в други потребителски файлове.
  * <p>
- * Изисква 3 аргумента:
+ * Изисква поне 3 аргумента:
  * <ul>
  *     <li><b>Дата</b> във формат {@code dd/mm}</li>
  *     <li><b>Продължителност</b> в часове (между 1 и 9)</li>
- *     <li><b>Име на файл</b> без разширение</li>
+ *     <li><b>Имена на файлове</b> без разширение (или с {@code .calb}) или директории с календари</li>
  * </ul>
  * </p>
  * <p><b>Пример:</b> {@code findslotwith 13/07 2 colleague} – търси съвпадащи свободни слотове между текущия календар и файла {@code colleague.txt}</p>
+ * <p><b>Пример:</b> {@code findslotwith 13/07 2 alice bob team} – същото за {@code alice.txt}, {@code bob.txt} и всички календари в директорията {@code team}</p>
  */
 public class FindSlotWith implements Command {
 
@@ -32,7 +38,7 @@ public class FindSlotWith implements Command {
      *                 <ul>
      *                     <li>{@code args[1]} – начална дата във формат {@code dd/mm}</li>
      *                     <li>{@code args[2]} – желана продължителност в часове</li>
-     *                     <li>{@code args[3]} – име на файл (без разширение)</li>
+     *                     <li>{@code args[3]} и следващите – имена на файлове (без разширение) или директории</li>
      *                 </ul>
      *
      * @throws IllegalArgumentException ако:
@@ -46,8 +52,8 @@ public class FindSlotWith implements Command {
     @Override
     public void execute(Calendar calendar, String[] args)
     {
-        if(args.length != 4)
-            throw new IllegalArgumentException("FindSlot takes 3 arguments! (findslotwith <date> <hours> <filename>) [date format: dd/mm]");
+        if(args.length < 4)
+            throw new IllegalArgumentException("FindSlotWith takes at least 3 arguments! (findslotwith <date> <hours> <filename> [filename...]) [date format: dd/mm]");
 
         LocalTime hours;
         LocalDate date;
@@ -70,24 +76,38 @@ public class FindSlotWith implements Command {
         try{
             hours = LocalTime.of(Integer.parseInt(input[0]), Integer.parseInt(input[1]));
         }
-        catch(DateTimeException e)
+        catch(NumberFormatException | DateTimeException e)
         {
             throw new IllegalArgumentException("Invalid third argument! Hours must be valid numbers and represent a real time!");
         }
         if(hours.isAfter(LocalTime.of(9,0)))
             throw new IllegalArgumentException("Event cannot be longer than 9hrs or shorter than 1hr]");
 
-        if(args[3].contains("."))
-            throw new IllegalArgumentException("Name cannot contain dots or extensions!");
-        String name = args[3];
+        List<String> names = new ArrayList<>();
+        for(int i = 3; i < args.length; i++)
+        {
+            if(args[i].contains(".") && !BinarySnapshot.isBinary(args[i]) && !Files.isDirectory(Path.of(args[i])))
+                throw new IllegalArgumentException("Name cannot contain dots or extensions!");
+            names.add(args[i]);
+        }
 
-        List<Event> results = calendar.findSlotWith(date, hours, name);
+        List<Event> results = calendar.findSlotWith(date, hours, names);
         if(results != null)
         {
-            System.out.println("These slots are both avaliable in the calendar and the file: \n");
+            if(names.size() == 1)
+                System.out.println("These slots are both avaliable in the calendar and the file: \n");
+            else
+                System.out.println("These slots are avaliable in the calendar and in all of the files: \n");
+            EventPrinter printer = calendar.newPrinter();
             for(Event e : results)
-                System.out.println(e.ShowEvent());
+                printer.event(e);
+            printer.flush();
         }
     }
-}
 
+    @Override
+    public boolean changesCalendar()
+    {
+        return false;
+    }
+}
@@ -0,0 +1,62 @@
+package Commands;
+
+import Interfaces.Command;
+import Models.Calendar;
+import Models.EventPrinter;
+
+/**
+ * Команда за избор на формата, в който се извеждат списъците от събития.
+ * <p>
+ * Без аргументи извежда текущия формат. {@code full} е досегашният многоредов изглед, а
+ * {@code compact} извежда по един ред на събитие с полета, разделени с табулация, което е удобно
+ * за обработка от скриптове. Форматът се отнася за {@code showall}, {@code agenda}, {@code find},
+ * {@code findslot}, {@code findslotwith} и {@code nextfree}.
+ * </p>
+ *
+ * <p><b>Пример за използване:</b></p>
+ * <pre>
+ * format compact
+ * format full
+ * </pre>
+ */
+public class Format implements Command {
+
+    /**
+     * Изпълнява командата за преглед или смяна на формата.
+     *
+     * @param calendar обектът {@link Calendar}, чиито събития се извеждат
+     * @param args     аргументи на командата – по избор {@code full} или {@code compact}
+     *
+     * @throws IllegalArgumentException ако аргументите са повече от един или форматът е непознат
+     */
+    @Override
+    public void execute(Calendar calendar, String[] args)
+    {
+        if(args.length == 1)
+        {
+            System.out.println("Output format: " + calendar.getFormat().name().toLowerCase());
+            return;
+        }
+        if(args.length != 2)
+            throw new IllegalArgumentException("Format takes no arguments or one! (format [full|compact])");
+
+        switch (args[1].toLowerCase())
+        {
+            case "full":
+                calendar.setFormat(EventPrinter.Format.FULL);
+                break;
+            case "compact":
+                calendar.setFormat(EventPrinter.Format.COMPACT);
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown format! Use 'full' or 'compact'");
+        }
+        System.out.println("Output format set to " + calendar.getFormat().name().toLowerCase() + ".");
+    }
+
+    @Override
+    public boolean changesCalendar()
+    {
+        return false;
+    }
+}
@@ -2,8 +2,7 @@ package Commands;
 
 import Interfaces.Command;
 import Models.Calendar;
-
-import java.util.Scanner;
+import Models.UserInput;
 
 /**
  * Команда за показване на помощно меню с описание на всички налични команди и съвети за употреба.
@@ -39,27 +38,42 @@ public class Help implements Command {
         System.out.println("write <name> -> Save calendar - Save current calendar to .txt file | expects the name of the file without its extension");
         System.out.println("read <name> -> Load calendar - Replace current calendar with file contents | expects the name of the file without its extension");
         System.out.println("saveas <name.extension> -> Save as custom format - Export to any file format (advanced) | lets the user choose the name and extension of the file");
-        System.out.println("merge <name> -> Merge calendars - Combine current calendar with file contents | merges calendars with chosen .txt file by name\n");
+        System.out.println("merge <name> -> Merge calendars - Combine current calendar with file contents | merges calendars with chosen .txt file by name");
+        System.out.println("- read, write and merge also accept <name>.calb for the compact binary format (e.g. 'write backup.calb', 'read backup.calb')");
+        System.out.println("- saveas exports to CSV, iCalendar or JSON Lines when the extension is .csv, .ics or .jsonl (e.g. 'saveas events.ics')\n");
 
         System.out.println("=== EVENT COMMANDS ===");
-        System.out.println("book -> Book event - Schedule a new event | expects manual input for each value");
+        System.out.println("book [<date> <starttime> <endtime> <name> [description]] -> Book event - Schedule a new event | expects manual input for each value when given no arguments");
         System.out.println("unbook <date> <starttime> <endtime> -> Remove event - Delete an existing event | expects the exact datetime of the event [dd/mm hh hh]");
-        System.out.println("pt.1 change <index> <field>-> Edit event - Modify event details | user chooses what to change and what value to asign");
+        System.out.println("pt.1 change <index> <field> [value]-> Edit event - Modify event details | user chooses what to change and what value to asign, or gives the value inline");
         System.out.println("pt.2 the index of the event can be checked with the showall command. Allowed fields are 'name' 'desc'/'description' 'start' 'end' 'date'");
         System.out.println("find <keywords>-> Search events - Find events by keyword/s | expects keyword/s as input by user");
         System.out.println("findslot <fromdate> <hours>-> Find free slots - Check available meeting times | expects information about the slot");
-        System.out.println("findslotwith <fromdate> <hours> <filename>-> Combined free slots - Find times free in both calendar and file | same as findslot but also searches through a file");
-        System.out.println("showall -> Show all events - Display complete schedule | no input expected");
-        System.out.println("showbusy <fromdate> <todate>-> Busy days - See which days have most events | expects range of time");
-        System.out.println("agenda <date>-> Daily agenda - View schedule for specific day | expects a day as input\n");
+        System.out.println("findslot <fromdate> <todate> <hours> [limit]-> Free slots in a range - Check every day of the period, stops after [limit] slots if given");
+        System.out.println("findslotwith <fromdate> <hours> <filename> [filename...]-> Combined free slots - Find times free in the calendar and every file | accepts several files or a directory of calendars");
+        System.out.println("nextfree <hours> [date] [time]-> Next free slot - Find the first free slot of that length from now or from the given date/time | skips holidays");
+        System.out.println("showall [limit] [offset] -> Show all events - Display complete schedule | optionally one page of [limit] events starting at index [offset]");
+        System.out.println("showbusy <fromdate> <todate> [days]-> Busy days - See which days have most events | expects range of time, optionally how many of the busiest days to show");
+        System.out.println("agenda <date> [todate] [limit] [offset]-> Daily agenda - View schedule for specific day | expects a day as input, optionally a period and a page of events");
+        System.out.println("workhours [<start> <end> [step]] -> Working hours - Show or set the hours searched by findslot/findslotwith | step is the minutes between suggested starts");
+        System.out.println("cache [clear] -> Slot cache - Show how often findslot/findslotwith results come from the cache | 'clear' empties it");
+        System.out.println("use [name] -> Select calendar - Run the next commands against the calendar stored in <name>.txt (loaded on first use) | 'use default' goes back, no name shows loaded calendars");
+        System.out.println("jobs -> Background jobs - Show file commands (read, write, merge, ...) that are still running in the background | event commands wait for them automatically when needed");
+        System.out.println("format [full|compact] -> Output format - Show or choose how event lists are printed | 'compact' prints one tab-separated line per event for scripts\n");
 
         System.out.println("=== USAGE TIPS ===");
         System.out.println("- Universal date format is [dd/mm] there is no need for a year.");
         System.out.println("- Only hours are required for time.");
-        System.out.println("- Free slot finder shows times between 8:00-17:00 on workdays only");
+        System.out.println("- Free slot finder shows times between 8:00-17:00 by default, starting at the beginning of each free gap (change with workhours)");
         System.out.println("- When merging calendars, you'll be prompted to resolve conflicts");
 
         System.out.println("Write anything to return...\n");
-        new Scanner(System.in).nextLine();
+        UserInput.pause();
+    }
+
+    @Override
+    public boolean changesCalendar()
+    {
+        return false;
     }
 }
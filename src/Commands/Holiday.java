@@ -1,7 +1,6 @@
 package Commands;
 
 import Interfaces.FileCommand;
-import Models.Calendar;
 import Models.FileController;
 import Models.Holidays;
 
@@ -35,8 +34,7 @@ public class Holiday implements FileCommand {
         if (input.length != 2)
             throw new IllegalArgumentException("Date must consist of a day and month separated by '/'");
         try {
-            Calendar calendar = Calendar.getInstance();
-            date = LocalDate.of(calendar.currentYear.getYear(), Integer.parseInt(input[1]), Integer.parseInt(input[0]));
+            date = LocalDate.of(fileController.getCalendar().currentYear.getYear(), Integer.parseInt(input[1]), Integer.parseInt(input[0]));
         } catch (NumberFormatException | DateTimeException e) {
             throw new IllegalArgumentException("Month and day must be valid numbers and represent a real date");
         }
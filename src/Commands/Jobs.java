@@ -0,0 +1,62 @@
+package Commands;
+
+import Interfaces.Command;
+import Models.BackgroundJobs;
+import Models.Calendar;
+
+import java.util.List;
+
+/**
+ * Команда за преглед на файловите команди, които се изпълняват във фонов режим.
+ * <p>
+ * {@code read}, {@code write}, {@code merge} и останалите файлови команди не спират конзолата.
+ * Командата показва кои от тях още се изпълняват и кои чакат по-ранни команди за същия календар.
+ * </p>
+ *
+ * <p><b>Пример за използване:</b></p>
+ * <pre>
+ * jobs
+ * </pre>
+ */
+public class Jobs implements Command {
+
+    private final BackgroundJobs jobs;
+
+    /**
+     * Създава командата за даден изпълнител на фонови задачи.
+     * @param jobs изпълнителят
+     */
+    public Jobs(BackgroundJobs jobs) {
+        this.jobs = jobs;
+    }
+
+    /**
+     * Извежда фоновите задачи по реда на подаването им.
+     *
+     * @param calendar текущият календар (не се използва)
+     * @param args     аргументи на командата – не се очакват
+     *
+     * @throws IllegalArgumentException ако са подадени аргументи
+     */
+    @Override
+    public void execute(Calendar calendar, String[] args)
+    {
+        if(args.length != 1)
+            throw new IllegalArgumentException("Jobs takes no arguments! (jobs)");
+
+        List<BackgroundJobs.Job> list = jobs.list();
+        if(list.isEmpty())
+            System.out.println("No background jobs are running.");
+        for(BackgroundJobs.Job job : list)
+            System.out.printf("#%d %s [%s] - %s for %.1f s%n", job.id(), job.command(), job.calendar(),
+                    job.running() ? "running" : "waiting", job.seconds());
+        if(jobs.getFailed() > 0)
+            System.out.println(jobs.getFailed() + " job/s failed so far.");
+    }
+
+    @Override
+    public boolean changesCalendar()
+    {
+        return false;
+    }
+}
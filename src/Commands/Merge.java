@@ -1,7 +1,9 @@
 package Commands;
 
 import Interfaces.FileCommand;
+import Models.BinarySnapshot;
 import Models.FileController;
+import Models.UserInput;
 
 /**
  * Команда за обединяване на текущия календар с данни от друг файл.
@@ -20,17 +22,25 @@ public class Merge implements FileCommand {
      * @param args аргументи на командата – трябва да съдържат името на файла без разширение
      *
      * @throws IllegalArgumentException ако броят на аргументите е различен от 2,
-     *                                  или ако името на файла съдържа точка (.) или разширение
+     *                                  или ако името на файла съдържа разширение, различно от {@code .calb}
      */
     @Override
     public void execute(FileController fileController, String[] args)
     {
         if(args.length != 2)
             throw new IllegalArgumentException("Merge takes 1 argument! (merge <name>) [name must be without an extension like .txt]");
-        if(args[1].contains("."))
-            throw new IllegalArgumentException("Name cannot contain dots or extensions!");
+        if(args[1].contains(".") && !BinarySnapshot.isBinary(args[1]))
+            throw new IllegalArgumentException("Name cannot contain dots or extensions other than " + BinarySnapshot.EXTENSION + "!");
 
         fileController.mergeData(args[1]);
     }
 
-}
\ No newline at end of file
+    /**
+     * При конфликти потребителят избира кое събитие да остане.
+     */
+    @Override
+    public boolean needsConsole(FileController fileController)
+    {
+        return UserInput.isInteractive();
+    }
+}
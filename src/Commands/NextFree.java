@@ -0,0 +1,94 @@
+package Commands;
+
+import Interfaces.Command;
+import Models.Calendar;
+import Models.Event;
+import Models.EventPrinter;
+
+import java.time.DateTimeException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+
+/**
+ * Команда за намиране на първия свободен слот с дадена продължителност.
+ * <p>
+ * Приема продължителност във формат {@code hh:mm} и по избор дата ({@code dd/mm}) и час ({@code hh:mm}),
+ * от които да започне търсенето. Без тях се търси от текущия момент. Търси се до една година напред
+ * в работното време, като почивните дни се прескачат.
+ * </p>
+ *
+ * <p><b>Пример:</b> {@code nextfree 02:00} – първите свободни два часа от сега нататък.</p>
+ * <p><b>Пример:</b> {@code nextfree 01:00 15/09 13:00} – първия свободен час от 15 септември, 13:00 нататък.</p>
+ */
+public class NextFree implements Command {
+    /** В колко дни напред най-много се търси. */
+    private static final int MAX_DAYS = 366;
+
+    /**
+     * Изпълнява командата за намиране на първия свободен слот.
+     *
+     * @param calendar обектът {@link Calendar}, в който се търси
+     * @param args     аргументи на командата – продължителност и по избор дата и час
+     *
+     * @throws IllegalArgumentException ако аргументите са грешни по брой или формат
+     */
+    @Override
+    public void execute(Calendar calendar, String[] args)
+    {
+        if(args.length < 2 || args.length > 4)
+            throw new IllegalArgumentException("NextFree takes 1 to 3 arguments! (nextfree <hours> [date] [time]) [date format: dd/mm]");
+
+        LocalTime hours = parseTime(args[1]);
+        if(hours.equals(LocalTime.MIDNIGHT))
+            throw new IllegalArgumentException("Duration must be longer than 0 minutes!");
+
+        LocalDateTime from = LocalDateTime.now();
+        if(args.length >= 3)
+        {
+            String[] input = args[2].split("/");
+            if (input.length != 2)
+                throw new IllegalArgumentException("Date must consist of a day and month separated by '/'");
+            LocalDate date;
+            try{
+                date = LocalDate.of(calendar.currentYear.getYear(), Integer.parseInt(input[1]), Integer.parseInt(input[0]));
+            }
+            catch(NumberFormatException | DateTimeException e)
+            {
+                throw new IllegalArgumentException("Month and day must be valid numbers and represent a real date");
+            }
+            from = date.atTime(args.length == 4 ? parseTime(args[3]) : LocalTime.MIDNIGHT);
+        }
+
+        Event slot = calendar.nextFree(from, hours, MAX_DAYS);
+        if(slot == null)
+            System.out.println("There is no free slot of that length in the next " + MAX_DAYS + " days.");
+        else
+        {
+            System.out.println("The next free slot is: \n");
+            EventPrinter printer = calendar.newPrinter();
+            printer.event(slot);
+            printer.flush();
+        }
+    }
+
+    private LocalTime parseTime(String arg)
+    {
+        String[] input = arg.split(":");
+        if (input.length != 2)
+            throw new IllegalArgumentException("Time must consist of hours and minutes separated by ':'");
+        try{
+            return LocalTime.of(Integer.parseInt(input[0]), Integer.parseInt(input[1]));
+        }
+        catch(NumberFormatException | DateTimeException e)
+        {
+            throw new IllegalArgumentException("Hours and minutes must be valid numbers and represent a real time!");
+        }
+    }
+
+    @Override
+    public boolean changesCalendar()
+    {
+        return false;
+    }
+}
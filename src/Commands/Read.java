@@ -1,13 +1,14 @@
 package Commands;
 
 import Interfaces.FileCommand;
+import Models.BinarySnapshot;
 import Models.FileController;
 
 /**
  * Команда за зареждане на календар от файл.
  * <p>
  * Използва се като {@code read <име>}, където {@code <име>} е името на текстов файл (без разширение),
- * от който се зареждат събития в календара. При успешен прочит, текущият календар се заменя
+ * от който се зареждат събития в календара. Файл с разширение {@code .calb} се чете като двоичен. При успешен прочит, текущият календар се заменя
  * изцяло със съдържанието от файла.
  * </p>
  */
@@ -20,15 +21,15 @@ public class Read implements FileCommand {
      * @param args аргументи на командата – трябва да съдържат името на файла без разширение
      *
      * @throws IllegalArgumentException ако броят на аргументите е различен от 2,
-     *                                  или ако името на файла съдържа точка (.) или разширение
+     *                                  или ако името на файла съдържа разширение, различно от {@code .calb}
      */
     @Override
     public void execute(FileController fileController, String[] args)
     {
         if(args.length != 2)
             throw new IllegalArgumentException("Read takes 1 argument! (read <name>) [name must be without an extension like .txt]");
-        if(args[1].contains("."))
-            throw new IllegalArgumentException("Name cannot contain dots or extensions!");
+        if(args[1].contains(".") && !BinarySnapshot.isBinary(args[1]))
+            throw new IllegalArgumentException("Name cannot contain dots or extensions other than " + BinarySnapshot.EXTENSION + "!");
 
         fileController.readFile(args[1]);
     }
@@ -1,10 +1,9 @@
 package Commands;
 
 import Interfaces.FileCommand;
-import Models.Calendar;
+import Models.BinarySnapshot;
 import Models.FileController;
-
-import java.util.Scanner;
+import Models.UserInput;
 
 /**
  * Команда за записване на текущия календар във файл с потребителско име и разширение.
@@ -12,6 +11,8 @@ import java.util.Scanner;
  * Използва се като {@code saveas <име.разширение>}, където потребителят задава
  * името и разширението на файла. Позволява запис във всякакъв формат, но
  * предупреждава, че файлът може да не е съвместим с информацията.
+ * Разширението {@code .calb} записва календара в двоичен формат, който може да се чете обратно,
+ * а {@code .csv}, {@code .ics} и {@code .jsonl} го изнасят в съответния стандартен формат.
  * </p>
  * <p>
  * Ако календарът е празен, се изисква потвърждение от потребителя преди запис.
@@ -19,8 +20,6 @@ import java.util.Scanner;
  */
 public class SaveAs implements FileCommand {
 
-    Calendar calendar = Calendar.getInstance();
-
     /**
      * Изпълнява командата за записване на календара в избран от потребителя файл.
      *
@@ -38,16 +37,25 @@ public class SaveAs implements FileCommand {
         if(!args[1].contains("."))
             throw new IllegalArgumentException("Name must contain an extension!");
 
-        System.out.println("WARNING: This function will create a file with whatever extension you choose for it, meaning the file you create might not be compatible with the information!");
-        if (calendar.getEvents().isEmpty()) {
-            Scanner scanner = new Scanner(System.in);
-            System.out.println("You are about to write an empty calendar to a file, are you sure you want to continue?" +
-                               "\n Write 'CONTINUE' to go on. Write anything else to go back.");
-            String answer = scanner.nextLine();
-            if (!answer.equalsIgnoreCase("CONTINUE"))
-                return;
-        }
+        if (!BinarySnapshot.isBinary(args[1]) && fileController.encoderFor(args[1]) == null)
+            System.out.println("WARNING: This function will create a file with whatever extension you choose for it, meaning the file you create might not be compatible with the information!");
+        if (fileController.getCalendar().size() == 0
+                && !UserInput.confirm("You are about to write an empty calendar to a file, are you sure you want to continue?" +
+                                      "\n Write 'CONTINUE' to go on. Write anything else to go back.", "CONTINUE"))
+            return;
 
         fileController.writeToFile(args[1]);
     }
-}
\ No newline at end of file
+
+    @Override
+    public boolean changesCalendar()
+    {
+        return false;
+    }
+
+    @Override
+    public boolean needsConsole(FileController fileController)
+    {
+        return UserInput.isInteractive() && fileController.getCalendar().size() == 0;
+    }
+}
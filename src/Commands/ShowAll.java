@@ -6,8 +6,9 @@ import Models.Calendar;
 /**
  * Команда за показване на всички събития от календара.
  * <p>
- * Не приема аргументи.
- * При извикване извежда на екрана пълния списък със събития.
+ * Без аргументи извежда на екрана пълния списък със събития.
+ * По избор приема брой събития на страница и индекс на първото показано събитие,
+ * например {@code showall 50 100}.
  * </p>
  */
 public class ShowAll implements Command {
@@ -16,16 +17,26 @@ public class ShowAll implements Command {
      * Изпълнява командата за показване на всички събития.
      *
      * @param calendar обект на календара, от който се извличат събитията
-     * @param args аргументи на командата – трябва да е празен масив (само името на командата)
+     * @param args аргументи на командата – по избор брой събития на страница и индекс на първото събитие
      *
-     * @throws IllegalArgumentException ако са подадени аргументи
+     * @throws IllegalArgumentException ако аргументите са повече от два или не са неотрицателни числа
      */
     @Override
     public void execute(Calendar calendar, String[] args)
     {
-        if(args.length != 1)
-            throw new IllegalArgumentException("ShowAll doesn't take any arguments!");
+        if(args.length > 3)
+            throw new IllegalArgumentException("ShowAll takes at most 2 arguments! (showall [limit] [offset])");
 
-        calendar.printEvents();
+        if(args.length == 1)
+            calendar.printEvents();
+        else
+            calendar.printEvents(args.length == 3 ? Agenda.parseCount(args[2], "Offset") : 0,
+                    Agenda.parseCount(args[1], "Limit"));
+    }
+
+    @Override
+    public boolean changesCalendar()
+    {
+        return false;
     }
 }
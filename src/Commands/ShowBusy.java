@@ -1,6 +1,6 @@
 package Commands;
 
-import Interfaces.Command;
+import Interfaces.QueryCommand;
 import Models.Calendar;
 
 import java.time.DateTimeException;
@@ -11,24 +11,47 @@ import java.time.Month;
 /**
  * Команда за показване на натовареността на календарните дни в даден период.
  * <p>
- * Приема два аргумента - начална и крайна дата във формат "dd/mm".
- * Проверява валидността на подадените дати и извиква метод за показване на заетите дни
- * в зададения интервал.
+ * Приема два аргумента - начална и крайна дата във формат "dd/mm", и по избор трети -
+ * колко от най-натоварените дни да се покажат. Проверява валидността на подадените дати
+ * и извиква метод за показване на заетите дни в зададения интервал и общите заети часове.
  * </p>
  */
-public class ShowBusy implements Command {
+public class ShowBusy implements QueryCommand {
+
+    /**
+     * Разчетените аргументи на командата.
+     */
+    private record Period(LocalDate from, LocalDate to, int limit) {
+    }
 
     /**
      * Изпълнява командата за показване на заетите дни в календара в определения период.
      *
      * @param calendar обект на календара, в който се търсят натоварените дни
      * @param args     аргументи на командата - трябва да съдържат 2 валидни дати във формат "dd/mm"
+     *                 и по избор брой дни
      * @throws IllegalArgumentException ако аргументите са с неправилен брой или форматирани неправилно
      */
     @Override
     public void execute(Calendar calendar, String[] args) {
-        if (args.length != 3)
-            throw new IllegalArgumentException("ShowBusy takes 2 arguments! (ShowBusy <fromdate> <todate>) [date format: dd/mm]");
+        Period period = parse(calendar, args);
+        calendar.showBusyDays(period.from(), period.to(), period.limit());
+    }
+
+    /**
+     * Връща най-натоварените дни в периода, без да ги извежда.
+     *
+     * @return списък от {@link Calendar.DayBusyness}, подреден по най-много заети часове
+     */
+    @Override
+    public Object query(Calendar calendar, String[] args) {
+        Period period = parse(calendar, args);
+        return calendar.busyDays(period.from(), period.to(), period.limit());
+    }
+
+    private Period parse(Calendar calendar, String[] args) {
+        if (args.length != 3 && args.length != 4)
+            throw new IllegalArgumentException("ShowBusy takes 2 or 3 arguments! (ShowBusy <fromdate> <todate> [days]) [date format: dd/mm]");
 
         LocalDate from;
         LocalDate to;
@@ -51,6 +74,19 @@ public class ShowBusy implements Command {
         } catch (NumberFormatException | DateTimeException e) {
             throw new IllegalArgumentException("Todate month and day must be valid numbers and represent a real date");
         }
-        calendar.showBusyDays(from, to);
+        int limit = Integer.MAX_VALUE;
+        if (args.length == 4) {
+            try {
+                limit = Integer.parseInt(args[3]);
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("The number of days must be a whole number!");
+            }
+        }
+        return new Period(from, to, limit);
+    }
+
+    @Override
+    public boolean changesCalendar() {
+        return false;
     }
 }
@@ -1,6 +1,6 @@
 package Commands;
 
-import Interfaces.Command;
+import Interfaces.QueryCommand;
 import Models.Calendar;
 
 import java.time.DateTimeException;
@@ -16,7 +16,13 @@ import java.time.Month;
  * което съвпада с посочения времеви интервал в календара.
  * </p>
  */
-public class Unbook implements Command {
+public class Unbook implements QueryCommand {
+
+    /**
+     * Разчетените аргументи на командата.
+     */
+    private record Slot(LocalDate date, LocalTime start, LocalTime end) {
+    }
 
     /**
      * Изпълнява командата за премахване на събитие.
@@ -28,6 +34,24 @@ public class Unbook implements Command {
      */
     @Override
     public void execute(Calendar calendar, String[] args)
+    {
+        Slot slot = parse(calendar, args);
+        calendar.unbook(slot.date(), slot.start(), slot.end());
+    }
+
+    /**
+     * Премахва събитието без потвърждение.
+     *
+     * @return премахнатото събитие или {@code null}, ако няма събитие с тези дата и часове
+     */
+    @Override
+    public Object query(Calendar calendar, String[] args)
+    {
+        Slot slot = parse(calendar, args);
+        return calendar.removeAt(slot.date(), slot.start(), slot.end());
+    }
+
+    private Slot parse(Calendar calendar, String[] args)
     {
         if (args.length != 4)
             throw new IllegalArgumentException("Unbook takes 3 arguments! (Unbook <date> <starttime> <endtime>) [date format: dd/mm] [time format: hh/mm]");
@@ -65,7 +89,6 @@ public class Unbook implements Command {
         {
             throw new IllegalArgumentException("Endtime hours and minutes must be valid numbers and represent a real time");
         }
-        calendar.unbook(date,start,end);
-
+        return new Slot(date, start, end);
     }
 }
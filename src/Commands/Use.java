@@ -0,0 +1,70 @@
+package Commands;
+
+import Interfaces.Command;
+import Models.BackgroundJobs;
+import Models.Calendar;
+import Models.CalendarRegistry;
+
+/**
+ * Команда за избор на календара, с който работят следващите команди.
+ * <p>
+ * Всеки потребител има собствен календар, записан във файл със своето име. {@code use <име>} го зарежда
+ * при първото използване (или започва празен, ако файлът още не съществува) и го прави текущ.
+ * {@code use default} връща към календара по подразбиране. Без аргументи командата показва
+ * текущия календар, заредените календари и заеманата от тях памет.
+ * Преди смяната се изчакват фоновите файлови команди, защото при нея календар може да бъде освободен.
+ * </p>
+ *
+ * <p><b>Пример за използване:</b></p>
+ * <pre>
+ * use ivan.petrov
+ * use team/maria.calb
+ * use default
+ * </pre>
+ */
+public class Use implements Command {
+
+    private final CalendarRegistry registry;
+    private final BackgroundJobs jobs;
+
+    /**
+     * Създава командата за даден регистър с календари.
+     * @param registry регистърът
+     * @param jobs     фоновите файлови команди
+     */
+    public Use(CalendarRegistry registry, BackgroundJobs jobs) {
+        this.registry = registry;
+        this.jobs = jobs;
+    }
+
+    /**
+     * Изпълнява командата за избор или преглед на календарите.
+     *
+     * @param calendar текущият календар (не се използва)
+     * @param args     аргументи на командата – по избор името на календара
+     *
+     * @throws IllegalArgumentException ако аргументите са повече от един, името излиза от работната папка
+     *                                  или съдържа разширение, различно от {@code .calb}
+     */
+    @Override
+    public void execute(Calendar calendar, String[] args)
+    {
+        if(args.length == 1)
+        {
+            System.out.println("Current calendar: " + registry.getSelected());
+            System.out.println("Loaded calendars: " + registry.loadedNames().size()
+                    + (registry.loadedNames().isEmpty() ? "" : " " + registry.loadedNames()));
+            System.out.printf("Memory: ~%.1f of %.1f MB, %d calendar/s unloaded%n",
+                    registry.estimatedBytes() / 1048576.0, registry.getBudget() / 1048576.0, registry.getEvicted());
+            return;
+        }
+        if(args.length != 2)
+            throw new IllegalArgumentException("Use takes no arguments or 1! (use [name]) [name must be without an extension like .txt]");
+        String name = args[1];
+        CalendarRegistry.checkName(name);
+
+        jobs.awaitAll();
+        Calendar selected = registry.select(name);
+        System.out.println("Using calendar '" + registry.getSelected() + "' (" + selected.size() + " event/s).");
+    }
+}
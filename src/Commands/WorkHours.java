@@ -0,0 +1,72 @@
+package Commands;
+
+import Interfaces.Command;
+import Models.Calendar;
+import Models.WorkingHours;
+
+import java.time.DateTimeException;
+import java.time.LocalTime;
+
+/**
+ * Команда за преглед и промяна на работното време, в което се търсят свободни слотове.
+ * <p>
+ * Без аргументи извежда текущото работно време. С аргументи задава начало и край във формат
+ * {@code hh:mm} и по избор стъпка в минути между началата на предлаганите слотове.
+ * </p>
+ *
+ * <p><b>Пример:</b> {@code workhours 09:30 18:00 15} – слотове между 9:30 и 18:00 на всеки 15 минути.</p>
+ */
+public class WorkHours implements Command {
+
+    /**
+     * Изпълнява командата за преглед или промяна на работното време.
+     *
+     * @param calendar обектът {@link Calendar}, чието работно време се променя
+     * @param args     аргументи на командата – нито един, или начало, край и по избор стъпка
+     *
+     * @throws IllegalArgumentException ако аргументите са грешни по брой или формат,
+     *                                  или ако краят не е след началото
+     */
+    @Override
+    public void execute(Calendar calendar, String[] args)
+    {
+        if(args.length == 1)
+        {
+            System.out.println("Working hours: " + calendar.getWorkingHours());
+            return;
+        }
+        if(args.length != 3 && args.length != 4)
+            throw new IllegalArgumentException("WorkHours takes 0, 2 or 3 arguments! (workhours [<start> <end> [step]]) [time format: hh:mm]");
+
+        LocalTime start = parseTime(args[1]);
+        LocalTime end = parseTime(args[2]);
+        int step = calendar.getWorkingHours().step();
+        if(args.length == 4)
+        {
+            try{
+                step = Integer.parseInt(args[3]);
+            }
+            catch(NumberFormatException e)
+            {
+                throw new IllegalArgumentException("Step must be a whole number of minutes!");
+            }
+        }
+
+        calendar.setWorkingHours(WorkingHours.of(start, end, step));
+        System.out.println("Working hours set to " + calendar.getWorkingHours());
+    }
+
+    private LocalTime parseTime(String arg)
+    {
+        String[] input = arg.split(":");
+        if (input.length != 2)
+            throw new IllegalArgumentException("Time must consist of hours and minutes separated by ':'");
+        try{
+            return LocalTime.of(Integer.parseInt(input[0]), Integer.parseInt(input[1]));
+        }
+        catch(NumberFormatException | DateTimeException e)
+        {
+            throw new IllegalArgumentException("Hours and minutes must be valid numbers and represent a real time!");
+        }
+    }
+}
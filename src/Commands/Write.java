@@ -1,12 +1,15 @@
 package Commands;
 
 import Interfaces.FileCommand;
+import Models.BinarySnapshot;
 import Models.FileController;
+import Models.UserInput;
 
 /**
  * Команда за записване на текущия календар във файл с разширение .txt.
  * <p>
  * Приема един аргумент - името на файла без разширение.
+ * Ако името завършва на {@code .calb}, календарът се записва в двоичен формат.
  * Извиква метода за записване в текстов файл на обекта FileController.
  * </p>
  */
@@ -18,7 +21,7 @@ public class Write implements FileCommand {
      * @param fileController контролер за файлови операции
      * @param args аргументи на командата - трябва да съдържат името на файла без разширение
      *
-     * @throws IllegalArgumentException ако броят на аргументите е грешен или името съдържа разширение
+     * @throws IllegalArgumentException ако броят на аргументите е грешен или името съдържа разширение, различно от {@code .calb}
      */
     @Override
     public void execute(FileController fileController, String[] args)
@@ -26,8 +29,8 @@ public class Write implements FileCommand {
         if (args.length != 2)
             throw new IllegalArgumentException("Write takes 1 argument! (Write <filename>) [name must be without an extension like .txt]");
 
-        if(args[1].contains("."))
-            throw new IllegalArgumentException("Name cannot contain dots or extensions!");
+        if(args[1].contains(".") && !BinarySnapshot.isBinary(args[1]))
+            throw new IllegalArgumentException("Name cannot contain dots or extensions other than " + BinarySnapshot.EXTENSION + "!");
 
         try
         {
@@ -38,4 +41,19 @@ public class Write implements FileCommand {
             System.err.println("Error: " + e.getMessage());
         }
     }
+
+    @Override
+    public boolean changesCalendar()
+    {
+        return false;
+    }
+
+    /**
+     * Пита за потвърждение само ако календарът е празен.
+     */
+    @Override
+    public boolean needsConsole(FileController fileController)
+    {
+        return UserInput.isInteractive() && fileController.getCalendar().size() == 0;
+    }
 }
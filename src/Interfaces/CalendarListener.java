@@ -0,0 +1,28 @@
+package Interfaces;
+
+import Models.Event;
+
+/**
+ * Интерфейс за наблюдение на промените в календара.
+ * <p>
+ * Извиква се при всяко добавяне и премахване на събитие чрез командите на календара.
+ * Промяната на събитие се съобщава като премахване на старото състояние,
+ * последвано от добавяне на новото. Зареждането на цял календар от файл не се съобщава.
+ * </p>
+ */
+public interface CalendarListener {
+
+    /**
+     * Извиква се след добавяне на събитие.
+     *
+     * @param event добавеното събитие
+     */
+    void eventAdded(Event event);
+
+    /**
+     * Извиква се при премахване на събитие, докато то все още има старите си стойности.
+     *
+     * @param event премахнатото събитие
+     */
+    void eventRemoved(Event event);
+}
@@ -18,4 +18,14 @@ public interface Command {
      * @param args     масив с аргументи, подадени от потребителя (например параметри на командата)
      */
     void execute(Calendar calendar, String[] args);
+
+    /**
+     * Дали командата променя календара. Справките, които само четат, не изчакват фоновите записи
+     * на календара във файл, а само фоновите задачи, които променят събитията му.
+     *
+     * @return {@code true} по подразбиране
+     */
+    default boolean changesCalendar() {
+        return true;
+    }
 }
@@ -0,0 +1,34 @@
+package Interfaces;
+
+import Models.Event;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Iterator;
+
+/**
+ * Интерфейс, дефиниращ формат за износ (export) на събития от календара.
+ * <p>
+ * Всеки формат се избира по разширението на файла. Събитията се подават едно по едно чрез
+ * итератор и се записват директно в изходния поток, така че износът на много събития
+ * не изисква междинни списъци или низове с цялото съдържание.
+ * </p>
+ */
+public interface EventEncoder {
+
+    /**
+     * Връща разширението на файловете в този формат, включително точката (напр. {@code .csv}).
+     *
+     * @return разширението с малки букви
+     */
+    String extension();
+
+    /**
+     * Записва всички събития в изходния поток.
+     *
+     * @param events итератор по събитията в хронологичен ред
+     * @param out    буфериран изходен поток
+     * @throws IOException при грешка при запис
+     */
+    void encode(Iterator<Event> events, Writer out) throws IOException;
+}
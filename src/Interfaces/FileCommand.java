@@ -18,4 +18,25 @@ public interface FileCommand {
      * @param args           масив с аргументи, подадени от потребителя (например име на файл, формат и т.н.)
      */
     void execute(FileController fileController, String[] args);
+
+    /**
+     * Дали командата променя събитията в календара (например чрез зареждане от файл).
+     * Докато такава команда се изпълнява във фонов режим, справките за календара я изчакват.
+     *
+     * @return {@code true} по подразбиране
+     */
+    default boolean changesCalendar() {
+        return true;
+    }
+
+    /**
+     * Дали командата ще задава въпроси на потребителя. Такива команди не се изпълняват във фонов режим,
+     * за да не четат от конзолата едновременно с нея.
+     *
+     * @param fileController контролерът, върху който ще се изпълни командата
+     * @return {@code false} по подразбиране
+     */
+    default boolean needsConsole(FileController fileController) {
+        return false;
+    }
 }
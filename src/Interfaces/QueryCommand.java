@@ -0,0 +1,20 @@
+package Interfaces;
+
+import Models.Calendar;
+
+/**
+ * Команда, която освен от конзолата може да се изпълни и като заявка (например от HTTP сървъра).
+ * Аргументите се разчитат по същия начин като при {@link #execute(Calendar, String[])},
+ * но резултатът се връща, вместо да се извежда, и не се задават въпроси към потребителя.
+ */
+public interface QueryCommand extends Command {
+
+    /**
+     * Изпълнява командата без извеждане на екрана.
+     *
+     * @param calendar обектът {@link Calendar}, върху който се изпълнява заявката
+     * @param args     аргументи във формата на конзолната команда (първият е името на командата)
+     * @return резултатът – събитие, списък или {@link Boolean}; {@code null}, ако няма резултат
+     */
+    Object query(Calendar calendar, String[] args);
+}
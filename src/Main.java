@@ -1,6 +1,107 @@
+import Models.CalendarRegistry;
+import Models.FileController;
+import Models.UserInput;
+import Server.CalendarServer;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
 public class Main {
+    /**
+     * Стартира конзолния интерфейс, с {@code --server [порт]} – HTTP сървъра (календарите се записват
+     * при спирането му), а с
+     * {@code --batch <файл> [--yes|--no|--ask]} – командите от файла без въпроси.
+     *
+     * @param args аргументите от командния ред
+     */
     public static void main(String[] args) {
+        if (args.length > 0 && args[0].equals("--server")) {
+            startServer(args);
+            return;
+        }
+        if (args.length > 0 && args[0].equals("--batch")) {
+            runBatch(args);
+            return;
+        }
         UI ui = new UI();
         ui.mainLoop();
     }
-}
\ No newline at end of file
+
+    /**
+     * Пакетно изпълнение. Правилото за потвърждения по подразбиране е {@code --no}:
+     * изтриване, презаписване и подобни действия се отказват, освен ако не е дадено {@code --yes}.
+     */
+    private static void runBatch(String[] args) {
+        if (args.length < 2 || args.length > 3) {
+            System.out.println("Usage: --batch <file> [--yes|--no|--ask]");
+            return;
+        }
+        UserInput.Policy policy = UserInput.Policy.NO;
+        if (args.length == 3) {
+            switch (args[2]) {
+                case "--yes":
+                    policy = UserInput.Policy.YES;
+                    break;
+                case "--no":
+                    policy = UserInput.Policy.NO;
+                    break;
+                case "--ask":
+                    policy = UserInput.Policy.ASK;
+                    break;
+                default:
+                    System.out.println("Confirmation policy must be --yes, --no or --ask!");
+                    return;
+            }
+        }
+        UserInput.setPolicy(policy);
+        UI ui = new UI();
+        try {
+            ui.runBatch(Path.of(args[1]));
+        } catch (IOException e) {
+            System.out.println("Could not read the batch file: " + e.getMessage());
+        }
+    }
+
+    private static void startServer(String[] args) {
+        int port = CalendarServer.DEFAULT_PORT;
+        if (args.length > 1) {
+            try {
+                port = Integer.parseInt(args[1]);
+            } catch (NumberFormatException e) {
+                System.out.println("Port must be a whole number!");
+                return;
+            }
+        }
+        FileController fileController = new FileController();
+        fileController.readHolidays();
+        fileController.openJournal();
+        CalendarRegistry registry = new CalendarRegistry(fileController);
+        try {
+            CalendarServer server = new CalendarServer(registry, port);
+            server.start();
+            Runtime.getRuntime().addShutdownHook(new Thread(() -> stopServer(server, registry, fileController)));
+            System.out.println("Listening on http://localhost:" + server.getPort() + "/");
+        } catch (IOException e) {
+            System.out.println("Could not start the server: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Спира сървъра и записва променените календари. Календарът по подразбиране се записва
+     * в основния си файл, ако има такъв, а иначе промените остават в журнала.
+     */
+    private static void stopServer(CalendarServer server, CalendarRegistry registry, FileController fileController) {
+        server.stop();
+        registry.saveAll();
+        if (fileController.getLastSaved() == null) {
+            System.out.println("Unsaved changes stay in the journal and will be recovered on the next start.");
+            return;
+        }
+        try {
+            fileController.writeBack();
+            fileController.closeJournal();
+        } catch (IOException e) {
+            System.out.println("Could not save the calendar, changes stay in the journal: " + e.getMessage());
+        }
+    }
+}
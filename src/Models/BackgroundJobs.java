@@ -0,0 +1,192 @@
+package Models;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Изпълнява файловите команди във фонов пул от нишки, за да не спират конзолата.
+ * <p>
+ * Пулът е ограничен: {@value #IO_THREADS} нишки и опашка от {@value #QUEUE_CAPACITY} задачи.
+ * Когато опашката се напълни, задачата се изпълнява в нишката, която я подава, и така
+ * конзолата естествено изчаква.
+ * </p>
+ * <p>
+ * Редът се пази отделно за всеки календар. Задачите за един календар се изпълняват една след друга
+ * в реда на подаването им, а задачите за различни календари – паралелно. Конзолните команди
+ * изчакват само когато има конфликт: справките – докато приключат задачите, които променят
+ * събитията на календара (например {@code read}), а промените – докато приключат всички задачи
+ * за календара, включително записите във файл.
+ * </p>
+ */
+public class BackgroundJobs {
+    /** Брой нишки за входно-изходни задачи. */
+    public static final int IO_THREADS = 2;
+    /** Брой задачи, които могат да чакат за свободна нишка. */
+    public static final int QUEUE_CAPACITY = 64;
+
+    /**
+     * Задача, която още се изпълнява или чака реда си.
+     *
+     * @param id       номерът на задачата
+     * @param command  командата, както е въведена
+     * @param calendar името на календара
+     * @param running  дали вече се изпълнява (иначе чака по-ранни задачи за същия календар)
+     * @param seconds  от колко секунди е подадена
+     */
+    public record Job(long id, String command, String calendar, boolean running, double seconds) {
+    }
+
+    /**
+     * Подадена задача заедно със състоянието ѝ.
+     */
+    private static final class Entry {
+        final long id;
+        final String command;
+        final String calendar;
+        final long submitted = System.nanoTime();
+        volatile boolean running;
+
+        Entry(long id, String command, String calendar) {
+            this.id = id;
+            this.command = command;
+            this.calendar = calendar;
+        }
+    }
+
+    /**
+     * Опашката на един календар: последната подадена задача и последната, която променя събитията.
+     */
+    private static final class Lane {
+        CompletableFuture<Void> last = DONE;
+        CompletableFuture<Void> lastChange = DONE;
+
+        boolean idle() {
+            return last.isDone() && lastChange.isDone();
+        }
+    }
+
+    private static final CompletableFuture<Void> DONE = CompletableFuture.completedFuture(null);
+
+    private final ExecutorService io;
+    private final Map<Calendar, Lane> lanes = new IdentityHashMap<>();
+    private final Map<Long, Entry> pending = new TreeMap<>();
+    private final List<CompletableFuture<Void>> futures = new ArrayList<>();
+    private long nextId;
+    private int failed;
+
+    public BackgroundJobs() {
+        AtomicInteger threads = new AtomicInteger();
+        io = new ThreadPoolExecutor(IO_THREADS, IO_THREADS, 30, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(QUEUE_CAPACITY), task -> {
+                    Thread t = new Thread(task, "io-" + threads.incrementAndGet());
+                    t.setDaemon(true);
+                    return t;
+                }, new ThreadPoolExecutor.CallerRunsPolicy());
+    }
+
+    /**
+     * Подава задача за даден календар. Тя започва, след като завършат всички по-рано подадени
+     * задачи за същия календар, независимо дали са успели.
+     *
+     * @param command      командата, както е въведена (за {@code jobs})
+     * @param calendarName името на календара (за {@code jobs})
+     * @param calendar     календарът, спрямо който се подрежда задачата
+     * @param changes      дали задачата променя събитията на календара
+     * @param task         задачата
+     * @return номерът на задачата
+     */
+    public long submit(String command, String calendarName, Calendar calendar, boolean changes, Runnable task) {
+        // задачата тръгва едва след излизането от синхронизирания блок, защото при пълна опашка
+        // тя се изпълнява в подаващата нишка
+        CompletableFuture<Void> gate = new CompletableFuture<>();
+        Entry entry;
+        synchronized (this) {
+            Lane lane = lanes.computeIfAbsent(calendar, c -> new Lane());
+            entry = new Entry(++nextId, command, calendarName);
+            CompletableFuture<Void> future = gate.thenCombine(lane.last.handle((r, e) -> null), (a, b) -> (Void) null)
+                    .thenRunAsync(() -> {
+                        entry.running = true;
+                        task.run();
+                    }, io);
+            lane.last = future;
+            if (changes)
+                lane.lastChange = future;
+            pending.put(entry.id, entry);
+            futures.add(future);
+            future.whenComplete((r, e) -> finished(entry, calendar, future, e));
+        }
+        gate.complete(null);
+        return entry.id;
+    }
+
+    /**
+     * Изчаква по-рано подадените задачи, с които дадена конзолна команда е в конфликт.
+     * Ако за календара няма задачи, се връща веднага.
+     *
+     * @param calendar календарът, с който ще работи командата
+     * @param changes  дали командата променя календара (тогава се изчакват всички задачи за него,
+     *                 иначе само тези, които променят събитията му)
+     */
+    public void await(Calendar calendar, boolean changes) {
+        CompletableFuture<Void> before;
+        synchronized (this) {
+            Lane lane = lanes.get(calendar);
+            if (lane == null)
+                return;
+            before = changes ? lane.last : lane.lastChange;
+        }
+        before.handle((r, e) -> null).join();
+    }
+
+    /**
+     * Изчаква всички подадени задачи.
+     */
+    public void awaitAll() {
+        CompletableFuture<?>[] all;
+        synchronized (this) {
+            all = futures.toArray(new CompletableFuture<?>[0]);
+        }
+        CompletableFuture.allOf(all).handle((r, e) -> null).join();
+    }
+
+    /**
+     * Задачите, които още се изпълняват или чакат, по реда на подаването им.
+     * @return нов списък
+     */
+    public synchronized List<Job> list() {
+        long now = System.nanoTime();
+        List<Job> jobs = new ArrayList<>();
+        for (Entry e : pending.values())
+            jobs.add(new Job(e.id, e.command, e.calendar, e.running, (now - e.submitted) / 1e9));
+        return jobs;
+    }
+
+    public synchronized int size() {
+        return pending.size();
+    }
+
+    /**
+     * Броят задачи, завършили с грешка.
+     * @return броят
+     */
+    public synchronized int getFailed() {
+        return failed;
+    }
+
+    private synchronized void finished(Entry entry, Calendar calendar, CompletableFuture<Void> future, Throwable error) {
+        pending.remove(entry.id);
+        futures.remove(future);
+        Lane lane = lanes.get(calendar);
+        if (lane != null && lane.idle())
+            lanes.remove(calendar);
+        if (error == null)
+            return;
+        failed++;
+        Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+        if (cause instanceof IllegalArgumentException || cause instanceof IllegalStateException)
+            System.out.println("Error in job #" + entry.id + " (" + entry.command + "): " + cause.getMessage());
+        else
+            System.out.println("Unexpected error in job #" + entry.id + " (" + entry.command + "): " + cause.getMessage());
+    }
+}
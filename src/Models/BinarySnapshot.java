@@ -0,0 +1,165 @@
+package Models;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Компактен двоичен формат за запис и зареждане на календар (разширение {@code .calb}).
+ * <p>
+ * Структура на файла (big-endian):
+ * <ul>
+ *     <li>заглавие: магическо число {@code CALB}, версия ({@code short}),
+ *     брой низове ({@code int}) и брой записи ({@code int})</li>
+ *     <li>таблица с низове: за всеки низ дължина в байтове ({@code int}) и UTF-8 байтове</li>
+ *     <li>записи с фиксирана дължина от 16 байта: епохален ден ({@code int}),
+ *     начална и крайна минута ({@code short}), индекс на името и на описанието ({@code int})</li>
+ * </ul>
+ * Еднаквите имена и описания се записват само веднъж.
+ * </p>
+ */
+public class BinarySnapshot {
+    /** Разширение на двоичните файлове. */
+    public static final String EXTENSION = ".calb";
+
+    private static final int MAGIC = 0x43414C42; // "CALB"
+    private static final short VERSION = 1;
+    private static final int HEADER_BYTES = 4 + 2 + 4 + 4;
+    private static final int RECORD_BYTES = 4 + 2 + 2 + 4 + 4;
+    /** Първият и последният ден, които текстовият формат допуска (години от 0 до 999999). */
+    private static final long FIRST_DAY = EventFileParser.epochDay(0, 1, 1);
+    private static final long LAST_DAY = EventFileParser.epochDay(999_999, 12, 31);
+    private static final int LAST_MINUTE = 24 * 60 - 1;
+
+    private BinarySnapshot() {
+    }
+
+    /**
+     * Проверява дали името на файла е с двоичното разширение.
+     * @param name името на файла
+     * @return true ако файлът е в двоичен формат
+     */
+    public static boolean isBinary(String name) {
+        return name.toLowerCase().endsWith(EXTENSION);
+    }
+
+    /**
+     * Записва събитията от хранилището във файл.
+     *
+     * @param path  пътят до файла
+     * @param store събитията
+     * @throws IOException при грешка при запис
+     */
+    public static void write(Path path, EventStore store) throws IOException {
+        byte[][] encoded = new byte[store.stringCount()][];
+        for (int i = 0; i < encoded.length; i++)
+            encoded[i] = store.string(i).getBytes(StandardCharsets.UTF_8);
+
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer buffer = ByteBuffer.allocate(1 << 16);
+            buffer.putInt(MAGIC).putShort(VERSION).putInt(encoded.length).putInt(store.size());
+            for (byte[] bytes : encoded) {
+                ensure(channel, buffer, 4);
+                buffer.putInt(bytes.length);
+                for (int off = 0; off < bytes.length; ) {
+                    ensure(channel, buffer, 1);
+                    int n = Math.min(buffer.remaining(), bytes.length - off);
+                    buffer.put(bytes, off, n);
+                    off += n;
+                }
+            }
+            for (int i = 0; i < store.size(); i++) {
+                ensure(channel, buffer, RECORD_BYTES);
+                buffer.putInt((int) store.epochDay(i))
+                        .putShort((short) store.startMinute(i))
+                        .putShort((short) store.endMinute(i))
+                        .putInt(store.nameId(i))
+                        .putInt(store.descId(i));
+            }
+            flush(channel, buffer);
+        }
+    }
+
+    /**
+     * Чете файл и подава всяко събитие на получателя.
+     *
+     * @param path пътят до файла
+     * @param sink получателят
+     * @return броят на прочетените събития
+     * @throws IOException при грешка при четене или при невалиден файл (дължини, индекси на низове,
+     *                     брой записи, дни и минути извън допустимото)
+     */
+    public static int read(Path path, EventFileParser.Sink sink) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            if (channel.size() < HEADER_BYTES)
+                throw new IOException("File is too short to be a calendar snapshot");
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (buffer.getInt() != MAGIC)
+                throw new IOException("Not a calendar snapshot (bad magic number)");
+            short version = buffer.getShort();
+            if (version != VERSION)
+                throw new IOException("Unsupported snapshot version " + version);
+            int stringCount = buffer.getInt();
+            int recordCount = buffer.getInt();
+            // всеки низ заема поне 4 байта за дължината си
+            if (stringCount < 0 || stringCount > buffer.remaining() / 4)
+                throw corrupt("string count " + stringCount + " does not fit in the file");
+            if (recordCount < 0)
+                throw corrupt("negative record count " + recordCount);
+
+            String[] strings = new String[stringCount];
+            byte[] scratch = new byte[256];
+            for (int i = 0; i < stringCount; i++) {
+                int length = buffer.remaining() < 4 ? -1 : buffer.getInt();
+                if (length < 0 || length > buffer.remaining())
+                    throw corrupt("string " + i + " has an invalid length");
+                if (length > scratch.length)
+                    scratch = new byte[Math.max(length, scratch.length * 2)];
+                buffer.get(scratch, 0, length);
+                strings[i] = new String(scratch, 0, length, StandardCharsets.UTF_8);
+            }
+            if (buffer.remaining() != (long) recordCount * RECORD_BYTES)
+                throw corrupt("expected " + recordCount + " records of " + RECORD_BYTES + " bytes, found "
+                        + buffer.remaining() + " bytes");
+            for (int i = 0; i < recordCount; i++) {
+                int day = buffer.getInt();
+                int start = buffer.getShort();
+                int end = buffer.getShort();
+                int name = buffer.getInt();
+                int desc = buffer.getInt();
+                if (day < FIRST_DAY || day > LAST_DAY)
+                    throw corrupt("record " + i + " has an invalid day " + day);
+                if (start < 0 || start > LAST_MINUTE || end < 0 || end > LAST_MINUTE)
+                    throw corrupt("record " + i + " has an invalid time " + start + "-" + end);
+                if (name < 0 || name >= stringCount || desc < 0 || desc >= stringCount)
+                    throw corrupt("record " + i + " refers to a missing string");
+                sink.accept(strings[name], day, start, end, strings[desc]);
+            }
+            return recordCount;
+        }
+    }
+
+    private static IOException corrupt(String detail) {
+        return new IOException("Corrupt snapshot: " + detail);
+    }
+
+    /**
+     * Изпразва буфера в канала, ако в него няма място за {@code bytes} байта.
+     */
+    private static void ensure(FileChannel channel, ByteBuffer buffer, int bytes) throws IOException {
+        if (buffer.remaining() < bytes)
+            flush(channel, buffer);
+    }
+
+    private static void flush(FileChannel channel, ByteBuffer buffer) throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining())
+            channel.write(buffer);
+        buffer.clear();
+    }
+}
@@ -0,0 +1,94 @@
+package Models;
+
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Заети минути по дни, с бързо сумиране за период от дни.
+ * <p>
+ * За всяка година се пазят заетите минути за всеки ден от годината и дърво на Фенуик
+ * (Fenwick tree) върху тях. Така промяната за един ден и сумата за произволен период
+ * струват {@code O(log 366)} на година, без да се обхождат събитията.
+ * </p>
+ */
+class BusyMinutes {
+    /** Най-голям брой дни в година. */
+    private static final int DAYS = 366;
+
+    /** Година -> заети минути за всеки ден (индекс ден от годината, от 1). */
+    private final Map<Integer, long[]> perDay = new HashMap<>();
+    /** Година -> дърво на Фенуик върху {@link #perDay}. */
+    private final Map<Integer, long[]> trees = new HashMap<>();
+
+    /**
+     * Продължителност на събитие в минути, по същото правило като при проверката за припокриване:
+     * събитие с нулева продължителност заема една минута ({@link OccupancyBitmap#endMinute(Event)}).
+     * @param e събитието
+     * @return броят заети минути (поне 1)
+     */
+    static int minutesOf(Event e) {
+        return OccupancyBitmap.endMinute(e) - OccupancyBitmap.startMinute(e);
+    }
+
+    /**
+     * Добавя (или при отрицателна стойност изважда) заети минути за даден ден.
+     * @param date    денят
+     * @param minutes броят минути
+     */
+    void add(LocalDate date, long minutes) {
+        if (minutes == 0)
+            return;
+        int year = date.getYear();
+        long[] days = perDay.computeIfAbsent(year, k -> new long[DAYS + 1]);
+        long[] tree = trees.computeIfAbsent(year, k -> new long[DAYS + 1]);
+        int day = date.getDayOfYear();
+        days[day] += minutes;
+        for (int i = day; i <= DAYS; i += i & -i)
+            tree[i] += minutes;
+    }
+
+    /**
+     * Заетите минути в даден ден.
+     * @param date денят
+     * @return броят минути
+     */
+    long on(LocalDate date) {
+        long[] days = perDay.get(date.getYear());
+        return days == null ? 0 : days[date.getDayOfYear()];
+    }
+
+    /**
+     * Сумата на заетите минути за период, включително двата края.
+     * @param from първият ден
+     * @param to   последният ден
+     * @return общият брой минути
+     */
+    long total(LocalDate from, LocalDate to) {
+        long total = 0;
+        for (int year = from.getYear(); year <= to.getYear(); year++) {
+            long[] tree = trees.get(year);
+            if (tree == null)
+                continue;
+            int first = year == from.getYear() ? from.getDayOfYear() : 1;
+            int last = year == to.getYear() ? to.getDayOfYear() : DAYS;
+            total += prefix(tree, last) - prefix(tree, first - 1);
+        }
+        return total;
+    }
+
+    /**
+     * Изчиства всички данни.
+     */
+    void clear() {
+        perDay.clear();
+        trees.clear();
+    }
+
+    private static long prefix(long[] tree, int day) {
+        long sum = 0;
+        for (int i = day; i > 0; i -= i & -i)
+            sum += tree[i];
+        return sum;
+    }
+}
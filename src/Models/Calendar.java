@@ -1,76 +1,1108 @@
 package Models;
 
+import Interfaces.CalendarListener;
+
+import java.io.IOException;
+import java.nio.file.NoSuchFileException;
 import java.time.*;
 import java.time.format.DateTimeFormatter;
 import java.util.*;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.concurrent.locks.StampedLock;
+import java.util.function.Consumer;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
-/**
- * Класът Models.Calendar представлява календар, който съхранява и управлява събития за дадена година.
- * Използва се Singleton шаблон за гарантиране на една инстанция.
- */
-public class Calendar {
+/**
+ * Класът Models.Calendar представлява календар, който съхранява и управлява събития за дадена година.
+ * Календарът по подразбиране е достъпен чрез {@link #getInstance()}, а при работа с много
+ * потребители всеки календар се зарежда и освобождава от {@link CalendarRegistry}.
+ * <p>
+ * Календарът може да се използва от няколко нишки. Промените ({@code book}, {@code removeEvent},
+ * {@code change}, {@code setEvents}) взимат изключително заключване, а справките, които обхождат индексите,
+ * взимат споделено заключване и копират резултата. Без заключване (optimistic read) се четат
+ * отделни примитивни полета като броя на събитията и версията, както и справките, които използват
+ * само индекса по дни: кофите на дните не се променят на място, а се заменят с нови,
+ * затова такава справка вижда всяка кофа цяла и се повтаря под заключване само ако междувременно е имало промяна.
+ * Събитие в календара не се променя на място: {@code change} го заменя с променено копие,
+ * затова събитията, върнати от справките, могат да се извеждат без заключване.
+ * Наблюдателите се уведомяват след освобождаване на заключването, в реда на промените.
+ * </p>
+ * <p>
+ * Календар, зареден с {@link #setEvents(EventStore)}, пази събитията си само в колонно хранилище,
+ * без обекти {@link Event} и без индекси. Справките за събития (страници, дни, месеци, обхождане)
+ * създават обекти само за върнатите събития. Първата промяна или справка, която използва другите
+ * индекси (свободни интервали, заетост, търсене), изгражда индексите, а {@link #compact()} ги освобождава отново.
+ * Затова събитие, върнато от справка, може да не е същият обект като събитието в календара:
+ * промените, които получават събитие, го намират по всички полета, ако не е същият обект.
+ * </p>
+ */
+public class Calendar {
+    /**
+     * Заключване за индексите по-долу: изключително при промяна и споделено при четене.
+     */
+    private final StampedLock lock = new StampedLock();
+
+    /**
+     * Индекс на събитията по дни: епохален ден -> събитията в този ден,
+     * подредени по начален и краен час. Списъците са неизменяеми и при промяна на деня се заменят,
+     * за да може индексът да се чете без заключване.
+     */
+    private final ConcurrentSkipListMap<Long, List<Event>> days = new ConcurrentSkipListMap<>();
+
+    /**
+     * Събитията на календар без индекси (вж. {@link #setEvents(EventStore)}), подредени по ден и часове;
+     * {@code null}, когато събитията са в индексите. Хранилището не се променя, а се заменя под заключването за промяна.
+     */
+    private volatile EventStore compact;
+
+    /**
+     * Интервално дърво върху абсолютни минути за бързо откриване на припокривания.
+     */
+    private final IntervalTree intervals = new IntervalTree();
+
+    /**
+     * Заетост по минути за всеки ден, в който има събития.
+     */
+    private final Map<Long, OccupancyBitmap> occupancy = new HashMap<>();
+
+    /**
+     * Индекс по думите и триграмите в имената и описанията, използван от търсенето.
+     * Изгражда се при първото търсене и след това се поддържа при всяка промяна;
+     * {@code null}, докато не е нужен, за да не забавя зареждането на големи календари.
+     */
+    private SearchIndex search;
+
+    /**
+     * Заети минути по дни, използвани от справката за натоварени дни.
+     */
+    private final BusyMinutes busyMinutes = new BusyMinutes();
+
+    /**
+     * Наблюдатели, уведомявани при добавяне и премахване на събития.
+     */
+    private final List<CalendarListener> listeners = new CopyOnWriteArrayList<>();
+
+    /**
+     * Уведомление за добавено или премахнато събитие.
+     */
+    private record Notification(boolean added, Event event) {
+    }
+
+    /**
+     * Уведомленията, натрупани под заключването за промяна, в реда на промените.
+     * Изпращат се на наблюдателите след освобождаване на заключването.
+     */
+    private final Queue<Notification> notifications = new ConcurrentLinkedQueue<>();
+
+    /**
+     * Пази реда на уведомленията, когато няколко нишки ги изпращат едновременно.
+     */
+    private final Object notifyLock = new Object();
+
+    /**
+     * Пропуск за промените: всяка промяна го държи споделено, докато наблюдателите не бъдат уведомени.
+     * {@link #pauseChanges()} го взима изключително, за да запише календара в непроменящо се състояние.
+     */
+    private final ReentrantReadWriteLock changes = new ReentrantReadWriteLock();
+
+    /**
+     * Месеците, в които има промени след последния запис в основния файл.
+     */
+    private final Set<YearMonth> dirtyMonths = new HashSet<>();
+
+    /**
+     * Дали целият календар се счита за променен (напр. след зареждане от файл).
+     */
+    private boolean allDirty = true;
+
+    /**
+     * Общ брой събития в индекса.
+     */
+    private int size;
+
+    /**
+     * Брояч на промените, увеличаван при всяко добавяне или премахване на събитие.
+     */
+    private long version;
+
+    /**
+     * Кеш за резултатите от търсенето на свободни интервали.
+     */
+    private final SlotCache slotCache = new SlotCache(SlotCache.DEFAULT_CAPACITY);
+
+    /**
+     * Форматът, в който се извеждат списъците от събития.
+     */
+    private volatile EventPrinter.Format format = EventPrinter.Format.FULL;
+
+    /**
+     * Зареждач на чужди календари с кеш за вече прочетените файлове.
+     */
+    private final PeerCalendars peers = new PeerCalendars(PeerCalendars.DEFAULT_CAPACITY);
+
+    /**
+     * Работното време, в което се търсят свободни интервали.
+     */
+    private WorkingHours workingHours = WorkingHours.DEFAULT;
+
+    /**
+     * Свободните интервали в работното време за всеки ден, поддържани при всяка промяна.
+     */
+    private final FreeGapIndex gapIndex = new FreeGapIndex(workingHours);
+
+    /**
+     * Брой дни, за които свободните интервали се търсят паралелно наведнъж.
+     */
+    private static final int SLOT_BATCH_DAYS = 32;
+
+    /**
+     * Хронологичен изглед на всички събития заедно с версията, за която е изграден.
+     */
+    private record OrderedView(long version, List<Event> events) {
+    }
+
+    /**
+     * Последният изграден изглед; остарял е, ако версията му не съвпада с тази на календара.
+     */
+    private volatile OrderedView orderedView;
+
+    /**
+     * Подредба на събитията в рамките на един ден.
+     */
+    private static final Comparator<Event> BY_TIME =
+            Comparator.comparing(Event::getStartTime).thenComparing(Event::getEndTime);
+
+    /**
+     * Форматиращ обект за работа с дати.
+     */
+    public final DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyy");
+
+    /**
+     * Текущата дата, използвана като база за текущата година.
+     */
+    public final LocalDate currentYear = LocalDate.now();
+
+    /**
+     * Приблизителна памет за едно събитие заедно с записите му във всички индекси, в байтове.
+     * Заедно с {@link #DAY_BYTES} отговаря на измереното с {@code bench/Models/MemoryCheck} (около 370 байта
+     * на събитие при 8 събития на ден, без индекса за търсене, който се изгражда при първото търсене).
+     */
+    static final int EVENT_BYTES = 290;
+
+    /**
+     * Приблизителна памет за един ден със събития (кофа, карта на заетостта, свободни интервали), в байтове.
+     */
+    static final int DAY_BYTES = 700;
+
+    /**
+     * Приблизителна памет на празен календар (индексите, кешовете и заключванията без събития), в байтове.
+     */
+    static final int CALENDAR_BYTES = 2048;
+
+    /**
+     * Създава празен календар. Извън пакета се използват {@link #getInstance()}
+     * или календарите от {@link CalendarRegistry}.
+     */
+    Calendar() {
+        formatter.format(currentYear);
+    }
+
+    /**
+     * Държи календара по подразбиране (Singleton). Класът се зарежда при първото
+     * извикване на {@link #getInstance()}, а JVM гарантира, че инстанцията се създава веднъж
+     * и е видима напълно за всички нишки.
+     */
+    private static final class Holder {
+        private static final Calendar INSTANCE = new Calendar();
+    }
+
+    /**
+     * Връща календара по подразбиране.
+     * @return инстанция на Models.Calendar
+     */
+    public static Calendar getInstance() {
+        return Holder.INSTANCE;
+    }
+
+    /**
+     * Изпълнява четене от индексите под споделено заключване.
+     * Четенето трябва само да копира данни и да не променя нищо.
+     *
+     * @param reader четенето
+     * @return резултатът
+     */
+    private <T> T read(Supplier<T> reader) {
+        long stamp = lock.readLock();
+        try {
+            return reader.get();
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    /**
+     * Изпълнява четене от индексите като {@link #read(Supplier)}, но първо ги изгражда,
+     * ако календарът пази събитията си само в хранилище.
+     *
+     * @param reader четенето
+     * @return резултатът
+     */
+    private <T> T readIndexed(Supplier<T> reader) {
+        while (true) {
+            long stamp = lock.readLock();
+            try {
+                if (compact == null)
+                    return reader.get();
+            } finally {
+                lock.unlockRead(stamp);
+            }
+            inflate();
+        }
+    }
+
+    /**
+     * Изгражда индексите на календар, който пази събитията си само в хранилище.
+     * Това не е промяна на събитията, затова не минава през пропуска за промените
+     * и не уведомява наблюдателите.
+     */
+    private void inflate() {
+        long stamp = lock.writeLock();
+        try {
+            inflateLocked();
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * Изгражда индексите от хранилището, докато календарът е заключен за промяна.
+     * Броят събития, версията и отбелязаните промени остават същите.
+     */
+    private void inflateLocked() {
+        EventStore store = compact;
+        if (store == null)
+            return;
+        fill(store);
+        compact = null;
+    }
+
+    /**
+     * Освобождава обектите {@link Event} и индексите, като пази събитията в колонно хранилище.
+     * Справките за събития продължават да работят, а следващата промяна изгражда индексите наново.
+     * Използва се от {@link CalendarRegistry} за календари, които не се използват в момента.
+     */
+    public void compact() {
+        long stamp = lock.writeLock();
+        try {
+            if (compact != null)
+                return;
+            EventStore store = new EventStore();
+            for (List<Event> bucket : days.values())
+                for (Event e : bucket)
+                    store.add(e);
+            compact = store;
+            clearIndices();
+            orderedView = null;
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * Дали календарът пази събитията си само в хранилище, без индекси.
+     * @return true ако индексите не са изградени
+     */
+    public boolean isCompact() {
+        return compact != null;
+    }
+
+    /**
+     * Чете едно примитивно поле без заключване и повтаря четенето под споделено заключване,
+     * ако междувременно е имало промяна. Не бива да се използва за обхождане на индексите,
+     * защото по време на промяна те може да са в непоследователно състояние.
+     *
+     * @param field четенето на полето
+     * @return стойността
+     */
+    private long readField(LongSupplier field) {
+        long stamp = lock.tryOptimisticRead();
+        long value = field.getAsLong();
+        if (stamp != 0 && lock.validate(stamp))
+            return value;
+        stamp = lock.readLock();
+        try {
+            return field.getAsLong();
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    /**
+     * Изпълнява четене само от индекса по дни без заключване и го повтаря под споделено заключване,
+     * ако междувременно е имало промяна. Резултатът от неуспешния опит (включително изключение) се пренебрегва.
+     *
+     * @param reader четенето
+     * @return резултатът
+     */
+    private <T> T readDays(Supplier<T> reader) {
+        long stamp = lock.tryOptimisticRead();
+        if (stamp != 0) {
+            try {
+                T value = reader.get();
+                if (lock.validate(stamp))
+                    return value;
+            } catch (RuntimeException e) {
+                if (lock.validate(stamp))
+                    throw e;
+            }
+        }
+        return read(reader);
+    }
+
+    /**
+     * Взима заключването за промяна. Преди това минава през пропуска за промените,
+     * така че да изчака, ако календарът в момента се записва. Ако индексите не са изградени,
+     * ги изгражда, защото промените работят с тях.
+     */
+    private long writeLock() {
+        long stamp = changeLock();
+        inflateLocked();
+        return stamp;
+    }
+
+    /**
+     * Взима заключването за промяна, без да изгражда индексите.
+     */
+    private long changeLock() {
+        changes.readLock().lock();
+        return lock.writeLock();
+    }
+
+    /**
+     * Освобождава заключването за промяна и изпраща натрупаните уведомления на наблюдателите.
+     * Наблюдателите се изпълняват без заключване, така че могат да четат от календара.
+     */
+    private void unlockWrite(long stamp) {
+        lock.unlockWrite(stamp);
+        try {
+            if (notifications.isEmpty())
+                return;
+            synchronized (notifyLock) {
+                for (Notification n = notifications.poll(); n != null; n = notifications.poll()) {
+                    for (CalendarListener listener : listeners) {
+                        if (n.added())
+                            listener.eventAdded(n.event());
+                        else
+                            listener.eventRemoved(n.event());
+                    }
+                }
+            }
+        } finally {
+            changes.readLock().unlock();
+        }
+    }
+
+    /**
+     * Спира промените в календара: изчаква започналите промени и уведомленията за тях,
+     * а следващите промени чакат до {@link #resumeChanges()}. Справките продължават да работят.
+     * Нишката, която е спряла промените, може да променя календара.
+     * Използва се при запис в основния файл, за да съвпаднат записаното състояние и началото на журнала.
+     */
+    public void pauseChanges() {
+        changes.writeLock().lock();
+    }
+
+    /**
+     * Пуска отново промените, спрени с {@link #pauseChanges()}.
+     */
+    public void resumeChanges() {
+        changes.writeLock().unlock();
+    }
+
+    /**
+     * Връща всички събития в хронологичен ред.
+     * Изгледът е само за четене и се изгражда наново при първото извикване след промяна,
+     * без да спира промените и записа на календара.
+     * @return списък със събития
+     */
+    public List<Event> getEvents() {
+        OrderedView view = readDays(() -> {
+            long current = version;
+            OrderedView cached = orderedView;
+            if (cached != null && cached.version() == current)
+                return cached;
+            EventStore store = compact;
+            List<Event> all;
+            if (store != null)
+                all = store.events(0, store.size());
+            else {
+                all = new ArrayList<>(size);
+                for (List<Event> bucket : days.values())
+                    all.addAll(bucket);
+            }
+            return new OrderedView(current, Collections.unmodifiableList(all));
+        });
+        // изгледът на календар без индекси не се пази, за да не държи обекти за всички събития
+        if (compact == null)
+            orderedView = view;
+        return view.events();
+    }
+
+    /**
+     * Връща версията на календара, която се увеличава при всяка промяна на събитията.
+     * @return текущата версия
+     */
+    public long getVersion() {
+        return readField(() -> version);
+    }
+
+    public SlotCache getSlotCache() {
+        return slotCache;
+    }
+
+    public EventPrinter.Format getFormat() {
+        return format;
+    }
+
+    public void setFormat(EventPrinter.Format format) {
+        this.format = format;
+    }
+
+    /**
+     * Създава обект за едно извеждане на събития във формата на календара.
+     * Всяко извеждане използва свой обект, за да не се смесват едновременни справки.
+     * @return новият {@link EventPrinter}
+     */
+    public EventPrinter newPrinter() {
+        return new EventPrinter(format);
+    }
+
+    public WorkingHours getWorkingHours() {
+        return workingHours;
+    }
+
+    /**
+     * Задава работното време, в което се търсят свободни интервали.
+     * Увеличава версията на календара, тъй като старите резултати вече не са валидни.
+     * @param workingHours новото работно време
+     */
+    public void setWorkingHours(WorkingHours workingHours) {
+        long stamp = writeLock();
+        try {
+            this.workingHours = workingHours;
+            gapIndex.reset(workingHours);
+            for (long day : days.keySet())
+                gapIndex.set(day, sweepGaps(LocalDate.ofEpochDay(day)));
+            version++;
+        } finally {
+            unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * Обхожда събитията в хронологичен ред направо от индекса по дни,
+     * без да изгражда списък с всички събития. Всеки ден се взима цял без заключване,
+     * така че календарът може да се променя по време на обхождането.
+     * @return итератор по събитията
+     */
+    public Iterator<Event> eventIterator() {
+        return iterate(Long.MIN_VALUE, Long.MAX_VALUE);
+    }
+
+    /**
+     * Обхожда събитията в даден период в хронологичен ред, без да изгражда списък.
+     * @param from първият ден
+     * @param to последният ден (включително)
+     * @return итератор по събитията
+     */
+    public Iterator<Event> eventIterator(LocalDate from, LocalDate to) {
+        if (from.isAfter(to))
+            throw new IllegalArgumentException("'From' date must be before 'To' date");
+        return iterate(from.toEpochDay(), to.toEpochDay());
+    }
+
+    /**
+     * Общ брой събития в календара.
+     * @return броят събития
+     */
+    public int size() {
+        return (int) readField(() -> size);
+    }
+
+    /**
+     * Приблизителната памет, заета от календара: постоянната част, събитията и индексите към тях
+     * (или хранилището, ако индексите не са изградени).
+     * Използва се от {@link CalendarRegistry}, за да реши кои календари да освободи.
+     * @return броят байтове
+     */
+    public long estimatedBytes() {
+        return readDays(() -> {
+            EventStore store = compact;
+            if (store != null)
+                return CALENDAR_BYTES + store.estimatedBytes();
+            return CALENDAR_BYTES + (long) size * EVENT_BYTES + (long) days.size() * DAY_BYTES;
+        });
+    }
+
+    /**
+     * Броят на събитията в даден период.
+     * @param from първият ден
+     * @param to последният ден (включително)
+     * @return броят събития
+     */
+    public int count(LocalDate from, LocalDate to) {
+        return readDays(() -> {
+            EventStore store = compact;
+            if (store != null) {
+                checkRange(from, to);
+                return store.lowerBound(to.toEpochDay() + 1) - store.lowerBound(from.toEpochDay());
+            }
+            int count = 0;
+            for (List<Event> bucket : range(from, to))
+                count += bucket.size();
+            return count;
+        });
+    }
+
+    /**
+     * Връща събитието с даден пореден номер в хронологичния ред,
+     * като прескача цели дни, без да изгражда списък с всички събития.
+     * @param index поредният номер (от 0)
+     * @return събитието
+     * @throws IndexOutOfBoundsException ако няма събитие с такъв номер
+     */
+    public Event eventAt(int index) {
+        Event event = readDays(() -> {
+            if (index < 0 || index >= size)
+                return null;
+            EventStore store = compact;
+            if (store != null)
+                return store.get(index);
+            int i = index;
+            for (List<Event> bucket : days.values()) {
+                if (i < bucket.size())
+                    return bucket.get(i);
+                i -= bucket.size();
+            }
+            return null;
+        });
+        if (event == null)
+            throw new IndexOutOfBoundsException("Index out of range: " + index);
+        return event;
+    }
+
+    /**
+     * Връща една страница от събитията в хронологичен ред. Създава се списък само за събитията
+     * от страницата, а дните преди нея се прескачат изцяло.
+     * @param offset колко събития да се пропуснат
+     * @param limit максималният брой събития в страницата
+     * @return събитията от страницата
+     */
+    public List<Event> page(int offset, int limit) {
+        return readDays(() -> {
+            EventStore store = compact;
+            if (store != null)
+                return page(store, 0, store.size(), offset, limit);
+            return page(days.values(), offset, limit);
+        });
+    }
+
+    /**
+     * Връща една страница от събитията в даден период.
+     * @param from първият ден
+     * @param to последният ден (включително)
+     * @param offset колко събития да се пропуснат
+     * @param limit максималният брой събития в страницата
+     * @return събитията от страницата
+     */
+    public List<Event> page(LocalDate from, LocalDate to, int offset, int limit) {
+        return readDays(() -> {
+            EventStore store = compact;
+            if (store != null) {
+                checkRange(from, to);
+                return page(store, store.lowerBound(from.toEpochDay()), store.lowerBound(to.toEpochDay() + 1), offset, limit);
+            }
+            return page(range(from, to), offset, limit);
+        });
+    }
+
+    private Collection<List<Event>> range(LocalDate from, LocalDate to) {
+        checkRange(from, to);
+        return days.subMap(from.toEpochDay(), true, to.toEpochDay(), true).values();
+    }
+
+    private static void checkRange(LocalDate from, LocalDate to) {
+        if (from.isAfter(to))
+            throw new IllegalArgumentException("'From' date must be before 'To' date");
+    }
+
+    /**
+     * Страница от записите на хранилище между два индекса; обекти се създават само за страницата.
+     */
+    private static List<Event> page(EventStore store, int from, int to, int offset, int limit) {
+        if (offset < 0 || limit < 0)
+            throw new IllegalArgumentException("Offset and limit cannot be negative!");
+        int start = (int) Math.min(to, (long) from + offset);
+        return store.events(start, (int) Math.min(to, (long) start + limit));
+    }
+
+    private static List<Event> page(Collection<List<Event>> buckets, int offset, int limit) {
+        if (offset < 0 || limit < 0)
+            throw new IllegalArgumentException("Offset and limit cannot be negative!");
+        List<Event> page = new ArrayList<>(Math.min(limit, 1024));
+        for (List<Event> bucket : buckets) {
+            if (page.size() == limit)
+                break;
+            if (offset >= bucket.size()) {
+                offset -= bucket.size();
+                continue;
+            }
+            int end = (int) Math.min(bucket.size(), (long) offset + limit - page.size());
+            page.addAll(bucket.subList(offset, end));
+            offset = 0;
+        }
+        return page;
+    }
+
+    private Iterator<Event> iterate(long from, long to) {
+        return new Iterator<>() {
+            private Long previous;
+            private boolean done;
+            private Iterator<Event> current = Collections.emptyIterator();
+
+            @Override
+            public boolean hasNext() {
+                while (!current.hasNext() && !done) {
+                    long next = previous == null ? from : previous + 1;
+                    Map.Entry<Long, List<Event>> day = readDays(() -> firstDayFrom(next));
+                    if (day == null || day.getKey() > to)
+                        done = true;
+                    else {
+                        current = day.getValue().iterator();
+                        previous = day.getKey();
+                    }
+                }
+                return current.hasNext();
+            }
+
+            @Override
+            public Event next() {
+                if (!hasNext())
+                    throw new NoSuchElementException();
+                return current.next();
+            }
+        };
+    }
+
+    /**
+     * Първият ден със събития от даден ден нататък заедно със събитията му.
+     * @return денят или {@code null}, ако няма такъв
+     */
+    private Map.Entry<Long, List<Event>> firstDayFrom(long day) {
+        EventStore store = compact;
+        if (store == null)
+            return days.ceilingEntry(day);
+        int first = store.lowerBound(day);
+        if (first == store.size())
+            return null;
+        long found = store.epochDay(first);
+        return Map.entry(found, store.events(first, store.lowerBound(found + 1)));
+    }
+
+    /**
+     * Задава нов списък със събития и изгражда индекса по дни наново.
+     * @param events новият списък със събития
+     */
+    public void setEvents(List<Event> events) {
+        long stamp = changeLock();
+        try {
+            reset(events.size());
+            compact = null;
+            fill(events);
+        } finally {
+            unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * Задава нови събития, като ги пази само в колонно хранилище, без да създава обекти {@link Event}
+     * и индекси. Индексите се изграждат при първата промяна или справка, която ги използва.
+     * Хранилището не бива да се променя след това.
+     * @param store хранилището със събитията
+     */
+    public void setEvents(EventStore store) {
+        store.sort();
+        long stamp = changeLock();
+        try {
+            reset(store.size());
+            compact = store;
+        } finally {
+            unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * Изчиства събитията преди зареждане на нови и отбелязва целия календар като променен.
+     * @param count броят на новите събития
+     */
+    private void reset(int count) {
+        allDirty = true;
+        dirtyMonths.clear();
+        clearIndices();
+        version++;
+        size = count;
+    }
+
+    private void clearIndices() {
+        days.clear();
+        intervals.clear();
+        occupancy.clear();
+        busyMinutes.clear();
+        gapIndex.reset(workingHours);
+        search = null;
+    }
+
+    /**
+     * Изгражда индексите от събития, които вече са преброени в {@link #size}.
+     * Кофите се подреждат наведнъж, вместо всяко събитие да копира кофата на деня си.
+     */
+    private void fill(Iterable<Event> events) {
+        Map<Long, List<Event>> grouped = new TreeMap<>();
+        for (Event e : events)
+            grouped.computeIfAbsent(e.getDate().toEpochDay(), k -> new ArrayList<>()).add(e);
+        for (Map.Entry<Long, List<Event>> day : grouped.entrySet()) {
+            List<Event> bucket = day.getValue();
+            bucket.sort(BY_TIME);
+            days.put(day.getKey(), List.copyOf(bucket));
+            for (Event e : bucket)
+                indexed(e);
+        }
+    }
+
+    /**
+     * Премахва дадено събитие от календара.
+     * @param event събитието, което ще бъде премахнато
+     */
+    public void removeEvent(Event event) {
+        long stamp = writeLock();
+        try {
+            Event stored = resolve(event);
+            if (stored != null && unindex(stored))
+                removed(stored);
+        } finally {
+            unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * Регистрира наблюдател за промените в календара.
+     * Наблюдателите се уведомяват след освобождаване на заключването за промяна, в реда на промените.
+     * @param listener наблюдателят
+     */
+    public void addListener(CalendarListener listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * Премахва регистриран наблюдател.
+     * @param listener наблюдателят
+     */
+    public void removeListener(CalendarListener listener) {
+        listeners.remove(listener);
+    }
+
+    /**
+     * Добавя събитие без проверка за припокриване и без уведомяване на наблюдателите.
+     * Използва се при възстановяване на състояние от журнал.
+     * @param event събитието
+     */
+    void restore(Event event) {
+        long stamp = writeLock();
+        try {
+            index(event);
+        } finally {
+            unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * Премахва събитие без уведомяване на наблюдателите.
+     * Използва се при възстановяване на състояние от журнал.
+     * @param event събитието
+     * @return true ако събитието е било в календара
+     */
+    boolean discard(Event event) {
+        long stamp = writeLock();
+        try {
+            Event stored = resolve(event);
+            return stored != null && unindex(stored);
+        } finally {
+            unlockWrite(stamp);
+        }
+    }
+
+    private void added(Event event) {
+        if (!listeners.isEmpty())
+            notifications.add(new Notification(true, event));
+    }
+
+    private void removed(Event event) {
+        if (!listeners.isEmpty())
+            notifications.add(new Notification(false, event));
+    }
+
+    /**
+     * Заменя събитие от календара с променено копие, като поддържа индексите
+     * и уведомява наблюдателите за старото и новото състояние.
+     * Самото събитие не се променя, за да могат справките да го извеждат без заключване.
+     * Проверката за припокриване и замяната се извършват под едно и също заключване.
+     * @param event събитието
+     * @param timed дали промяната засяга датата или часовете (тогава копието не бива да се застъпва с други събития)
+     * @param mutation промяната, която се прилага върху копието
+     * @return true ако промяната е приложена
+     */
+    private boolean update(Event event, boolean timed, Consumer<Event> mutation) {
+        Event changed = new Event(event);
+        mutation.accept(changed);
+        long stamp = writeLock();
+        try {
+            Event stored = resolve(event);
+            if (stored == null)
+                return false;
+            if (timed && !isFreeExcept(changed, stored))
+                return false;
+            if (!unindex(stored))
+                return false;
+            removed(stored);
+            index(changed);
+            added(changed);
+            return true;
+        } finally {
+            unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * Връща събитията за конкретна дата, подредени по начален час.
+     * @param date датата
+     * @return списък само за четене (празен, ако денят е свободен)
+     */
+    public List<Event> eventsOn(LocalDate date) {
+        return readDays(() -> {
+            EventStore store = compact;
+            if (store != null)
+                return store.events(store.lowerBound(date.toEpochDay()), store.lowerBound(date.toEpochDay() + 1));
+            List<Event> bucket = days.get(date.toEpochDay());
+            return bucket == null ? List.<Event>of() : bucket;
+        });
+    }
+
+    /**
+     * Добавя събитие в кофата за неговия ден, запазвайки подредбата по час.
+     * Кофата се заменя с ново копие, а не се променя на място.
+     * @param event събитието
+     */
+    private void index(Event event) {
+        long key = event.getDate().toEpochDay();
+        List<Event> bucket = days.getOrDefault(key, List.of());
+        int pos = Collections.binarySearch(bucket, event, BY_TIME);
+        if (pos < 0)
+            pos = -pos - 1;
+        Event[] copy = new Event[bucket.size() + 1];
+        for (int i = 0; i < pos; i++)
+            copy[i] = bucket.get(i);
+        copy[pos] = event;
+        for (int i = pos; i < bucket.size(); i++)
+            copy[i + 1] = bucket.get(i);
+        days.put(key, List.of(copy));
+        indexed(event);
+        version++;
+        touch(event);
+        size++;
+    }
+
     /**
-     * Списък с всички събития в календара.
+     * Добавя събитие, което вече е в кофата за деня си, в останалите индекси.
+     * Не променя броя събития и версията.
+     * @param event събитието
      */
-    private List<Event> events = new ArrayList<>();
+    private void indexed(Event event) {
+        intervals.insert(event);
+        if (search != null)
+            search.add(event);
+        busyMinutes.add(event.getDate(), BusyMinutes.minutesOf(event));
+        occupancy.computeIfAbsent(event.getDate().toEpochDay(), k -> new OccupancyBitmap()).add(event);
+        gapIndex.booked(event.getDate().toEpochDay(), OccupancyBitmap.startMinute(event), OccupancyBitmap.endMinute(event));
+    }
 
     /**
-     * Форматиращ обект за работа с дати.
+     * Намира в индекса събитието, което отговаря на даденото: самото него или, ако то е създадено
+     * от хранилището или от друга справка, първото събитие в деня със същите полета.
+     * @param event събитието
+     * @return събитието в календара или {@code null}, ако няма такова
      */
-    public final DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyy");
+    private Event resolve(Event event) {
+        List<Event> bucket = days.getOrDefault(event.getDate().toEpochDay(), List.of());
+        for (Event e : bucket) {
+            if (e == event)
+                return e;
+        }
+        for (Event e : bucket) {
+            if (e.getStartTime().equals(event.getStartTime()) && e.getEndTime().equals(event.getEndTime())
+                    && e.getName().equals(event.getName()) && e.getDesc().equals(event.getDesc()))
+                return e;
+        }
+        return null;
+    }
 
     /**
-     * Текущата дата, използвана като база за текущата година.
+     * Премахва събитие от кофата за неговия ден.
+     * Трябва да се извика преди промяна на датата или часовете на събитието.
+     * @param event събитието
+     * @return true ако събитието е било в календара
      */
-    public final LocalDate currentYear = LocalDate.now();
+    private boolean unindex(Event event) {
+        long key = event.getDate().toEpochDay();
+        List<Event> bucket = days.get(key);
+        if (bucket == null)
+            return false;
+        for (int i = 0; i < bucket.size(); i++) {
+            if (bucket.get(i) == event) {
+                List<Event> rest = new ArrayList<>(bucket);
+                rest.remove(i);
+                bucket = List.copyOf(rest);
+                if (bucket.isEmpty()) {
+                    days.remove(key);
+                    occupancy.remove(key);
+                } else {
+                    days.put(key, bucket);
+                    // събитията в деня може да се застъпват, затова картата се изгражда наново
+                    OccupancyBitmap bitmap = occupancy.get(key);
+                    bitmap.clear();
+                    for (Event e : bucket)
+                        bitmap.add(e);
+                }
+                gapIndex.released(key, occupancy.get(key), OccupancyBitmap.startMinute(event), OccupancyBitmap.endMinute(event));
+                intervals.remove(event);
+                if (search != null)
+                    search.remove(event);
+                busyMinutes.add(event.getDate(), -BusyMinutes.minutesOf(event));
+                version++;
+                touch(event);
+                size--;
+                return true;
+            }
+        }
+        return false;
+    }
 
     /**
-     * Единствената инстанция на календара (Singleton).
+     * Отбелязва месеца на събитието като променен.
+     * @param event събитието
      */
-    private static Calendar calendarInstance;
+    private void touch(Event event) {
+        if (!allDirty)
+            dirtyMonths.add(YearMonth.from(event.getDate()));
+    }
 
     /**
-     * Частен конструктор за създаване на инстанцията на календара.
+     * Проверява дали има промени след последния запис.
+     * @return true ако календарът е променян
      */
-    private Calendar() {
-        formatter.format(currentYear);
+    public boolean isModified() {
+        return read(() -> allDirty || !dirtyMonths.isEmpty());
     }
 
     /**
-     * Връща единствената инстанция на класа Models.Calendar.
-     * @return инстанция на Models.Calendar
+     * Проверява дали целият календар трябва да се запише наново.
+     * @return true ако календарът е зареден наново след последния запис
      */
-    public static Calendar getInstance() {
-        if (calendarInstance == null)
-            calendarInstance = new Calendar();
-        return calendarInstance;
+    public boolean isFullyModified() {
+        return read(() -> allDirty);
     }
 
     /**
-     * Връща списъка със събития.
-     * @return списък със събития
+     * Връща месеците, променени след последния запис.
+     * @return копие на множеството от месеци
      */
-    public List<Event> getEvents() {
-        return events;
+    public Set<YearMonth> getModifiedMonths() {
+        return read(() -> Set.copyOf(dirtyMonths));
     }
 
     /**
-     * Задава нов списък със събития.
-     * @param events новият списък със събития
+     * Отбелязва текущото състояние като записано.
      */
-    public void setEvents(List<Event> events) {
-        this.events = events;
+    public void markSaved() {
+        long stamp = changeLock();
+        try {
+            allDirty = false;
+            dirtyMonths.clear();
+        } finally {
+            unlockWrite(stamp);
+        }
     }
 
     /**
-     * Премахва дадено събитие от календара.
-     * @param event събитието, което ще бъде премахнато
+     * Връща месеците, в които има поне едно събитие, в хронологичен ред.
+     * @return подредено множество от месеци
      */
-    public void removeEvent(Event event) {
-        int index = events.indexOf(event);
-        if (index != -1)
-            events.remove(index);
+    public SortedSet<YearMonth> months() {
+        return readDays(() -> {
+            SortedSet<YearMonth> months = new TreeSet<>();
+            EventStore store = compact;
+            if (store != null) {
+                for (int i = 0; i < store.size(); ) {
+                    YearMonth month = YearMonth.from(LocalDate.ofEpochDay(store.epochDay(i)));
+                    months.add(month);
+                    i = store.lowerBound(month.plusMonths(1).atDay(1).toEpochDay());
+                }
+                return months;
+            }
+            Map.Entry<Long, List<Event>> first = days.firstEntry();
+            Long key = first == null ? null : first.getKey();
+            while (key != null) {
+                YearMonth month = YearMonth.from(LocalDate.ofEpochDay(key));
+                months.add(month);
+                key = days.ceilingKey(month.plusMonths(1).atDay(1).toEpochDay());
+            }
+            return months;
+        });
+    }
+
+    /**
+     * Връща събитията в даден месец в хронологичен ред.
+     * @param month месецът
+     * @return нов списък със събитията
+     */
+    public List<Event> eventsIn(YearMonth month) {
+        return readDays(() -> {
+            EventStore store = compact;
+            if (store != null)
+                return store.events(store.lowerBound(month.atDay(1).toEpochDay()), store.lowerBound(month.atEndOfMonth().toEpochDay() + 1));
+            List<Event> result = new ArrayList<>();
+            for (List<Event> bucket : days.subMap(month.atDay(1).toEpochDay(), true, month.atEndOfMonth().toEpochDay(), true).values())
+                result.addAll(bucket);
+            return result;
+        });
+    }
+
+    /**
+     * Проверява дали кандидатът се застъпва само със самото събитие, което се променя.
+     * @param candidate новото състояние на събитието
+     * @param self събитието в календара
+     * @return true ако няма други припокриващи се събития
+     */
+    private boolean isFreeExcept(Event candidate, Event self) {
+        for (Event e : intervals.query(candidate)) {
+            if (e != self)
+                return false;
+        }
+        return true;
     }
 
     /**
@@ -78,7 +1110,7 @@ public class Calendar {
      * @return новосъздаденото събитие
      */
     public Event createEvent() {
-        Scanner scanner = new Scanner(System.in);
+        UserInput.requireConsole();
         String name, desc;
         String[] time;
         boolean valid;
@@ -86,17 +1118,17 @@ public class Calendar {
         LocalTime start = null, end = null;
 
         System.out.println("Enter the name of the event: ");
-        name = scanner.nextLine();
+        name = UserInput.nextLine();
         System.out.println('\n');
 
         System.out.println("Enter a description of the event: ");
-        desc = scanner.nextLine();
+        desc = UserInput.nextLine();
         System.out.println('\n');
 
         do {
             valid = true;
             System.out.println("Enter the date of the event: [dd/mm]");
-            String line = scanner.nextLine();
+            String line = UserInput.nextLine();
             time = line.split("/");
             if(time.length != 2)
                 valid = false;
@@ -117,7 +1149,7 @@ public class Calendar {
         do {
             valid = true;
             System.out.println("Enter the starting hour of the event: [hh:mm]");
-            String line = scanner.nextLine();
+            String line = UserInput.nextLine();
             time = line.split(":");
             if(time.length != 2)
                 valid = false;
@@ -139,7 +1171,7 @@ public class Calendar {
         do {
             valid = true;
             System.out.println("Enter the ending hour of the event: [hh:mm]");
-            time = scanner.nextLine().split(":");
+            time = UserInput.nextLine().split(":");
             if(time.length != 2)
                 valid = false;
             else
@@ -168,6 +1200,32 @@ public class Calendar {
      * @return true ако събитието е успешно записано, иначе false
      */
     public boolean book(Event event) {
+        long stamp = writeLock();
+        try {
+            return bookLocked(event, true);
+        } finally {
+            unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * Запазва събитие като {@link #book(Event)}, но без да извежда съобщения.
+     * @param event събитието за запазване
+     * @return true ако събитието е успешно записано, иначе false
+     */
+    public boolean tryBook(Event event) {
+        long stamp = writeLock();
+        try {
+            return bookLocked(event, false);
+        } finally {
+            unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * Записва събитие, докато календарът вече е заключен за промяна.
+     */
+    private boolean bookLocked(Event event, boolean verbose) {
         if (event.getStartTime().isAfter(event.getEndTime())) {
             Event day1 = new Event(event);
             Event day2 = new Event(event);
@@ -184,130 +1242,96 @@ public class Calendar {
 
             day2.setStartTime(LocalTime.of(0, 0));
 
-            if (book(day1)) {
-                if (book(day2))
+            if (bookLocked(day1, verbose)) {
+                if (bookLocked(day2, verbose))
                     return true;
-                else
-                    removeEvent(day1);
+                else if (unindex(day1))
+                    removed(day1);
             }
             return false;
         }
-        if (events.isEmpty()) {
-            events.add(event);
-            System.out.println("Event added successfully");
-            return true;
-        }
-
-        List<Event> overlaps = findOverlap(event, events);
+        List<Event> overlaps = intervals.query(event);
         if (overlaps.isEmpty()) {
-            events.add(event);
-            System.out.println("Event added successfully");
+            index(event);
+            added(event);
+            if (verbose)
+                System.out.println("Event added successfully");
             return true;
-        } else
+        } else if (verbose)
             System.out.println("The event overlaps with other/s!");
         return false;
     }
 
     /**
      * Премахва събитие чрез въвеждане от потребителя.
-     * Изисква потвърждение преди изтриване.
+     * Изисква потвърждение преди изтриване (или решение от {@link UserInput.Policy}).
      */
     public void unbook(LocalDate date, LocalTime startTime, LocalTime endTime) {
-        Scanner scanner = new Scanner(System.in);
         int i = 0;
-        String choice = "";
-
-        for (Event e : events) {
-            if (e.getMonth() == date.getMonth() && e.getDay() == date.getDayOfMonth()) {
-                if (e.getStartTime() == startTime && e.getEndTime() == endTime) {
-                    i++;
-                    System.out.println(e.ShowEvent());
-                    System.out.println("Do you really want to delete this event?\n");
-                    System.out.println("Type 'confirm' continue:\n");
-
-                    choice = scanner.nextLine();
-
-                    if (choice.equalsIgnoreCase("confirm")) {
-                        removeEvent(e);
-                        System.out.println("Event has been removed.");
-                        return;
-                    }
 
+        for (Event e : new ArrayList<>(eventsOn(date))) {
+            if (e.getStartTime().equals(startTime) && e.getEndTime().equals(endTime)) {
+                i++;
+                if (UserInput.confirm(e.ShowEvent() + "\nDo you really want to delete this event?\n\nType 'confirm' continue:\n", "confirm")) {
+                    removeEvent(e);
+                    System.out.println("Event has been removed.");
+                    return;
                 }
+
             }
         }
-        if (i == 0 && choice.isEmpty())
+        if (i == 0)
             System.out.println("There are no events matching your description.");
         else
             System.out.println("The event has not been removed.");
     }
 
     /**
-     * Намира събития, които се припокриват с дадено събитие.
+     * Премахва без потвърждение първото събитие в даден ден с точно зададените начален и краен час.
+     *
+     * @param date датата
+     * @param startTime началният час
+     * @param endTime крайният час
+     * @return премахнатото събитие или {@code null}, ако няма такова
+     */
+    public Event removeAt(LocalDate date, LocalTime startTime, LocalTime endTime) {
+        long stamp = writeLock();
+        try {
+            for (Event e : days.getOrDefault(date.toEpochDay(), List.of())) {
+                if (e.getStartTime().equals(startTime) && e.getEndTime().equals(endTime)) {
+                    unindex(e);
+                    removed(e);
+                    return e;
+                }
+            }
+            return null;
+        } finally {
+            unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * Намира събития от календара, които се припокриват с дадено събитие.
+     * Използва интервалното дърво, така че цената е {@code O(log n + k)}.
+     * @param event събитието, за което търсим припокривания
+     * @return списък с припокриващи се събития
+     */
+    public List<Event> findOverlap(Event event) {
+        return readIndexed(() -> intervals.query(event));
+    }
+
+    /**
+     * Намира събития от даден списък, които се припокриват с дадено събитие.
+     * Интервалите са полуотворени, т.е. събития, които само се допират, не се припокриват.
      * @param event събитието, за което търсим припокривания
      * @param events списък със съществуващи събития
      * @return списък с припокриващи се събития
      */
     public List<Event> findOverlap(Event event, List<Event> events) {
         List<Event> overlaps = new ArrayList<>();
-
         for (Event e : events) {
-            if (e.getMonth() == event.getMonth() && e.getDay() == event.getDay()) {
-                if (event.getStartTime().getHour() == event.getEndTime().getHour()) {
-                    if (event.getStartTime().isAfter(e.getStartTime()) && event.getEndTime().isBefore(e.getEndTime())) {
-                        overlaps.add(e);
-                        continue;
-                    }
-                    if(event.getStartTime().isAfter(e.getStartTime()) && event.getStartTime().isBefore(e.getEndTime()))
-                    {
-                        overlaps.add(e);
-                        continue;
-                    }
-                    if(event.getEndTime().isAfter(e.getStartTime()) && event.getEndTime().isBefore(e.getEndTime()))
-                    {
-                        overlaps.add(e);
-                        continue;
-                    }
-                    if(event.getStartTime().isBefore(e.getStartTime()) && event.getEndTime().isAfter(e.getEndTime()))
-                        overlaps.add(e);
-                } else {
-                    if(e.getStartTime().isAfter(event.getStartTime()) && e.getEndTime().isBefore(event.getEndTime()))
-                    {
-                        overlaps.add(e);
-                        continue;
-                    }
-                    for (int i = event.getStartTime().getHour(); i <= event.getEndTime().getHour(); i++) {
-                        if (i == event.getStartTime().getHour()) {
-                            if (event.getStartTime().isAfter(e.getStartTime()) && event.getStartTime().isBefore(e.getEndTime())) {
-                                overlaps.add(e);
-                                break;
-                            }
-                            if(event.getStartTime().equals(e.getStartTime()))
-                            {
-                                overlaps.add(e);
-                                break;
-                            }
-                        } else if(i == event.getEndTime().getHour()) {
-                            if(event.getEndTime().isAfter(e.getStartTime()) && event.getEndTime().isBefore(e.getEndTime()))
-                            {
-                                overlaps.add(e);
-                                break;
-                            }
-                            if(event.getStartTime().isBefore(e.getEndTime()) && event.getEndTime().isAfter(e.getEndTime()))
-                            {
-                                overlaps.add(e);
-                                break;
-                            }
-                        } else{
-                            if(i > e.getStartTime().getHour() && i < e.getEndTime().getHour())
-                            {
-                                overlaps.add(e);
-                                break;
-                            }
-                        }
-                    }
-                }
-            }
+            if (IntervalTree.overlaps(event, e))
+                overlaps.add(e);
         }
         return overlaps;
     }
@@ -316,16 +1340,33 @@ public class Calendar {
      * Показва всички събития за избрана дата, въведена от потребителя.
      */
     public void agenda(LocalDate date) {
-        int i = 0;
-        for (Event e : events) {
-            if (e.getMonth() == date.getMonth() && e.getDay() == date.getDayOfMonth()) {
-                i++;
-                System.out.println(i + ": ");
-                System.out.println(e.ShowEvent());
-            }
+        agenda(date, date, 0, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Показва една страница от събитията в даден период, номерирани от {@code offset + 1}.
+     * Форматират се само събитията от страницата.
+     *
+     * @param from първият ден
+     * @param to последният ден (включително)
+     * @param offset колко събития да се пропуснат
+     * @param limit максималният брой показани събития
+     */
+    public void agenda(LocalDate from, LocalDate to, int offset, int limit) {
+        List<Event> page = page(from, to, offset, limit);
+        EventPrinter printer = newPrinter();
+        int i = offset;
+        for (Event e : page) {
+            i++;
+            printer.event(i, i + ": \n", e);
         }
-        if (i == 0)
-            System.out.println("You are free on that day!");
+        if (page.isEmpty() && offset == 0)
+            printer.println(from.equals(to) ? "You are free on that day!" : "You are free in that period!");
+        else if (page.isEmpty())
+            printer.println("There are no events from number " + (offset + 1) + " on (" + count(from, to) + " event/s in total).");
+        else if (offset > 0 || limit != Integer.MAX_VALUE)
+            printer.println("Showing " + (offset + 1) + "-" + i + " of " + count(from, to) + " event/s.");
+        printer.flush();
     }
 
     /**
@@ -334,35 +1375,24 @@ public class Calendar {
      * @param event събитието, което ще бъде променено
      */
     public void change(Event event, String action) {
-        System.out.println(event.ShowEvent());
-        System.out.println("Is this the event you'd like to edit?");
-        System.out.println("Type 'yes' to continue");
-        Scanner scanner = new Scanner(System.in);
-        String info = scanner.nextLine();
-        if(!info.equalsIgnoreCase("yes"))
+        if(!UserInput.confirm(event.ShowEvent() + "\nIs this the event you'd like to edit?\nType 'yes' to continue", "yes"))
         {
             System.out.println("Event wasn't changed");
             return;
         }
-        int i = 1;
         String[] time;
         LocalDate date = null;
         LocalTime start = null;
         LocalTime end = null;
 
-        List<Event> others = new ArrayList<>();
         boolean valid;
         switch (action.toLowerCase()) {
             case "date": //Change date
             {
-                for (Event e : events) {
-                    if (!e.equals(event))
-                        others.add(e);
-                }
                 do {
                     valid = true;
                     System.out.println("Enter the date of the event: [dd/mm]");
-                    String line = scanner.nextLine();
+                    String line = UserInput.nextLine();
                     time = line.split("/");
                     if(time.length != 2)
                         valid = false;
@@ -379,25 +1409,19 @@ public class Calendar {
 
                 } while (!valid);
 
-                Event temp = new Event(event);
-                temp.setDate(date);
-                if (findOverlap(temp, others).isEmpty()) {
-                    event.setDate(date);
+                LocalDate newDate = date;
+                if (update(event, true, e -> e.setDate(newDate)))
                     System.out.println("Date changed");
-                } else
+                else
                     System.out.println("Change not possible due to overlapping event/s!");
             }
             break;
             case "start": //Change start time
             {
-                for (Event e : events) {
-                    if (!e.equals(event))
-                        others.add(e);
-                }
                 do {
                     valid = true;
                     System.out.println("Enter the starting hour of the event: [hh:mm]");
-                    String line = scanner.nextLine();
+                    String line = UserInput.nextLine();
                     time = line.split(":");
                     if(time.length != 2)
                         valid = false;
@@ -417,25 +1441,19 @@ public class Calendar {
 
                 } while (!valid);
 
-                Event temp = new Event(event);
-                temp.setStartTime(start);
-                if (findOverlap(temp, others).isEmpty()) {
-                    event.setStartTime(start);
+                LocalTime newStart = start;
+                if (update(event, true, e -> e.setStartTime(newStart)))
                     System.out.println("Start time changed!");
-                } else
+                else
                     System.out.println("Change not possible due to overlapping event/s!");
             }
             break;
             case "end": //Change end time
             {
-                for (Event e : events) {
-                    if (!e.equals(event))
-                        others.add(e);
-                }
                 do {
                     valid = true;
                     System.out.println("Enter the ending hour of the event: [hh:mm]");
-                    time = scanner.nextLine().split(":");
+                    time = UserInput.nextLine().split(":");
                     if(time.length != 2)
                         valid = false;
                     else
@@ -454,45 +1472,94 @@ public class Calendar {
 
                 } while (!valid);
 
-                Event temp = new Event(event);
-                temp.setEndTime(end);
-                if (findOverlap(temp, others).isEmpty()) {
-                    event.setEndTime(end);
+                LocalTime newEnd = end;
+                if (update(event, true, e -> e.setEndTime(newEnd)))
                     System.out.println("End time changed!");
-                } else
+                else
                     System.out.println("Change not possible due to overlapping event/s!");
             }
             break;
             case "name"://Change name
-                for (Event e : events) {
-                    i++;
-                    if (!e.equals(event))
-                        continue;
-                    System.out.println("Enter the name of the event: ");
-                    info = scanner.nextLine();
-                    e.setName(info);
+                System.out.println("Enter the name of the event: ");
+                String name = UserInput.nextLine();
+                if (update(event, false, e -> e.setName(name)))
                     System.out.println("Name changed.");
-                    break;
-                }
+                else
+                    System.out.println("Change not possible, the event is no longer in the calendar!");
                 break;
             case "desc"://Change description
-                for (Event e : events) {
-                    i++;
-                    if (!e.equals(event))
-                        continue;
-                    System.out.println("Enter a description of the event: ");
-                    info = scanner.nextLine();
-
-                    e.setDesc(info);
+                System.out.println("Enter a description of the event: ");
+                String desc = UserInput.nextLine();
+                if (update(event, false, e -> e.setDesc(desc)))
                     System.out.println("Description changed.");
-                    break;
-                }
+                else
+                    System.out.println("Change not possible, the event is no longer in the calendar!");
                 break;
             default:
                 System.out.println("Invalid command.");
         }
     }
 
+    /**
+     * Променя поле на събитие до стойност, зададена направо, без въпроси към потребителя.
+     * Промените на датата и часовете се проверяват за припокриване с други събития.
+     *
+     * @param event  събитието, което ще бъде променено
+     * @param action полето: {@code date}, {@code start}, {@code end}, {@code name} или {@code desc}
+     * @param value  новата стойност ({@code dd/mm} за дата, {@code hh:mm} за час)
+     * @return дали събитието е променено
+     * @throws IllegalArgumentException ако стойността не е във верния формат
+     */
+    public boolean change(Event event, String action, String value) {
+        Consumer<Event> mutation;
+        switch (action.toLowerCase()) {
+            case "date":
+            {
+                String[] input = value.split("/");
+                if (input.length != 2)
+                    throw new IllegalArgumentException("Date must consist of a day and month separated by '/'");
+                LocalDate date;
+                try {
+                    date = LocalDate.of(currentYear.getYear(), Integer.parseInt(input[1]), Integer.parseInt(input[0]));
+                } catch (NumberFormatException | DateTimeException e) {
+                    throw new IllegalArgumentException("Month and day must be valid numbers and represent a real date");
+                }
+                mutation = e -> e.setDate(date);
+            }
+            break;
+            case "start":
+            {
+                LocalTime start = parseTime(value);
+                mutation = e -> e.setStartTime(start);
+            }
+            break;
+            case "end":
+            {
+                LocalTime end = parseTime(value);
+                mutation = e -> e.setEndTime(end);
+            }
+            break;
+            case "name":
+                return update(event, false, e -> e.setName(value));
+            case "desc":
+                return update(event, false, e -> e.setDesc(value));
+            default:
+                throw new IllegalArgumentException("Invalid field: '" + action + "'");
+        }
+        return update(event, true, mutation);
+    }
+
+    private static LocalTime parseTime(String value) {
+        String[] input = value.split(":");
+        if (input.length != 2)
+            throw new IllegalArgumentException("Time must consist of hours and minutes separated by ':'");
+        try {
+            return LocalTime.of(Integer.parseInt(input[0]), Integer.parseInt(input[1]));
+        } catch (NumberFormatException | DateTimeException e) {
+            throw new IllegalArgumentException("Hours and minutes must be valid numbers and represent a real time");
+        }
+    }
+
     /**
      * Намира всички възможни свободни времеви интервали за събитие
      * в конкретен ден, базирано на вече съществуващите събития в календара.
@@ -514,92 +1581,271 @@ public class Calendar {
             System.out.println("There is a holiday on that date, so there aren't any slots for work!");
             return null;
         }
-        if (events.isEmpty()) {
+        if (size() == 0) {
             System.out.println("No events in the schedule, of course you're free at that time!");
             return null;
         }
 
-        List<Event> overlaps;
-        List<Event> avaliableSlots = new ArrayList<>();
+        List<Event> avaliableSlots = slotsOn(date, hours);
+
+        if(avaliableSlots.isEmpty())
+            System.out.println("There are no available slots at the chosen time\n");
+        return avaliableSlots;
+    }
+
+    /**
+     * Връща свободните интервали за един ден, без да извежда съобщения.
+     * В почивен ден няма свободни интервали.
+     *
+     * @param date датата
+     * @param hours продължителността
+     * @return списък само за четене със свободните интервали
+     */
+    public List<Event> slotsOn(LocalDate date, LocalTime hours) {
+        Holidays holidays = Holidays.getInstance();
+        if (holidays.isHoliday(date))
+            return List.of();
+        // кешът се пълни след освобождаване на заключването, от копие на състоянието на деня
+        DaySnapshot day = readIndexed(() -> new DaySnapshot(version, workingHours, List.copyOf(gapIndex.on(date.toEpochDay())), null));
+        SlotCache.Key key = new SlotCache.Key(date, hours, day.version(), holidays.getVersion(), null);
+        return slotCache.get(key, () -> slotsIn(day.gaps(), date, hours, day.work()));
+    }
 
-        LocalTime currentHour = LocalTime.of(8, 0);
-        LocalTime maxHour = LocalTime.of(17, 0).minusHours(hours.getHour());
-        while (currentHour.isBefore(maxHour) ) {
-            for (int i = 0; i < maxHour.getHour(); i++) {
-                Event event = new Event("Slot", date, currentHour, currentHour.plusHours(hours.getHour()), "empty slot");
+    /**
+     * Състоянието на един ден, прочетено наведнъж от индексите.
+     *
+     * @param version версията на календара при четенето
+     * @param work    работното време
+     * @param gaps    свободните интервали в работното време
+     * @param busy    копие на заетостта на деня или {@code null}, ако не е нужна
+     */
+    private record DaySnapshot(long version, WorkingHours work, List<Gap> gaps, OccupancyBitmap busy) {
+    }
 
-                overlaps = findOverlap(event, events);
-                if (overlaps.isEmpty())
-                    avaliableSlots.add(event);
-                currentHour = currentHour.plusHours(1);
-                if (currentHour.isAfter(maxHour))
-                    break;
-                overlaps.clear();
+    /**
+     * Намира първия свободен интервал с дадена продължителност от даден момент нататък.
+     * Обхождат се поддържаните списъци със свободни интервали ден след ден, като почивните дни се прескачат.
+     *
+     * @param from моментът, от който започва търсенето
+     * @param hours продължителността
+     * @param maxDays в колко дни най-много да се търси
+     * @return интервалът като събитие или {@code null}, ако няма такъв в зададения брой дни
+     */
+    public Event nextFree(LocalDateTime from, LocalTime hours, int maxDays) {
+        int duration = hours.getHour() * 60 + hours.getMinute();
+        LocalDate date = from.toLocalDate();
+        int earliest = from.getHour() * 60 + from.getMinute();
+        for (int i = 0; i < maxDays; i++, date = date.plusDays(1), earliest = 0) {
+            for (Gap gap : freeGaps(date)) {
+                int start = Math.max(gap.startMinute(), earliest);
+                if (start + duration <= gap.endMinute()) {
+                    LocalTime time = LocalTime.of(start / 60, start % 60);
+                    return new Event("Slot", date, time, time.plusMinutes(duration), "empty slot");
+                }
             }
         }
+        return null;
+    }
 
-        if(avaliableSlots.isEmpty())
-            System.out.println("There are no available slots at the chosen time\n");
-        return avaliableSlots;
+    /**
+     * Търси свободни интервали във всеки ден от даден период.
+     * <p>
+     * Дните се обработват на групи от {@value #SLOT_BATCH_DAYS}, като дните в една група се
+     * разпределят между нишките на общия ForkJoin пул. Интервалите се подават на получателя
+     * по реда на датите веднага след обработката на групата, а търсенето спира,
+     * щом бъдат намерени {@code limit} интервала.
+     * </p>
+     *
+     * @param from първият ден
+     * @param to последният ден (включително)
+     * @param hours продължителността
+     * @param limit максималният брой интервали
+     * @param sink получателят на намерените интервали
+     * @return броят на подадените интервали
+     * @throws IllegalArgumentException ако {@code from} е след {@code to} или {@code limit} не е положително
+     */
+    public int findSlots(LocalDate from, LocalDate to, LocalTime hours, int limit, Consumer<Event> sink) {
+        if (from.isAfter(to))
+            throw new IllegalArgumentException("'From' date must be before 'To' date");
+        if (limit < 1)
+            throw new IllegalArgumentException("The number of slots must be positive!");
+
+        int found = 0;
+        for (LocalDate batch = from; !batch.isAfter(to); batch = batch.plusDays(SLOT_BATCH_DAYS)) {
+            LocalDate last = batch.plusDays(SLOT_BATCH_DAYS - 1);
+            if (last.isAfter(to))
+                last = to;
+            List<List<Event>> perDay = batch.datesUntil(last.plusDays(1)).parallel()
+                    .map(date -> slotsOn(date, hours))
+                    .collect(Collectors.toList());
+            for (List<Event> slots : perDay) {
+                for (Event slot : slots) {
+                    sink.accept(slot);
+                    if (++found == limit)
+                        return found;
+                }
+            }
+        }
+        return found;
     }
     /**
      * Намира общи свободни интервали между текущия календар и външен файл с други събития.
-     * Използва се {@code findSlot()}, за да се получат свободни интервали от текущия календар,
-     * след което се филтрират тези, които не се припокриват със събития от файл.
-     *
-     * <p>Подходящо за намиране на общо време за среща между потребители.</p>
      *
      * @return Списък от {@code Models.Event} обекти с валидни интервали, съвпадащи и с календара,
      *         и с външния източник; или {@code null}, ако няма свободни интервали.
+     * @see #findSlotWith(LocalDate, LocalTime, List)
      */
     public List<Event> findSlotWith(LocalDate date, LocalTime hours, String name) {
-        FileController fileController = new FileController();
-        List<Event> avaliableSlots = findSlot(date, hours);
-        List<Event> avaliableCombinedSlots = new ArrayList<>();
-        List<Event> fileEvents = fileController.readFileToArray(name);
-        List<Event> overlaps = new ArrayList<>();
+        return findSlotWith(date, hours, List.of(name));
+    }
 
-        if (avaliableSlots.isEmpty()) {
-            System.out.println("No avaliable slots in the current calendar, no point in checking the file");
+    /**
+     * Намира общи свободни интервали между текущия календар и няколко външни календара.
+     * Всяко име може да бъде файл или директория, от която се взимат всички календари.
+     * Файловете се зареждат паралелно, заетостта на деня от всички източници се обединява
+     * побитово, след което се търсят свободни интервали в общата карта.
+     *
+     * <p>Подходящо за намиране на общо време за среща между много потребители.</p>
+     *
+     * @param date датата
+     * @param hours продължителността
+     * @param names имената на календарите или директориите
+     * @return Списък от {@code Models.Event} обекти с валидни интервали, свободни във всички календари;
+     *         или {@code null}, ако няма свободни интервали или някой файл не може да бъде прочетен.
+     */
+    public List<Event> findSlotWith(LocalDate date, LocalTime hours, List<String> names) {
+        if(Holidays.getInstance().isHoliday(date))
+        {
+            System.out.println("There is a holiday on that date, so there aren't any slots for work!");
+            return null;
+        }
+        List<String> files;
+        String peer;
+        try {
+            files = PeerCalendars.resolve(names);
+            peer = PeerCalendars.identity(files);
+        } catch (NoSuchFileException e) {
+            System.out.println("File doesn't exist! (" + e.getMessage() + ")");
+            return null;
+        } catch (IOException e) {
+            System.out.println("Error when reading the files: " + e.getMessage());
+            return null;
+        }
+        if (files.isEmpty()) {
+            System.out.println("No calendar files were found!");
             return null;
         }
 
-        hours = avaliableSlots.get(0).getEndTime().minusHours(avaliableSlots.get(0).getStartTime().getHour());
+        DaySnapshot day = readIndexed(() -> {
+            OccupancyBitmap bitmap = occupancy.get(date.toEpochDay());
+            return new DaySnapshot(version, workingHours, null, bitmap == null ? new OccupancyBitmap() : new OccupancyBitmap(bitmap));
+        });
+        SlotCache.Key key = new SlotCache.Key(date, hours, day.version(), Holidays.getInstance().getVersion(), peer);
+        List<Event> avaliableCombinedSlots = slotCache.get(key, () -> {
+            List<EventStore> stores;
+            try {
+                stores = peers.load(files);
+            } catch (IOException e) {
+                System.out.println("Error when reading the files: " + e.getMessage());
+                return null;
+            }
+            OccupancyBitmap busy = new OccupancyBitmap(day.busy());
+            for (EventStore store : stores)
+                busy.or(store.occupancyOn(date));
+            return slotsIn(busy.freeGaps(day.work().startMinute(), day.work().endMinute()), date, hours, day.work());
+        });
+        if (avaliableCombinedSlots == null)
+            return null;
+        if (avaliableCombinedSlots.isEmpty()) {
+            System.out.println("There are no available slots at the chosen time in all calendars\n");
+            return null;
+        }
+        return avaliableCombinedSlots;
+    }
 
-        LocalTime currentHour = LocalTime.of(8, 0);
-        LocalTime maxHour = LocalTime.of(17, 0).minusHours(hours.getHour());
-        for (Event event : avaliableSlots) { //only check through the avaliable slots in the calendar since they need to match anyway
+    /**
+     * Връща копие на картата на заетостта за дадена дата.
+     * @param date датата
+     * @return нова карта, която може да се променя свободно
+     */
+    public OccupancyBitmap occupancyOn(LocalDate date) {
+        return readIndexed(() -> {
+            OccupancyBitmap bitmap = occupancy.get(date.toEpochDay());
+            return bitmap == null ? new OccupancyBitmap() : new OccupancyBitmap(bitmap);
+        });
+    }
 
-            for (Event e : fileEvents) {
-                if (e.getMonth() == event.getMonth() && e.getDay() == event.getDay()) {
-                    for (int j = event.getStartTime().getHour(); j <= event.getEndTime().getHour(); j++) {
-                        if (j != event.getEndTime().getHour() && j == e.getStartTime().getHour()) {
-                            overlaps.add(e);
-                            break;
-                        }
-                        if (j == event.getStartTime().getHour()) {
-                            if (j > e.getStartTime().getHour() && j < e.getEndTime().getHour()) {
-                                overlaps.add(e);
-                                break;
-                            }
-                        } else if (j > e.getStartTime().getHour() && j <= e.getEndTime().getHour()) {
-                            overlaps.add(e);
-                            break;
-                        }
-                    }
-                }
+    /**
+     * Връща свободните интервали в работното време за даден ден.
+     * Списъците се поддържат при всяка промяна, затова това е само търсене по ден.
+     * Почивните дни се смятат за изцяло заети.
+     *
+     * @param date датата
+     * @return копие на свободните интервали по реда им в деня
+     */
+    public List<Gap> freeGaps(LocalDate date) {
+        if (Holidays.getInstance().isHoliday(date))
+            return List.of();
+        return readIndexed(() -> List.copyOf(gapIndex.on(date.toEpochDay())));
+    }
 
-            }
+    /**
+     * Свободните интервали за деня, изчислени наново с обхождане на събитията, а не от поддържаните списъци.
+     * Използва се от {@code bench/Models/FreeGapBenchmark} за сравнение с {@link #freeGaps(LocalDate)}.
+     * @param date датата
+     * @return свободните интервали по реда им в деня
+     */
+    List<Gap> sweptGaps(LocalDate date) {
+        if (Holidays.getInstance().isHoliday(date))
+            return List.of();
+        return readIndexed(() -> sweepGaps(date));
+    }
 
-            if (overlaps.isEmpty())
-                avaliableCombinedSlots.add(event);
-            currentHour = currentHour.plusHours(1);
-            if (currentHour.isAfter(maxHour))
+    /**
+     * Намира свободните интервали в работното време за даден ден с едно обхождане
+     * на събитията от деня, подредени по начален час: заетите интервали се сливат,
+     * а празнините между тях се връщат.
+     *
+     * @param date датата
+     * @return свободните интервали по реда им в деня
+     */
+    private List<Gap> sweepGaps(LocalDate date) {
+        WorkingHours work = workingHours;
+        List<Gap> gaps = new ArrayList<>();
+        int cursor = work.startMinute();
+        for (Event e : days.getOrDefault(date.toEpochDay(), List.of())) {
+            int start = OccupancyBitmap.startMinute(e);
+            if (start >= work.endMinute())
                 break;
-            overlaps.clear();
+            if (start > cursor)
+                gaps.add(new Gap(cursor, start));
+            cursor = Math.max(cursor, OccupancyBitmap.endMinute(e));
         }
+        if (cursor < work.endMinute())
+            gaps.add(new Gap(cursor, work.endMinute()));
+        return gaps;
+    }
 
-        return avaliableCombinedSlots;
+    /**
+     * Превръща свободните интервали в предложения за събития с дадена продължителност.
+     * Във всеки интервал предложенията започват от началото му и се повтарят през стъпката на работното време.
+     * @param gaps свободните интервали за деня
+     * @param date датата
+     * @param hours продължителността
+     * @param work работното време, от което се взима стъпката
+     * @return списък със свободните интервали
+     */
+    private static List<Event> slotsIn(List<Gap> gaps, LocalDate date, LocalTime hours, WorkingHours work) {
+        List<Event> avaliableSlots = new ArrayList<>();
+        int duration = hours.getHour() * 60 + hours.getMinute();
+        int step = work.step();
+        for (Gap gap : gaps) {
+            for (int start = gap.startMinute(); start + duration <= gap.endMinute(); start += step) {
+                LocalTime from = LocalTime.of(start / 60, start % 60);
+                avaliableSlots.add(new Event("Slot", date, from, from.plusMinutes(duration), "empty slot"));
+            }
+        }
+        return avaliableSlots;
     }
 
     /**
@@ -610,41 +1856,78 @@ public class Calendar {
      * съдържащи дата и общ брой заети часове в рамките на този ден.</p>
      */
     public void showBusyDays(LocalDate from, LocalDate to) {
-        List<DayBusyness> results = busyDays(from, to);
+        showBusyDays(from, to, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Извежда най-натоварените дни в даден период, най-много {@code limit} на брой,
+     * следвани от общия брой заети часове за целия период.
+     *
+     * @param from Начална дата на интервала
+     * @param to Крайна дата на интервала
+     * @param limit Максимален брой дни
+     */
+    public void showBusyDays(LocalDate from, LocalDate to, int limit) {
+        List<DayBusyness> results = busyDays(from, to, limit);
         results.forEach(System.out::println);
+        System.out.printf("Total: %.1f hours%n", busyMinutes(from, to) / 60.0);
+    }
+
+    /**
+     * Връща общия брой заети минути в даден период, включително двата края.
+     *
+     * @param from Начална дата на интервала
+     * @param to Крайна дата на интервала
+     * @return Броят заети минути
+     */
+    public long busyMinutes(LocalDate from, LocalDate to) {
+        if (from.isAfter(to))
+            throw new IllegalArgumentException("'From' date must be before 'To' date");
+        return readIndexed(() -> busyMinutes.total(from, to));
     }
 
     /**
      * Изчислява и връща списък с най-натоварените дни в даден интервал от време.
-     * Събитията се групират по дати и се изчислява общият брой заети часове за всяка дата.
+     * Заетите минути за всеки ден се поддържат при всяка промяна, а най-натоварените дни
+     * се избират с пирамида (heap) с размер {@code limit}, без да се сортира целият период.
      *
      * <p>Ако начален период е след края – извиква се изключение.</p>
-     * <p>Празници могат да бъдат изключени от изчислението.</p>
      *
      * @param from Начална дата на интервала
      * @param to Крайна дата на интервала
+     * @param limit Максимален брой дни в резултата
      * @return Списък от {@code DayBusyness}, подреден по най-много заети часове в деня
-     * @throws IllegalArgumentException ако {@code from} е след {@code to}
+     * @throws IllegalArgumentException ако {@code from} е след {@code to} или {@code limit} не е положително
      */
-    private List<DayBusyness> busyDays(LocalDate from, LocalDate to) {
+    public List<DayBusyness> busyDays(LocalDate from, LocalDate to, int limit) {
         // Validate date range
         if (from.isAfter(to)) {
             throw new IllegalArgumentException("'From' date must be before 'To' date");
         }
+        if (limit < 1)
+            throw new IllegalArgumentException("The number of days must be positive!");
+
+        // по-малко натоварените дни са най-отгоре, за да се изместват първи
+        Comparator<DayBusyness> busiestFirst = Comparator.comparingDouble(DayBusyness::totalHours).reversed()
+                .thenComparing(DayBusyness::date);
+        PriorityQueue<DayBusyness> top = readIndexed(() -> {
+            PriorityQueue<DayBusyness> heap = new PriorityQueue<>(busiestFirst.reversed());
+            for (long epochDay : days.subMap(from.toEpochDay(), true, to.toEpochDay(), true).keySet()) {
+                LocalDate date = LocalDate.ofEpochDay(epochDay);
+                DayBusyness day = new DayBusyness(date, busyMinutes.on(date) / 60.0);
+                if (heap.size() < limit)
+                    heap.add(day);
+                else if (busiestFirst.compare(day, heap.peek()) < 0) {
+                    heap.poll();
+                    heap.add(day);
+                }
+            }
+            return heap;
+        });
 
-        // Group events by day and calculate total hours per day
-        Map<LocalDate, Double> dayHoursMap = events.stream()
-                .filter(e -> !e.getDate().isBefore(from) && !e.getDate().isAfter(to))
-                .collect(Collectors.groupingBy(
-                        Event::getDate,
-                        Collectors.summingDouble(e -> Duration.between(e.getStartTime(), e.getEndTime()).toHours())
-                ));
-
-        // Convert to sortable list
-        return dayHoursMap.entrySet().stream()
-                .map(entry -> new DayBusyness(entry.getKey(), entry.getValue()))
-                .sorted(Comparator.comparingDouble(DayBusyness::totalHours).reversed())
-                .collect(Collectors.toList());
+        List<DayBusyness> result = new ArrayList<>(top);
+        result.sort(busiestFirst);
+        return result;
     }
 
     /**
@@ -669,46 +1952,97 @@ public class Calendar {
 
     /**
      * Търси събития в календара, чиито име или описание съдържат
-     * зададен низ (case-insensitive).
+     * всяка от зададените ключови думи (case-insensitive).
+     * Кандидатите се намират чрез индекса по думи и триграми, а не чрез обхождане на всички събития.
      *
-     * <p>Извежда съвпадащите събития на екрана, заедно с броя на намерените резултати.</p>
+     * <p>Извежда съвпадащите събития на екрана в хронологичен ред, заедно с броя на намерените резултати.</p>
      *
-     * @param info Текстов низ, който се търси в името или описанието на събитията
+     * @param info Ключови думи, разделени с интервали, които се търсят в името или описанието на събитията
      */
     public void findEvents(String info) {
-        if (events.isEmpty()) {
+        if (size() == 0) {
             System.out.println("The list of events is empty!");
             return;
         }
 
-        List<Event> temp = new ArrayList<>();
-        for (Event e : events) {
-            if (e.getName().toUpperCase().contains(info.toUpperCase()) || e.getDesc().toUpperCase().contains(info.toUpperCase()))
-                temp.add(e);
-        }
+        List<Event> temp = findMatching(info);
         int size = temp.size();
         if (size > 0) {
+            EventPrinter printer = newPrinter();
             int i = 0;
             for (Event e : temp) {
                 i++;
-                System.out.print(i + "/" + size);
-                System.out.println(e.ShowEvent());
+                printer.event(i, i + "/" + size, e);
             }
-            System.out.println("Total Matches : " + size);
+            printer.println("Total Matches : " + size);
+            printer.flush();
         } else
             System.out.println("There are no events containing that/those keyword/s");
     }
 
+    /**
+     * Намира събитията, чиито име или описание съдържат всяка от ключовите думи, без да ги извежда.
+     *
+     * @param info ключовите думи, разделени с интервали
+     * @return нов списък със съвпадащите събития в хронологичен ред
+     */
+    public List<Event> findMatching(String info) {
+        List<Event> found = search(info);
+        found.sort(Comparator.comparing(Event::getDate).thenComparing(BY_TIME));
+        return found;
+    }
+
+    /**
+     * Намира събитията, които съдържат ключовите думи, чрез индекса за търсене.
+     * Ако индексът още не е изграден, той се изгражда под изключително заключване.
+     */
+    private List<Event> search(String info) {
+        List<Event> found = readIndexed(() -> search == null ? null : search.search(info));
+        if (found != null)
+            return found;
+        long stamp = writeLock();
+        try {
+            if (search == null) {
+                search = new SearchIndex();
+                for (List<Event> bucket : days.values())
+                    for (Event e : bucket)
+                        search.add(e);
+            }
+            return search.search(info);
+        } finally {
+            unlockWrite(stamp);
+        }
+    }
+
     /**
      * Отпечатва всички събития в календара със съответния им индекс.
      * Подходящо за визуален преглед или избор на събитие по индекс.
      */
     public void printEvents() {
-        int i = 0;
-        for (Event e : events) {
-            System.out.println("Index: " + i + '|');
-            System.out.println(e.ShowEvent());
+        printEvents(0, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Отпечатва една страница от събитията със съответния им индекс.
+     * Форматират се само събитията от страницата.
+     *
+     * @param offset индексът на първото показано събитие
+     * @param limit максималният брой показани събития
+     */
+    public void printEvents(int offset, int limit) {
+        int size = size();
+        EventPrinter printer = newPrinter();
+        int i = offset;
+        for (Event e : page(offset, limit)) {
+            printer.event(i, "Index: " + i + "|\n", e);
             i++;
         }
+        if (offset > 0 || limit != Integer.MAX_VALUE) {
+            if (i == offset)
+                printer.println("There are no events from index " + offset + " on (" + size + " event/s in total).");
+            else
+                printer.println("Showing indexes " + offset + "-" + (i - 1) + " of " + size + " event/s.");
+        }
+        printer.flush();
     }
 }
\ No newline at end of file
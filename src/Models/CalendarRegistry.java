@@ -0,0 +1,410 @@
+package Models;
+
+import java.io.IOException;
+import java.nio.file.InvalidPathException;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+/**
+ * Регистър с именувани календари – по един за всеки потребител.
+ * <p>
+ * Календарът се зарежда от своя файл чрез собствен {@link FileController} при първото му използване,
+ * в колонно хранилище без индекси (вж. {@link Calendar#setEvents(EventStore)}), което се разгръща едва при промяна.
+ * Заредените календари се пазят в ред на последно използване, а когато приблизителната им обща памет
+ * надхвърли зададения лимит, най-отдавна използваните първо се свиват обратно в хранилище, а ако и това
+ * не стигне, се записват обратно във файловете си (ако са променени) и се освобождават. Избраният календар и календарът по подразбиране никога не се
+ * освобождават, както и календарите, които в момента се използват от друга нишка (HTTP заявка или
+ * фонова задача): те се взимат с {@link #acquire(String)} и се пускат с {@link #release(String)}.
+ * </p>
+ * <p>
+ * Зареждането и записът се извършват извън монитора на регистъра, така че бавен файл не спира
+ * заявките за другите календари. Нишките, които искат календар, докато той се зарежда, изчакват
+ * същото зареждане. Общата памет се поддържа при зареждане, пускане и освобождаване,
+ * вместо да се пресмята за всички календари при всяка заявка.
+ * </p>
+ * <p>
+ * Всеки зареден календар има собствен журнал ({@code <файл>.journal} до файла му), така че промените
+ * не се губят при срив. Незавършен журнал от предишна сесия се прилага при следващото зареждане
+ * на календара, а журналът се изтрива, когато календарът бъде записан и освободен.
+ * </p>
+ * <p>
+ * Името на календара е път към файла му спрямо работната папка. Пътища, които излизат от нея
+ * (абсолютни или с {@code ..}), се отказват, защото имената могат да идват и от HTTP заявки.
+ * </p>
+ */
+public class CalendarRegistry {
+    /** Името на календара по подразбиране. */
+    public static final String DEFAULT = "default";
+
+    /**
+     * Приблизителна памет на зареден календар без събитията му: контролерът на файла, журналът
+     * и записът в регистъра, в байтове. Празният {@link Calendar} се отчита от {@link Calendar#estimatedBytes()}.
+     */
+    static final int ENTRY_BYTES = 512;
+
+    /**
+     * Зареден календар заедно с контролера на файла му.
+     * Полетата без {@code final} се пазят от монитора на регистъра.
+     */
+    private static final class Entry {
+        final Calendar calendar;
+        final FileController files;
+        /** Завършва, когато календарът е зареден от файла си. */
+        final CompletableFuture<Void> ready = new CompletableFuture<>();
+        /** Брой нишки, които в момента използват календара. Такъв календар не се освобождава. */
+        int pins;
+        /** Паметта, с която календарът участва в общата сума. */
+        long bytes;
+        /** Дали календарът в момента се записва, за да бъде освободен. */
+        boolean saving;
+
+        Entry(Calendar calendar, FileController files) {
+            this.calendar = calendar;
+            this.files = files;
+        }
+    }
+
+    private final Entry defaultEntry;
+    private final long budget;
+    /** Име -> зареден (или зареждащ се) календар, в ред на последно използване. */
+    private final LinkedHashMap<String, Entry> loaded = new LinkedHashMap<>(16, 0.75f, true);
+    private String selected = DEFAULT;
+    /** Сборът от {@link Entry#bytes} на всички календари, включително този по подразбиране. */
+    private long total;
+    private long evicted;
+
+    /**
+     * Създава регистър с лимит за паметта, равен на една четвърт от паметта на JVM.
+     * @param defaultFiles контролерът на календара по подразбиране
+     */
+    public CalendarRegistry(FileController defaultFiles) {
+        this(defaultFiles, Runtime.getRuntime().maxMemory() / 4);
+    }
+
+    /**
+     * Създава регистър с даден лимит за паметта.
+     *
+     * @param defaultFiles контролерът на календара по подразбиране
+     * @param budget       приблизителната памет в байтове, която заредените календари могат да заемат
+     */
+    public CalendarRegistry(FileController defaultFiles, long budget) {
+        if (budget < 1)
+            throw new IllegalArgumentException("Memory budget must be positive!");
+        this.defaultEntry = new Entry(defaultFiles.getCalendar(), defaultFiles);
+        this.defaultEntry.ready.complete(null);
+        this.budget = budget;
+        refresh(defaultEntry);
+    }
+
+    /**
+     * Избира календара, с който ще работят следващите команди, като го зарежда при нужда.
+     *
+     * @param name името на календара или {@value #DEFAULT}
+     * @return календарът
+     * @throws IllegalArgumentException ако името не е допустимо (вж. {@link #checkName(String)})
+     */
+    public Calendar select(String name) {
+        Calendar calendar = acquire(name);
+        synchronized (this) {
+            selected = isDefault(name) ? DEFAULT : name;
+        }
+        release(name);
+        return calendar;
+    }
+
+    /**
+     * Взима календар по име за използване от текущата нишка, като го зарежда при нужда.
+     * Докато не бъде пуснат с {@link #release(String)}, календарът не се освобождава,
+     * дори паметта да надхвърли лимита.
+     *
+     * @param name името на календара или {@value #DEFAULT}
+     * @return календарът
+     * @throws IllegalArgumentException ако името не е допустимо (вж. {@link #checkName(String)})
+     */
+    public Calendar acquire(String name) {
+        if (isDefault(name))
+            return defaultEntry.calendar;
+        Entry entry;
+        boolean load = false;
+        synchronized (this) {
+            entry = loaded.get(name);
+            if (entry == null) {
+                checkName(name);
+                Calendar calendar = new Calendar();
+                entry = new Entry(calendar, new FileController(calendar));
+                loaded.put(name, entry);
+                load = true;
+            }
+            entry.pins++;
+        }
+        try {
+            if (load)
+                load(name, entry);
+            else
+                entry.ready.join();
+        } catch (RuntimeException e) {
+            synchronized (this) {
+                entry.pins--;
+            }
+            throw e instanceof CompletionException && e.getCause() instanceof RuntimeException
+                    ? (RuntimeException) e.getCause() : e;
+        }
+        trim();
+        return entry.calendar;
+    }
+
+    /**
+     * Пуска календар, взет с {@link #acquire(String)}. Ако паметта е над лимита,
+     * календарът може да бъде записан и освободен веднага.
+     *
+     * @param name името, с което календарът е взет
+     */
+    public void release(String name) {
+        if (isDefault(name)) {
+            synchronized (this) {
+                refresh(defaultEntry);
+            }
+            trim();
+            return;
+        }
+        synchronized (this) {
+            Entry entry = loaded.get(name);
+            if (entry == null || entry.pins == 0)
+                return;
+            entry.pins--;
+            refresh(entry);
+        }
+        trim();
+    }
+
+    /**
+     * Избраният календар.
+     * @return календарът
+     */
+    public synchronized Calendar current() {
+        return selectedEntry().calendar;
+    }
+
+    /**
+     * Контролерът на файла на избрания календар.
+     * @return контролерът
+     */
+    public synchronized FileController currentFiles() {
+        return selectedEntry().files;
+    }
+
+    /**
+     * Контролерът на файла на календар, който текущата нишка е взела с {@link #acquire(String)}.
+     *
+     * @param name името на календара или {@value #DEFAULT}
+     * @return контролерът
+     * @throws IllegalStateException ако календарът не е зареден
+     */
+    public synchronized FileController files(String name) {
+        Entry entry = isDefault(name) ? defaultEntry : loaded.get(name);
+        if (entry == null)
+            throw new IllegalStateException("Calendar '" + name + "' is not loaded!");
+        return entry.files;
+    }
+
+    public synchronized String getSelected() {
+        return selected;
+    }
+
+    /**
+     * Имената на заредените календари (без този по подразбиране), от най-отдавна към най-скоро използвания.
+     * @return нов списък с имената
+     */
+    public synchronized List<String> loadedNames() {
+        return new ArrayList<>(loaded.keySet());
+    }
+
+    /**
+     * Приблизителната памет на всички заредени календари, включително този по подразбиране.
+     * @return броят байтове
+     */
+    public synchronized long estimatedBytes() {
+        return total;
+    }
+
+    /**
+     * Контролерът на файла на календара по подразбиране, който води и журнала на промените.
+     * @return контролерът
+     */
+    public FileController getDefaultFiles() {
+        return defaultEntry.files;
+    }
+
+    public long getBudget() {
+        return budget;
+    }
+
+    public synchronized long getEvicted() {
+        return evicted;
+    }
+
+    /**
+     * Записва всички променени календари (без този по подразбиране) в техните файлове
+     * и изтрива журналите на записаните. Извиква се при изход от програмата.
+     */
+    public void saveAll() {
+        Map<String, Entry> entries;
+        synchronized (this) {
+            entries = new LinkedHashMap<>(loaded);
+        }
+        for (Map.Entry<String, Entry> e : entries.entrySet()) {
+            if (e.getValue().ready.isDone() && !e.getValue().ready.isCompletedExceptionally()
+                    && writeBack(e.getKey(), e.getValue()))
+                e.getValue().files.closeJournal();
+        }
+    }
+
+    /**
+     * Проверява името на календар: то трябва да е път в работната папка, без разширение
+     * или с разширение {@code .calb}.
+     *
+     * @param name името
+     * @throws IllegalArgumentException ако името е празно, абсолютен път, излиза от работната папка
+     *                                  или съдържа разширение, различно от {@code .calb}
+     */
+    public static void checkName(String name) {
+        if (name == null || name.isBlank())
+            throw new IllegalArgumentException("Calendar name cannot be empty!");
+        if (isDefault(name))
+            return;
+        Path path;
+        try {
+            path = Path.of(name);
+        } catch (InvalidPathException e) {
+            throw new IllegalArgumentException("Calendar name is not a valid file name: '" + name + "'");
+        }
+        Path root = Path.of("").toAbsolutePath();
+        if (path.isAbsolute() || path.getRoot() != null || name.startsWith("/") || name.startsWith("\\")
+                || !root.resolve(path).normalize().startsWith(root))
+            throw new IllegalArgumentException("Calendar name must be a path inside the working folder: '" + name + "'");
+        for (Path part : path) {
+            if (part.toString().equals(".."))
+                throw new IllegalArgumentException("Calendar name cannot contain '..': '" + name + "'");
+        }
+        String file = path.getFileName().toString();
+        if (file.contains(".") && !BinarySnapshot.isBinary(name))
+            throw new IllegalArgumentException("Name cannot contain dots or extensions other than " + BinarySnapshot.EXTENSION + "!");
+    }
+
+    /**
+     * Зарежда календара от файла му и включва журнала му. Извиква се извън монитора;
+     * останалите нишки, които искат същия календар, изчакват {@link Entry#ready}.
+     */
+    private void load(String name, Entry entry) {
+        try {
+            if (!entry.files.open(name, true))
+                System.out.println("Calendar '" + name + "' doesn't have a file yet, starting with an empty one.");
+            entry.files.openJournal(journalFile(name));
+        } catch (RuntimeException e) {
+            synchronized (this) {
+                loaded.remove(name, entry);
+            }
+            entry.ready.completeExceptionally(e);
+            throw e;
+        }
+        synchronized (this) {
+            refresh(entry);
+        }
+        entry.ready.complete(null);
+    }
+
+    /**
+     * Файлът на журнала на календар: до файла му, с добавено {@code .journal}.
+     */
+    private static Path journalFile(String name) {
+        return Path.of(FileController.fileName(name) + ".journal");
+    }
+
+    private Entry selectedEntry() {
+        if (isDefault(selected))
+            return defaultEntry;
+        return loaded.get(selected);
+    }
+
+    /**
+     * Преизчислява паметта на календар и я отразява в общата сума. Извиква се под монитора.
+     */
+    private void refresh(Entry entry) {
+        long bytes = entry.calendar.estimatedBytes() + ENTRY_BYTES;
+        total += bytes - entry.bytes;
+        entry.bytes = bytes;
+    }
+
+    /**
+     * Свива и освобождава най-отдавна използваните календари, докато паметта влезе в лимита.
+     * Избраният календар, взетите с {@link #acquire(String)} и още зареждащите се се пропускат.
+     * Записът става извън монитора; ако междувременно календарът е бил взет или променен, той остава зареден.
+     */
+    private void trim() {
+        Set<Entry> kept = Collections.newSetFromMap(new IdentityHashMap<>());
+        while (true) {
+            String name = null;
+            Entry victim = null;
+            synchronized (this) {
+                refresh(defaultEntry);
+                Entry current = selectedEntry();
+                if (current != defaultEntry && current != null)
+                    refresh(current);
+                if (total <= budget)
+                    return;
+                for (Map.Entry<String, Entry> e : loaded.entrySet()) {
+                    Entry entry = e.getValue();
+                    if (e.getKey().equals(selected) || entry.pins > 0 || entry.saving || !entry.ready.isDone()
+                            || kept.contains(entry))
+                        continue;
+                    name = e.getKey();
+                    victim = entry;
+                    victim.saving = true;
+                    break;
+                }
+                if (victim == null)
+                    return;
+            }
+
+            if (!victim.calendar.isCompact()) {
+                // свиването не изисква запис, затова се опитва преди освобождаването
+                victim.calendar.compact();
+                synchronized (this) {
+                    victim.saving = false;
+                    refresh(victim);
+                }
+                continue;
+            }
+
+            // календар, който не може да бъде записан, остава зареден, за да не се загубят промените
+            boolean saved = writeBack(name, victim);
+            synchronized (this) {
+                victim.saving = false;
+                if (saved && victim.pins == 0 && !name.equals(selected) && !victim.calendar.isModified()) {
+                    // журналът се изтрива, преди името да може да се зареди наново със същия файл на журнала
+                    victim.files.closeJournal();
+                    loaded.remove(name);
+                    total -= victim.bytes;
+                    evicted++;
+                } else
+                    kept.add(victim);
+            }
+        }
+    }
+
+    private static boolean writeBack(String name, Entry entry) {
+        try {
+            entry.files.writeBack();
+            return true;
+        } catch (IOException e) {
+            System.out.println("Could not save calendar '" + name + "': " + e.getMessage());
+            return false;
+        }
+    }
+
+    private static boolean isDefault(String name) {
+        return name.equalsIgnoreCase(DEFAULT);
+    }
+}
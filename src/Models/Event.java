@@ -4,7 +4,6 @@ import java.time.DateTimeException;
 import java.time.LocalDate;
 import java.time.LocalTime;
 import java.time.Month;
-import java.util.Scanner;
 
 /**
  * Клас, представящ събитие с информация за дата, време, описание и дали е празник.
@@ -34,10 +33,6 @@ public class Event {
      * Дали събитието е празник
      */
     private boolean holiday;
-    /**
-     * Текуща година за референция при промени по дата
-     */
-    private final LocalDate currentYear = LocalDate.now();
 
     /**
      * Копиращ конструктор.
@@ -79,6 +74,16 @@ public class Event {
      */
     public String ShowEvent() {
         StringBuilder sb = new StringBuilder();
+        appendTo(sb);
+        return sb.toString();
+    }
+
+    /**
+     * Добавя информацията за събитието към съществуващ буфер, във формата на {@link #ShowEvent()}.
+     *
+     * @param sb буферът
+     */
+    void appendTo(StringBuilder sb) {
         sb.append("Event: ");
         sb.append(name);
         sb.append('\n');
@@ -86,22 +91,23 @@ public class Event {
         sb.append(desc);
         sb.append('\n');
         sb.append("Scheduled at: ");
-        sb.append(chosenDate);
+        EventPrinter.appendDate(sb, chosenDate);
         sb.append(" From ");
-        sb.append(startTime);
+        EventPrinter.appendTime(sb, startTime);
         sb.append(" To ");
-        sb.append(endTime);
+        EventPrinter.appendTime(sb, endTime);
         sb.append('\n');
         sb.append("-----------------------------------------------------\n");
-        return sb.toString();
     }
 
     /**
      * Метод за промяна на съществуващо събитие.
      * Позволява редакция на дата, час, име и описание чрез конзолни команди.
+     *
+     * @param action какво да се промени ("date" или "time")
+     * @param year   годината, към която се отнася въведената дата (подава се от календара)
      */
-    public void change(String action) {
-        Scanner scanner = new Scanner(System.in);
+    public void change(String action, int year) {
 
         LocalDate date = null;
         LocalTime start = null, end = null;
@@ -112,12 +118,12 @@ public class Event {
                 do {
                     valid = true;
                     System.out.println("Enter the date of the event: [dd/mm]");
-                    String[] line = scanner.nextLine().split("/");
+                    String[] line = UserInput.nextLine().split("/");
                     if (line.length != 2)
                         valid = false;
                     else {
                         try {
-                            date = LocalDate.of(currentYear.getYear(), Integer.parseInt(line[1]), Integer.parseInt(line[0]));
+                            date = LocalDate.of(year, Integer.parseInt(line[1]), Integer.parseInt(line[0]));
                         } catch (NumberFormatException | DateTimeException e) {
                             throw new IllegalArgumentException("Month and day must be valid numbers and represent a real date");
                         }
@@ -133,7 +139,7 @@ public class Event {
                 do {
                     valid = true;
                     System.out.println("Enter the starting hour of the event: [hh:mm]");
-                    String[] line = scanner.nextLine().split("/");
+                    String[] line = UserInput.nextLine().split("/");
                     if (line.length != 2)
                         valid = false;
                     else {
@@ -153,7 +159,7 @@ public class Event {
                 do {
                     valid = true;
                     System.out.println("Enter the ending hour of the event: [hh:mm]");
-                    String[] line = scanner.nextLine().split("/");
+                    String[] line = UserInput.nextLine().split("/");
                     if (line.length != 2)
                         valid = false;
                     else {
@@ -0,0 +1,233 @@
+package Models;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Month;
+import java.util.Arrays;
+
+/**
+ * Поточен парсер за текстовия формат на календара:
+ * {@code име-ГГГГ МЕСЕЦ Д ЧЧ:ММ ЧЧ:ММ-описание}.
+ * <p>
+ * Файлът се чете на големи блокове през {@link FileChannel}, а всеки ред се разчита
+ * директно в буфера, без {@code split} и без междинни низове. За всяко събитие се заделят
+ * само името и описанието. Разделителят след името се намира, като се търси първото
+ * тире, след което следва валидна секция с дата, така че тирета в името и описанието
+ * са позволени.
+ * </p>
+ */
+public class EventFileParser {
+    /**
+     * Получател на разчетените събития, подадени като примитивни стойности.
+     */
+    public interface Sink {
+        void accept(String name, long epochDay, int startMinute, int endMinute, String desc);
+    }
+
+    /** Размер на блока при четене. */
+    private static final int CHUNK = 1 << 16;
+
+    private static final Month[] MONTHS = Month.values();
+
+    private int parsed;
+    private int skipped;
+
+    /** Позиции, попълвани от {@link #parseSection}. */
+    private long sectionEpochDay;
+    private int sectionStart, sectionEnd, sectionStop;
+    /** Позицията след последния разчетен час. */
+    private int timeEnd;
+
+    /**
+     * Брой успешно разчетени редове.
+     * @return брой събития
+     */
+    public int getParsed() {
+        return parsed;
+    }
+
+    /**
+     * Брой пропуснати (невалидни) редове.
+     * @return брой редове
+     */
+    public int getSkipped() {
+        return skipped;
+    }
+
+    /**
+     * Разчита целия файл и подава събитията на получателя.
+     *
+     * @param path пътят до файла
+     * @param sink получателят
+     * @throws IOException при грешка при четене
+     */
+    public void parse(Path path, Sink sink) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ);
+             Reader reader = Channels.newReader(channel, StandardCharsets.UTF_8)) {
+            parse(reader, sink);
+        }
+    }
+
+    /**
+     * Разчита всички редове от даден поток.
+     *
+     * @param reader източникът
+     * @param sink получателят
+     * @throws IOException при грешка при четене
+     */
+    public void parse(Reader reader, Sink sink) throws IOException {
+        char[] buf = new char[CHUNK];
+        int len = 0;
+        int read;
+        while ((read = reader.read(buf, len, buf.length - len)) != -1) {
+            len += read;
+            int lineStart = 0;
+            for (int i = 0; i < len; i++) {
+                if (buf[i] == '\n') {
+                    parseLine(buf, lineStart, i, sink);
+                    lineStart = i + 1;
+                }
+            }
+            len -= lineStart;
+            System.arraycopy(buf, lineStart, buf, 0, len);
+            if (len == buf.length)
+                buf = Arrays.copyOf(buf, buf.length * 2); // ред, по-дълъг от буфера
+        }
+        if (len > 0)
+            parseLine(buf, 0, len, sink);
+    }
+
+    /**
+     * Разчита един ред.
+     *
+     * @param line редът
+     * @param sink получателят
+     * @return true ако редът е валиден
+     */
+    public boolean parseLine(String line, Sink sink) {
+        char[] buf = line.toCharArray();
+        return parseLine(buf, 0, buf.length, sink);
+    }
+
+    /**
+     * Разчита един ред от буфера в интервала {@code [from, to)}.
+     * Празните редове се игнорират, а невалидните се броят като пропуснати.
+     *
+     * @return true ако редът е валидно събитие
+     */
+    public boolean parseLine(char[] buf, int from, int to, Sink sink) {
+        if (to > from && buf[to - 1] == '\r')
+            to--;
+        if (to == from)
+            return false;
+        for (int dash = from; dash < to; dash++) {
+            if (buf[dash] == '-' && parseSection(buf, dash + 1, to)) {
+                sink.accept(new String(buf, from, dash - from), sectionEpochDay, sectionStart, sectionEnd,
+                        new String(buf, sectionStop + 1, to - sectionStop - 1));
+                parsed++;
+                return true;
+            }
+        }
+        skipped++;
+        return false;
+    }
+
+    /**
+     * Опитва да разчете секцията {@code ГГГГ МЕСЕЦ Д ЧЧ:ММ ЧЧ:ММ-}, започваща от {@code p}.
+     * При успех попълва полетата {@code section*}; {@code sectionStop} сочи тирето след секцията.
+     */
+    private boolean parseSection(char[] buf, int p, int to) {
+        int year = 0, digits = 0;
+        for (; p < to && isDigit(buf[p]); p++, digits++)
+            year = year * 10 + (buf[p] - '0');
+        if (digits == 0 || digits > 6 || p >= to || buf[p++] != ' ')
+            return false;
+
+        Month month = null;
+        for (Month m : MONTHS) {
+            String n = m.name();
+            if (p + n.length() < to && buf[p + n.length()] == ' ' && regionMatches(buf, p, n)) {
+                month = m;
+                p += n.length() + 1;
+                break;
+            }
+        }
+        if (month == null)
+            return false;
+
+        int day = 0;
+        digits = 0;
+        for (; p < to && isDigit(buf[p]); p++, digits++)
+            day = day * 10 + (buf[p] - '0');
+        if (digits == 0 || digits > 2 || p >= to || buf[p++] != ' ')
+            return false;
+        boolean leap = (year % 4 == 0 && year % 100 != 0) || year % 400 == 0;
+        if (day < 1 || day > month.length(leap))
+            return false;
+
+        int start = parseTime(buf, p, to);
+        if (start < 0)
+            return false;
+        p = timeEnd;
+        if (p >= to || buf[p++] != ' ')
+            return false;
+        int end = parseTime(buf, p, to);
+        if (end < 0)
+            return false;
+        p = timeEnd;
+        if (p >= to || buf[p] != '-')
+            return false;
+
+        sectionEpochDay = epochDay(year, month.getValue(), day);
+        sectionStart = start;
+        sectionEnd = end;
+        sectionStop = p;
+        return true;
+    }
+
+    /**
+     * Разчита час във формат {@code Ч:ММ} или {@code ЧЧ:ММ}.
+     * @return минутата от деня или -1 при невалиден час
+     */
+    private int parseTime(char[] buf, int p, int to) {
+        int hour = 0, digits = 0;
+        for (; p < to && isDigit(buf[p]); p++, digits++)
+            hour = hour * 10 + (buf[p] - '0');
+        if (digits == 0 || digits > 2 || p + 2 >= to || buf[p] != ':' || !isDigit(buf[p + 1]) || !isDigit(buf[p + 2]))
+            return -1;
+        int minute = (buf[p + 1] - '0') * 10 + (buf[p + 2] - '0');
+        if (hour > 23 || minute > 59)
+            return -1;
+        timeEnd = p + 3;
+        return hour * 60 + minute;
+    }
+
+    private static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+
+    private static boolean regionMatches(char[] buf, int p, String upper) {
+        for (int i = 0; i < upper.length(); i++) {
+            if (Character.toUpperCase(buf[p + i]) != upper.charAt(i))
+                return false;
+        }
+        return true;
+    }
+
+    /**
+     * Изчислява деня от епохата (1970-01-01) за валидна дата, без да създава {@code LocalDate}.
+     */
+    static long epochDay(long year, int month, int day) {
+        long y = month <= 2 ? year - 1 : year;
+        long era = Math.floorDiv(y, 400);
+        long yoe = y - era * 400;
+        long doy = (153L * (month + (month > 2 ? -3 : 9)) + 2) / 5 + day - 1;
+        long doe = yoe * 365 + yoe / 4 - yoe / 100 + doy;
+        return era * 146097 + doe - 719468;
+    }
+}
@@ -0,0 +1,152 @@
+package Models;
+
+import java.io.PrintStream;
+import java.time.LocalDate;
+import java.time.LocalTime;
+
+/**
+ * Извежда списъци от събития на конзолата на големи части.
+ * <p>
+ * Събитията се форматират в един и същ буфер, който се изпраща към {@link System#out} едва когато
+ * надхвърли {@link #CHUNK} знака или когато командата извика {@link #flush()}. Така извеждането на
+ * много събития струва няколко системни извиквания вместо по две на събитие.
+ * </p>
+ * <p>
+ * Обектът не е безопасен за няколко нишки: всяко извеждане създава свой чрез {@link Calendar#newPrinter()}.
+ * Буферът започва малък и расте до около {@link #CHUNK} знака само при дълги списъци.
+ * </p>
+ * <p>
+ * Поддържат се два формата:
+ * <ul>
+ *     <li>{@link Format#FULL} – досегашният многоредов изглед от {@link Event#ShowEvent()};</li>
+ *     <li>{@link Format#COMPACT} – по един ред на събитие с полета, разделени с табулация:
+ *     номер (ако командата номерира събитията), дата, начало, край, име и описание.
+ *     Табулациите и новите редове в името и описанието се заменят с интервал.</li>
+ * </ul>
+ * </p>
+ */
+public class EventPrinter {
+    /** Брой знаци, след които буферът се изпраща към изхода. */
+    public static final int CHUNK = 64 * 1024;
+
+    /**
+     * Формат на извежданите събития.
+     */
+    public enum Format {
+        FULL, COMPACT
+    }
+
+    private final StringBuilder buffer = new StringBuilder();
+    private final Format format;
+
+    /**
+     * Създава обект за едно извеждане.
+     * @param format форматът на събитията
+     */
+    public EventPrinter(Format format) {
+        this.format = format;
+    }
+
+    public Format getFormat() {
+        return format;
+    }
+
+    /**
+     * Добавя събитие без номер.
+     * @param e събитието
+     */
+    public void event(Event e) {
+        event(-1, "", e);
+    }
+
+    /**
+     * Добавя номерирано събитие.
+     *
+     * @param number номерът, който се извежда в компактния формат; отрицателен, ако няма номер
+     * @param label  текстът преди събитието в пълния формат (заедно с нов ред, ако е нужен)
+     * @param e      събитието
+     */
+    public void event(long number, String label, Event e) {
+        if (format == Format.COMPACT) {
+            if (number >= 0)
+                buffer.append(number).append('\t');
+            appendDate(buffer, e.getDate());
+            buffer.append('\t');
+            appendTime(buffer, e.getStartTime());
+            buffer.append('\t');
+            appendTime(buffer, e.getEndTime());
+            buffer.append('\t');
+            appendField(buffer, e.getName());
+            buffer.append('\t');
+            appendField(buffer, e.getDesc());
+            buffer.append('\n');
+        } else {
+            buffer.append(label);
+            e.appendTo(buffer);
+            buffer.append('\n');
+        }
+        if (buffer.length() >= CHUNK)
+            flush();
+    }
+
+    /**
+     * Добавя ред текст след вече добавените събития.
+     * @param line редът
+     */
+    public void println(String line) {
+        buffer.append(line).append('\n');
+        if (buffer.length() >= CHUNK)
+            flush();
+    }
+
+    /**
+     * Изпраща натрупания текст към изхода.
+     */
+    public void flush() {
+        if (buffer.length() == 0)
+            return;
+        PrintStream out = System.out;
+        out.append(buffer);
+        out.flush();
+        buffer.setLength(0);
+    }
+
+    /**
+     * Добавя дата във формата на {@link LocalDate#toString()} без междинен низ.
+     */
+    static void appendDate(StringBuilder sb, LocalDate date) {
+        int year = date.getYear();
+        if (year < 1000 || year > 9999) {
+            sb.append(date);
+            return;
+        }
+        sb.append(year).append('-');
+        twoDigits(sb, date.getMonthValue());
+        sb.append('-');
+        twoDigits(sb, date.getDayOfMonth());
+    }
+
+    /**
+     * Добавя час във формата на {@link LocalTime#toString()} без междинен низ.
+     */
+    static void appendTime(StringBuilder sb, LocalTime time) {
+        if (time.getSecond() != 0 || time.getNano() != 0) {
+            sb.append(time);
+            return;
+        }
+        twoDigits(sb, time.getHour());
+        sb.append(':');
+        twoDigits(sb, time.getMinute());
+    }
+
+    private static void twoDigits(StringBuilder sb, int value) {
+        sb.append((char) ('0' + value / 10)).append((char) ('0' + value % 10));
+    }
+
+    private static void appendField(StringBuilder sb, String text) {
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            sb.append(c == '\t' || c == '\n' || c == '\r' ? ' ' : c);
+        }
+    }
+}
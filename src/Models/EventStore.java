@@ -0,0 +1,270 @@
+package Models;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.*;
+
+/**
+ * Колонно хранилище за събития, предназначено за календари, които само се четат
+ * (например чужди календари при търсене на общо свободно време или календарите на потребителите,
+ * докато не бъдат променени).
+ * <p>
+ * Вместо по един обект {@link Event} на събитие, данните се пазят в успоредни масиви от
+ * примитиви: епохален ден, начална и крайна минута, и индекси към обща таблица с низове.
+ * Еднаквите имена и описания се пазят само веднъж. Обекти {@link Event} се създават
+ * едва когато събитие трябва да бъде показано.
+ * </p>
+ * <p>
+ * Календар, зареден от {@link CalendarRegistry}, пази събитията си в хранилище, докато не бъде променен
+ * (вж. {@link Calendar#setEvents(EventStore)}): справките за събития се изпълняват направо върху него,
+ * а при първата промяна календарът изгражда обектите {@link Event} и индексите си.
+ * Хранилище, подадено на календар, повече не се променя.
+ * Реалната памет на събитие в двата случая се измерва с {@code bench/Models/MemoryCheck}.
+ * </p>
+ */
+public class EventStore implements Iterable<Event> {
+    private int[] epochDays = new int[16];
+    private short[] startMinutes = new short[16];
+    private short[] endMinutes = new short[16];
+    private int[] nameIds = new int[16];
+    private int[] descIds = new int[16];
+    private int size;
+    /** Дали записите са подредени по ден, начален и краен час. */
+    private boolean sorted = true;
+
+    /** Таблица с низове: индекс -> низ. */
+    private final List<String> strings = new ArrayList<>();
+    /** Обратна таблица: низ -> индекс. */
+    private final Map<String, Integer> stringIds = new HashMap<>();
+
+    /**
+     * Добавя събитие, зададено чрез примитивни стойности.
+     *
+     * @param name        име на събитието
+     * @param epochDay    ден от епохата
+     * @param startMinute начална минута от деня
+     * @param endMinute   крайна минута от деня
+     * @param desc        описание
+     */
+    public void add(String name, long epochDay, int startMinute, int endMinute, String desc) {
+        if (size == epochDays.length)
+            grow();
+        if (sorted && size > 0 && compare(size - 1, (int) epochDay, startMinute, endMinute) > 0)
+            sorted = false;
+        epochDays[size] = (int) epochDay;
+        startMinutes[size] = (short) startMinute;
+        endMinutes[size] = (short) endMinute;
+        nameIds[size] = intern(name);
+        descIds[size] = intern(desc);
+        size++;
+    }
+
+    /**
+     * Добавя копие на съществуващо събитие.
+     * @param e събитието
+     */
+    public void add(Event e) {
+        add(e.getName(), e.getDate().toEpochDay(),
+                e.getStartTime().getHour() * 60 + e.getStartTime().getMinute(),
+                e.getEndTime().getHour() * 60 + e.getEndTime().getMinute(), e.getDesc());
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public long epochDay(int i) {
+        return epochDays[i];
+    }
+
+    public int startMinute(int i) {
+        return startMinutes[i];
+    }
+
+    public int endMinute(int i) {
+        return endMinutes[i];
+    }
+
+    public String name(int i) {
+        return strings.get(nameIds[i]);
+    }
+
+    public String desc(int i) {
+        return strings.get(descIds[i]);
+    }
+
+    int nameId(int i) {
+        return nameIds[i];
+    }
+
+    int descId(int i) {
+        return descIds[i];
+    }
+
+    int stringCount() {
+        return strings.size();
+    }
+
+    String string(int id) {
+        return strings.get(id);
+    }
+
+    /**
+     * Създава обект {@link Event} за записа с даден индекс.
+     * @param i индекс на записа
+     * @return ново събитие
+     */
+    public Event get(int i) {
+        return new Event(name(i), LocalDate.ofEpochDay(epochDays[i]),
+                LocalTime.of(startMinutes[i] / 60, startMinutes[i] % 60),
+                LocalTime.of(endMinutes[i] / 60, endMinutes[i] % 60), desc(i));
+    }
+
+    /**
+     * Създава обекти {@link Event} за записите в даден интервал от индекси.
+     * @param from първият индекс
+     * @param to индексът след последния
+     * @return нов списък със събитията
+     */
+    public List<Event> events(int from, int to) {
+        List<Event> events = new ArrayList<>(Math.max(0, to - from));
+        for (int i = from; i < to; i++)
+            events.add(get(i));
+        return events;
+    }
+
+    /**
+     * Изгражда картата на заетостта за дадена дата.
+     * При подредени записи се обхождат само записите за деня.
+     * @param date датата
+     * @return нова карта на заетостта
+     */
+    public OccupancyBitmap occupancyOn(LocalDate date) {
+        OccupancyBitmap bitmap = new OccupancyBitmap();
+        int day = (int) date.toEpochDay();
+        int from = 0, to = size;
+        if (sorted) {
+            from = lowerBound(day);
+            to = lowerBound(day + 1);
+        }
+        for (int i = from; i < to; i++) {
+            if (epochDays[i] == day)
+                bitmap.set(startMinutes[i], Math.min(OccupancyBitmap.MINUTES, Math.max(endMinutes[i], startMinutes[i] + 1)));
+        }
+        return bitmap;
+    }
+
+    /**
+     * Подрежда записите по ден, начален и краен час, както са подредени събитията в {@link Calendar}.
+     */
+    public void sort() {
+        if (sorted)
+            return;
+        Integer[] order = new Integer[size];
+        for (int i = 0; i < size; i++)
+            order[i] = i;
+        Arrays.sort(order, (a, b) -> compare(a, epochDays[b], startMinutes[b], endMinutes[b]));
+        int[] days = new int[epochDays.length];
+        short[] starts = new short[epochDays.length];
+        short[] ends = new short[epochDays.length];
+        int[] names = new int[epochDays.length];
+        int[] descs = new int[epochDays.length];
+        for (int i = 0; i < size; i++) {
+            int j = order[i];
+            days[i] = epochDays[j];
+            starts[i] = startMinutes[j];
+            ends[i] = endMinutes[j];
+            names[i] = nameIds[j];
+            descs[i] = descIds[j];
+        }
+        epochDays = days;
+        startMinutes = starts;
+        endMinutes = ends;
+        nameIds = names;
+        descIds = descs;
+        sorted = true;
+    }
+
+    /**
+     * Приблизителен размер на хранилището в паметта, в байтове.
+     * @return оценка на заетата памет
+     */
+    public long estimatedBytes() {
+        long bytes = (long) epochDays.length * (4 + 2 + 2 + 4 + 4);
+        for (String s : strings)
+            bytes += 40 + 2L * s.length() + 48; // низ + запис в обратната таблица
+        return bytes;
+    }
+
+    /**
+     * Обхожда записите, като създава събитие едва при достъп до него.
+     */
+    @Override
+    public Iterator<Event> iterator() {
+        return new Iterator<>() {
+            private int next;
+
+            @Override
+            public boolean hasNext() {
+                return next < size;
+            }
+
+            @Override
+            public Event next() {
+                if (next >= size)
+                    throw new NoSuchElementException();
+                return get(next++);
+            }
+        };
+    }
+
+    /**
+     * Сравнява записа с даден индекс с ден и часове.
+     */
+    private int compare(int i, int epochDay, int startMinute, int endMinute) {
+        int c = Integer.compare(epochDays[i], epochDay);
+        if (c == 0)
+            c = Integer.compare(startMinutes[i], startMinute);
+        return c != 0 ? c : Integer.compare(endMinutes[i], endMinute);
+    }
+
+    /**
+     * Индексът на първия запис в даден ден или след него. Записите трябва да са подредени.
+     * @param day денят от епохата
+     * @return индексът ({@link #size()}, ако няма такъв запис)
+     */
+    int lowerBound(long day) {
+        int lo = 0, hi = size;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (epochDays[mid] < day)
+                lo = mid + 1;
+            else
+                hi = mid;
+        }
+        return lo;
+    }
+
+    private int intern(String s) {
+        Integer id = stringIds.get(s);
+        if (id == null) {
+            id = strings.size();
+            strings.add(s);
+            stringIds.put(s, id);
+        }
+        return id;
+    }
+
+    private void grow() {
+        int capacity = epochDays.length * 2;
+        epochDays = Arrays.copyOf(epochDays, capacity);
+        startMinutes = Arrays.copyOf(startMinutes, capacity);
+        endMinutes = Arrays.copyOf(endMinutes, capacity);
+        nameIds = Arrays.copyOf(nameIds, capacity);
+        descIds = Arrays.copyOf(descIds, capacity);
+    }
+}
@@ -1,6 +1,12 @@
 package Models;
 
+import Codecs.CsvEncoder;
+import Codecs.ICalendarEncoder;
+import Codecs.JsonLinesEncoder;
+import Interfaces.EventEncoder;
+
 import java.time.LocalDate;
+import java.time.YearMonth;
 import java.time.LocalTime;
 import java.time.Month;
 import java.util.*;
@@ -8,172 +14,548 @@ import java.io.File;
 import java.io.FileWriter;
 import java.io.FileNotFoundException;
 import java.io.IOException;
+import java.io.BufferedWriter;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
 
 /**
  * Отговаря за четене, запис и сливане на събития от и към файлове.
- * Използва вътрешен екземпляр от {@link Calendar} за управление на събитията.
+ * Всеки контролер работи с един {@link Calendar}.
  */
 public class FileController {
     /**
-     * Инстанция на класа {@link Calendar}, използвана за управление на събитията.
-     * Инициализира се чрез фабричния метод {@code Models.Calendar.getInstance()}.
+     * Календарът, чиито събития се четат и записват.
      */
-    private Calendar calendar = Calendar.getInstance();
+    private final Calendar calendar;
     private Holidays holidays = Holidays.getInstance();
 
     private String lastSaved;
+    /**
+     * Дължините в байтове на секциите по месеци от последния текстов запис в основния файл.
+     * Секциите са във файла в реда на месеците, затова отместването на всяка е сборът от предишните.
+     */
+    private final SortedMap<YearMonth, Integer> savedSections = new TreeMap<>();
+    /** Файлът, размерът и времето на последния запис в основния файл. */
+    private String savedFile;
+    private long savedSize = -1;
+    private long savedModified;
+    /** Журнал на промените; {@code null}, докато не бъде включен. */
+    private Journal journal;
+    /** Дали файловете се зареждат в колонно хранилище (вж. {@link Calendar#setEvents(EventStore)}). */
+    private boolean compact;
     private final String holidayFile = "Holidays.txt";
+    /** Форматите за износ: разширение -> кодер. */
+    private final Map<String, EventEncoder> encoders = new HashMap<>();
 
     /**
      * Конструктор по подразбиране на класа {@code Models.FileController}.
-     * Не извършва специфична инициализация, освен създаване на обекта.
+     * Работи с календара по подразбиране ({@code Models.Calendar.getInstance()}).
      */
     public FileController() {
+        this(Calendar.getInstance());
+    }
+
+    /**
+     * Създава контролер за даден календар.
+     * Регистрира вградените формати за износ (CSV, iCalendar и JSON Lines).
+     * @param calendar календарът
+     */
+    public FileController(Calendar calendar) {
+        this.calendar = calendar;
+        registerEncoder(new CsvEncoder());
+        registerEncoder(new ICalendarEncoder());
+        registerEncoder(new JsonLinesEncoder());
+    }
+
+    public Calendar getCalendar() {
+        return calendar;
+    }
+
+    /**
+     * Добавя формат за износ. Съществуващ формат със същото разширение се заменя.
+     * @param encoder кодерът
+     */
+    public void registerEncoder(EventEncoder encoder) {
+        encoders.put(encoder.extension().toLowerCase(), encoder);
+    }
+
+    /**
+     * Намира формата за износ според разширението на файла.
+     * @param name името на файла
+     * @return кодерът или {@code null}, ако няма формат за това разширение
+     */
+    public EventEncoder encoderFor(String name) {
+        int dot = name.lastIndexOf('.');
+        return dot < 0 ? null : encoders.get(name.substring(dot).toLowerCase());
     }
 
     public String getLastSaved() {
         return lastSaved;
     }
 
+    /**
+     * Връща пълното име на файла за дадено име на календар:
+     * двоичните файлове се подават с разширението си, а текстовите без него.
+     *
+     * @param name името, въведено от потребителя
+     * @return името на файла на диска
+     */
+    public static String fileName(String name) {
+        return BinarySnapshot.isBinary(name) ? name : name + ".txt";
+    }
+
+    /**
+     * Връща низ, който определя съдържанието на файла на календара: пълен път, размер и време на промяна.
+     * Ако файлът бъде променен, низът също се променя.
+     *
+     * @param name името на календара (както при {@link #readFile(String)})
+     * @return самоличността на файла или {@code null}, ако файлът не съществува
+     */
+    public static String fileIdentity(String name) {
+        Path path = Path.of(fileName(name)).toAbsolutePath();
+        try {
+            return path + "|" + Files.size(path) + "|" + Files.getLastModifiedTime(path).toMillis();
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
     /**
      * Чете събития от файл, избран от потребителя, и ги записва в календара.
      */
     public void readFile(String name) {
-        calendar.setEvents(readFileToArray(name));
+        if (compact) {
+            EventStore store = readFileToStore(name);
+            if (store != null)
+                replaceEvents(name, () -> calendar.setEvents(store));
+        } else {
+            List<Event> events = readFileToArray(name);
+            if (events != null)
+                replaceEvents(name, () -> calendar.setEvents(events));
+        }
     }
 
     /**
-     * Чете събития от текстов файл и ги преобразува в списък от {@link Event} обекти.
+     * Заменя събитията в календара и започва журнала отначало от прочетения файл.
+     */
+    private void replaceEvents(String name, Runnable replace) {
+        calendar.pauseChanges();
+        try {
+            replace.run();
+            if (journal != null)
+                journal.start(name);
+        } finally {
+            calendar.resumeChanges();
+        }
+    }
+
+    /**
+     * Свързва контролера с основния файл на календар: ако файлът съществува, събитията се зареждат от него,
+     * а следващите записи без име отиват в същия файл.
      *
-     * <p>Файлът трябва да има формат: име-на-събитие - дата-във-формат (година месец ден часНачало часКрай) - описание.</p>
+     * @param name името на календара (с разширение {@code .calb} за двоичен формат)
+     * @return {@code false}, ако файлът още не съществува и календарът започва празен
+     */
+    public boolean open(String name) {
+        return open(name, false);
+    }
+
+    /**
+     * Свързва контролера с основния файл на календар като {@link #open(String)}.
+     * Ако {@code compact} е {@code true}, този и следващите прочетени файлове се пазят в колонно хранилище,
+     * докато календарът не бъде променен.
      *
-     * @return Списък със събития или {@code null}, ако файлът не е намерен
+     * @param name    името на календара (с разширение {@code .calb} за двоичен формат)
+     * @param compact дали събитията да се заредят без обекти {@link Event} и индекси
+     * @return {@code false}, ако файлът още не съществува и календарът започва празен
      */
-    public List<Event> readFileToArray(String name) {
+    public boolean open(String name, boolean compact) {
+        this.compact = compact;
+        lastSaved = name;
+        boolean exists = fileIdentity(name) != null;
+        if (exists)
+            readFile(name);
+        // файлът се създава едва при първата промяна
+        calendar.markSaved();
+        return exists;
+    }
+
+    /**
+     * Записва календара в основния му файл, ако е бил променен, без въпроси към потребителя.
+     *
+     * @return {@code true}, ако файлът е записан
+     * @throws IOException при грешка при запис
+     */
+    public synchronized boolean writeBack() throws IOException {
+        if (lastSaved == null || !calendar.isModified())
+            return false;
+        return save(lastSaved);
+    }
+
+    /**
+     * Включва журнала на промените за календара във файла по подразбиране ({@value Journal#DEFAULT_FILE}).
+     * Ако от предишна сесия е останал незавършен журнал, промените в него се възстановяват.
+     */
+    public void openJournal() {
+        openJournal(Path.of(Journal.DEFAULT_FILE));
+    }
+
+    /**
+     * Включва журнала на промените за календара в даден файл.
+     * Ако от предишна сесия е останал незавършен журнал, промените в него се възстановяват.
+     * @param path файлът на журнала
+     */
+    public void openJournal(Path path) {
+        Journal recovered = new Journal(path, calendar);
         try {
-            File myObj = new File(name + ".txt");
-            Scanner myReader = new Scanner(myObj);
-            List<Event> events = new ArrayList<>();
-            LocalTime base = LocalTime.of(0, 0);
-            while (myReader.hasNextLine()) {
-                Event e = new Event("", LocalDate.of(calendar.currentYear.getYear(),1, 1), base, base, "");
+            String base = recovered.recover(this);
+            if (base != null && !base.isEmpty())
+                lastSaved = base;
+        } catch (IOException e) {
+            System.out.println("Could not recover the journal: " + e.getMessage());
+        }
+        journal = recovered;
+        calendar.addListener(journal);
+    }
 
-                String line = myReader.nextLine();
-                String[] data = line.split("-");
-                e.setName(data[0]);
-                e.setDesc(data[2]);
-                data = data[1].split(" ");
-                int year = Integer.parseInt(data[0]); //year
-                Month month = Month.valueOf(data[1]); // month
-                int day = Integer.parseInt(data[2]); //day
+    /**
+     * Дали журналът на контролера е натрупал достатъчно записи, за да бъде свит.
+     * @return {@code false}, ако журналът не е включен или няма основен файл
+     */
+    public boolean isCompactionDue() {
+        Journal current = journal;
+        return current != null && lastSaved != null && current.isCompactionDue();
+    }
+
+    /**
+     * Свива журнала, ако е натрупал достатъчно записи: записва календара в основния файл
+     * и започва журнала отначало. Извиква се след края на команда, която променя календара,
+     * а не от уведомленията на журнала, докато промяната още не е завършила.
+     */
+    public synchronized void compactJournal() {
+        String name = lastSaved;
+        if (!isCompactionDue())
+            return;
+        try {
+            save(name);
+        } catch (IOException e) {
+            System.out.println("Could not compact the journal into " + fileName(name) + ": " + e.getMessage());
+        }
+    }
 
-                e.setDate(LocalDate.of(year, month, day));
+    /**
+     * Затваря журнала и изтрива файла му. Извиква се при нормален изход от програмата,
+     * когато календарът вече е записан или потребителят се е отказал от промените.
+     */
+    public void closeJournal() {
+        if (journal == null)
+            return;
+        calendar.removeListener(journal);
+        journal.discard();
+        journal = null;
+    }
 
-                e.setStartTime(LocalTime.parse(data[3]));
-                e.setEndTime(LocalTime.parse(data[4]));
+    /**
+     * Чете събития от файл и ги преобразува в списък от {@link Event} обекти.
+     * Имената, завършващи на {@code .calb}, се четат като двоични файлове.
+     *
+     * <p>Текстовият файл трябва да има формат: име-на-събитие - дата-във-формат (година месец ден часНачало часКрай) - описание.</p>
+     *
+     * @return Списък със събития или {@code null}, ако файлът не е намерен
+     */
+    public List<Event> readFileToArray(String name) {
+        List<Event> events = new ArrayList<>();
+        boolean found = readLines(name, (eventName, epochDay, start, end, desc) ->
+                events.add(new Event(eventName, LocalDate.ofEpochDay(epochDay),
+                        LocalTime.of(start / 60, start % 60), LocalTime.of(end / 60, end % 60), desc)));
+        return found ? events : null;
+    }
 
-                events.add(e);
-            }
-            myReader.close();
-            if (events.isEmpty()) {
-                System.out.println("File was empty, calendar has not been changed!");
+    /**
+     * Чете събития от текстов файл директно в колонно хранилище, без да създава
+     * обекти {@link Event}. Подходящо за календари, които само се четат.
+     *
+     * @return Хранилище със събитията или {@code null}, ако файлът не е намерен
+     */
+    public EventStore readFileToStore(String name) {
+        EventStore store = new EventStore();
+        boolean found = readLines(name, store::add);
+        return found ? store : null;
+    }
+
+    /**
+     * Разчита файл (текстов или двоичен според разширението) и подава всяко събитие на получателя.
+     *
+     * @return {@code false}, ако файлът не е намерен
+     */
+    private boolean readLines(String name, EventFileParser.Sink sink) {
+        EventFileParser parser = new EventFileParser();
+        int count;
+        try {
+            if (BinarySnapshot.isBinary(name))
+                count = BinarySnapshot.read(Path.of(name), sink);
+            else {
+                parser.parse(Path.of(fileName(name)), sink);
+                count = parser.getParsed();
             }
-            System.out.println("Successfully read from the file.");
-            return events;
-        } catch (FileNotFoundException e) {
+        } catch (NoSuchFileException e) {
             System.out.println("File doesn't exist!");
+            return false;
+        } catch (IOException e) {
+            System.out.println("Error when reading the file: " + e.getMessage());
+            return false;
         }
-        return null;
+        if (parser.getSkipped() > 0)
+            System.out.println("Skipped " + parser.getSkipped() + " malformed line/s.");
+        if (count == 0) {
+            System.out.println("File was empty, calendar has not been changed!");
+        }
+        System.out.println("Successfully read from the file.");
+        return true;
     }
 
     /**
-     * Записва текущите събития в календара в текстов файл (.txt).
+     * Записва текущите събития в календара в текстов файл (.txt),
+     * или в двоичен файл, ако името завършва на {@code .calb}.
      * Ако календарът е празен, потребителят трябва да потвърди действието.
      *
      * <p>Формат на записа: всяко събитие е на нов ред с полетата, разделени с „-“.</p>
      */
     public void writeToTxt(String name) {
-        if (calendar.getEvents().isEmpty() || calendar.getEvents() == null) {
-
-            Scanner scanner = new Scanner(System.in);
-            System.out.println("You are about to write an empty calendar to a file, are you sure you want to continue?" +
-                    "\n Write 'CONTINUE' to go on. Write anything else to go back.");
-            String answer = scanner.nextLine();
-            if (!answer.equalsIgnoreCase("continue"))
-                return;
+        if (calendar.size() == 0
+                && !UserInput.confirm("You are about to write an empty calendar to a file, are you sure you want to continue?" +
+                "\n Write 'CONTINUE' to go on. Write anything else to go back.", "continue"))
+            return;
+        try {
+            if (save(name))
+                System.out.println("Successfully wrote to the file.");
             else
-            {
-                try{
-                    File emptyFile = new File(name + ".txt");
-                    FileWriter empty = new FileWriter(emptyFile);
-                    System.out.println("File created successfully");
-                    this.lastSaved = name;
-                }catch(IOException e)
-                {
-                    System.out.println("Error when writting to file: \" + e.getMessage()");
-                    System.out.println(e.getMessage());
-                }
-                return;
-            }
+                System.out.println("No changes since the last save, the file is already up to date.");
+        } catch (IOException e) {
+            System.out.println("Error when writting to file: " + e.getMessage());
         }
+    }
+
+    /**
+     * Записва календара в основния му файл, без въпроси към потребителя,
+     * и започва нов журнал спрямо този файл.
+     * <p>
+     * Ако файлът е същият като при последния запис и календарът не е променян, записът се пропуска.
+     * Текстовият файл е подреден по месеци, затова при запис в същия файл се пренаписва
+     * само частта от първия променен месец нататък, а непроменените месеци след него се четат от файла.
+     * </p>
+     *
+     * @param name името на календара (с разширение {@code .calb} за двоичен формат)
+     * @return {@code false}, ако записът е пропуснат, защото няма промени
+     * @throws IOException при грешка при запис
+     */
+    private boolean save(String name) throws IOException {
+        // промените се спират, за да съвпадне записаното състояние с началото на новия журнал
+        calendar.pauseChanges();
         try {
-            File wFile = new File(name + ".txt");
-            FileWriter myWriter = new FileWriter(wFile);
+            String file = fileName(name);
+            Path path = Path.of(file);
+            boolean sameFile = isUnchangedSinceSave(file, path);
+            if (sameFile && !calendar.isModified())
+                return false;
+            Files.createDirectories(path.toAbsolutePath().getParent());
+
+            if (BinarySnapshot.isBinary(name)) {
+                writeBinary(file);
+                savedSections.clear();
+            } else
+                writeSections(path, sameFile);
+            calendar.markSaved();
+            savedFile = file;
+            savedSize = Files.size(path);
+            savedModified = Files.getLastModifiedTime(path).toMillis();
+
             this.lastSaved = name;
+            if (journal != null)
+                journal.start(name);
+            return true;
+        } finally {
+            calendar.resumeChanges();
+        }
+    }
 
-            //each event will be written on 1 row, every next element is spaced out, there's a - after the name and before the descriprion
-            for (Event e : calendar.getEvents()) {
-                myWriter.write(e.getName() + "-");
-                myWriter.write(e.getYear() + " ");
-                myWriter.write(e.getMonth() + " ");
-                myWriter.write(e.getDay() + " ");
-                myWriter.write(e.getStartTime() + " ");
-                myWriter.write(e.getEndTime() + "-");
-                myWriter.write(e.getDesc());
-                myWriter.write("\n");
+    /**
+     * Проверява дали файлът на диска е точно този, който е записан последно от програмата.
+     */
+    private boolean isUnchangedSinceSave(String file, Path path) throws IOException {
+        return file.equals(savedFile) && Files.exists(path) && Files.size(path) == savedSize
+                && Files.getLastModifiedTime(path).toMillis() == savedModified;
+    }
+
+    /**
+     * Записва календара в текстов файл по месеци. Ако {@code inPlace} е true, файлът не се пренаписва
+     * преди първия променен месец, а непроменените месеци след него се прочитат от файла, преди да бъдат
+     * преместени, вместо да се кодират наново. В паметта остават само дължините на секциите.
+     *
+     * @param path    пътят до файла
+     * @param inPlace дали файлът на диска съвпада с последния запис
+     * @throws IOException при грешка при запис
+     */
+    private void writeSections(Path path, boolean inPlace) throws IOException {
+        boolean reuse = inPlace && !calendar.isFullyModified();
+        if (!reuse)
+            savedSections.clear();
+        Set<YearMonth> dirty = calendar.getModifiedMonths();
+        SortedSet<YearMonth> months = calendar.months();
+
+        long offset = 0;
+        YearMonth from = null;
+        SortedSet<YearMonth> toWrite = months;
+        if (reuse) {
+            toWrite = Collections.emptySortedSet(); // ако няма променен месец, остава само да се отреже краят
+            SortedSet<YearMonth> layout = new TreeSet<>(savedSections.keySet());
+            layout.addAll(months);
+            for (YearMonth month : layout) {
+                Integer length = savedSections.get(month);
+                if (dirty.contains(month) || length == null) {
+                    from = month;
+                    toWrite = months.tailSet(month);
+                    break;
+                }
+                offset += length;
             }
+        }
 
-            myWriter.close();
-            System.out.println("Successfully wrote to the file.");
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE)) {
+            Map<YearMonth, byte[]> kept = new HashMap<>();
+            if (from != null) {
+                long position = offset;
+                for (Map.Entry<YearMonth, Integer> section : savedSections.tailMap(from).entrySet()) {
+                    if (toWrite.contains(section.getKey()) && !dirty.contains(section.getKey()))
+                        kept.put(section.getKey(), readSection(channel, position, section.getValue()));
+                    position += section.getValue();
+                }
+            }
+            channel.position(offset);
+            for (YearMonth month : toWrite) {
+                byte[] bytes = kept.get(month);
+                if (bytes == null)
+                    bytes = encodeMonth(month);
+                savedSections.put(month, bytes.length);
+                ByteBuffer buffer = ByteBuffer.wrap(bytes);
+                while (buffer.hasRemaining())
+                    channel.write(buffer);
+            }
+            channel.truncate(channel.position());
+        }
+        savedSections.keySet().retainAll(months);
+    }
 
-        } catch (IOException e) {
-            System.out.println("Error when writting to file: \" + e.getMessage()");
-            System.out.println(e.getMessage());
+    /**
+     * Прочита секция от предишния запис на файла.
+     */
+    private static byte[] readSection(FileChannel channel, long position, int length) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(length);
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0)
+                throw new IOException("The file is shorter than at the last save");
         }
+        return buffer.array();
+    }
+
+    /**
+     * Кодира събитията от даден месец в текстовия формат.
+     */
+    private byte[] encodeMonth(YearMonth month) {
+        StringBuilder sb = new StringBuilder();
+        for (Event e : calendar.eventsIn(month))
+            sb.append(formatLine(e)).append('\n');
+        return sb.toString().getBytes(StandardCharsets.UTF_8);
     }
 
     /**
      * Записва събитията от календара във файл с разширение, зададено от потребителя (напр. .txt, .dat).
-     * Потребителят е предупреден, че неправилно разширение може да направи файла несъвместим.
+     * Ако за разширението има регистриран формат за износ ({@code .csv}, {@code .ics}, {@code .jsonl}),
+     * файлът се записва в него; {@code .calb} е двоичният формат, а всички останали получават текстовия формат.
      *
      * <p>Ако потребителят въведе „0“, се връща към главното меню.</p>
      */
     public void writeToFile(String name) {
         try {
-            File wFile = new File(name);
-            FileWriter myWriter = new FileWriter(wFile);
+            EventEncoder encoder = encoderFor(name);
+            if (encoder != null)
+                export(name, encoder);
+            else if (BinarySnapshot.isBinary(name))
+                writeBinary(name);
+            else
+                writeText(name);
+            System.out.println("Successfully wrote to the file.");
+        } catch (IOException e) {
+            System.out.println("An error occurred.");
+            System.out.println(e.getMessage());
+        }
+    }
 
+    /**
+     * Форматира събитие като един ред от текстовия формат:
+     * {@code име-ГГГГ МЕСЕЦ Д ЧЧ:ММ ЧЧ:ММ-описание}.
+     *
+     * @param e събитието
+     * @return редът без знак за нов ред
+     */
+    public static String formatLine(Event e) {
+        return e.getName() + "-" + e.getYear() + " " + e.getMonth() + " " + e.getDay() + " "
+                + e.getStartTime() + " " + e.getEndTime() + "-" + e.getDesc();
+    }
+
+    /**
+     * Записва текущите събития в текстов файл с точно зададеното име.
+     *
+     * @param fileName името на файла
+     * @throws IOException при грешка при запис
+     */
+    private void writeText(String fileName) throws IOException {
+        try (BufferedWriter myWriter = Files.newBufferedWriter(Path.of(fileName), StandardCharsets.UTF_8)) {
             //each event will be written on 1 row, every next element is spaced out, there's a - after the name and before the descriprion
             for (Event e : calendar.getEvents()) {
-                myWriter.write(e.getName() + "-");
-                myWriter.write(e.getYear() + " ");
-                myWriter.write(e.getMonth() + " ");
-                myWriter.write(e.getDay() + " ");
-                myWriter.write(e.getStartTime() + " ");
-                myWriter.write(e.getEndTime() + "-");
-                myWriter.write(e.getDesc());
-                myWriter.write("\n");
+                myWriter.write(formatLine(e));
+                myWriter.write('\n');
             }
+        }
+    }
 
-            myWriter.close();
-            System.out.println("Successfully wrote to the file.");
-
-        } catch (IOException e) {
-            System.out.println("An error occurred.");
-            System.out.println(e.getMessage());
+    /**
+     * Износ на календара чрез даден кодер. Събитията се четат едно по едно от индекса
+     * на календара и се записват през един буфериран канал към файла.
+     *
+     * @param fileName името на файла
+     * @param encoder  форматът
+     * @throws IOException при грешка при запис
+     */
+    private void export(String fileName, EventEncoder encoder) throws IOException {
+        try (FileChannel channel = FileChannel.open(Path.of(fileName), StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+             Writer out = new BufferedWriter(Channels.newWriter(channel, StandardCharsets.UTF_8), 1 << 16)) {
+            encoder.encode(calendar.eventIterator(), out);
         }
     }
 
+    /**
+     * Записва текущите събития в календара в двоичен файл ({@code .calb}).
+     *
+     * @param fileName името на файла с разширението
+     * @throws IOException при грешка при запис
+     */
+    private void writeBinary(String fileName) throws IOException {
+        EventStore store = new EventStore();
+        for (Event e : calendar.getEvents())
+            store.add(e);
+        BinarySnapshot.write(Path.of(fileName), store);
+    }
+
     /**
      * Слива събития от файл с текущите събития в календара.
      * При наличие на конфликти (припокривания), потребителят избира как да постъпи:
@@ -183,7 +565,8 @@ public class FileController {
      *     <li>Да промени старото или новото събитие</li>
      * </ul>
      *
-     * <p>Новите събития се визуализират едно по едно заедно с всички съществуващи припокриващи се.</p>
+     * <p>Новите събития се визуализират едно по едно заедно с всички съществуващи припокриващи се.
+     * При пакетно изпълнение без въпроси се запазва новото (правило {@code YES}) или старото събитие (правило {@code NO}).</p>
      */
     public void mergeData(String name) {
 
@@ -193,7 +576,7 @@ public class FileController {
             System.out.println("Next event: \n");
             System.out.println(e.ShowEvent());
             System.out.println("Trying to add next event... \n");
-            List<Event> overlaps = calendar.findOverlap(e, calendar.getEvents());
+            List<Event> overlaps = calendar.findOverlap(e);
             if (!overlaps.isEmpty()) {
                 boolean repeat = false;
                 System.out.println("Old event/s:\n");
@@ -205,20 +588,17 @@ public class FileController {
 
                 do {
                     System.out.println("Found overlapping event/s!\n");
-                    System.out.println("Please select the next action:\n");
-                    System.out.println("0: Keep the old event\n");
-                    System.out.println("1: Keep the new event\n");
-                    System.out.println("2: Change the old event\n");
-                    System.out.println("3: Change the new event\n");
-                    System.out.println("-1: Return to menu\n");
-
-                    Scanner scanner = new Scanner(System.in);
-                    while (!scanner.hasNextInt()) {
-                        System.out.println("Error, invalid number entered!");
-                        scanner.nextLine();
+                    if (UserInput.isInteractive()) {
+                        System.out.println("Please select the next action:\n");
+                        System.out.println("0: Keep the old event\n");
+                        System.out.println("1: Keep the new event\n");
+                        System.out.println("2: Change the old event\n");
+                        System.out.println("3: Change the new event\n");
+                        System.out.println("-1: Return to menu\n");
                     }
 
-                    int action = scanner.nextInt();
+                    // без въпроси: "да" запазва новото събитие, "не" – старото
+                    int action = UserInput.choose(1, 0);
 
                     switch (action) {
                         case 0: //Move to next event
@@ -237,7 +617,7 @@ public class FileController {
                                 System.out.println("Valid choices: 'date', 'start', 'end'");
                                 String choice;
                                 do{
-                                    choice = scanner.nextLine();
+                                    choice = UserInput.nextLine();
                                 }while (!choice.equalsIgnoreCase("date") && !choice.equalsIgnoreCase("start") && !choice.equalsIgnoreCase("end"));
 
                                 calendar.change(ev, choice);
@@ -253,10 +633,10 @@ public class FileController {
                             System.out.println("Valid choices: 'date', 'time'");
                             String choice;
                             do{
-                                choice = scanner.nextLine();
+                                choice = UserInput.nextLine();
                             }while (!choice.equalsIgnoreCase("date") && !choice.equalsIgnoreCase("time"));
 
-                            e.change(choice);
+                            e.change(choice, calendar.currentYear.getYear());
                             repeat = !calendar.book(e);
                             if (repeat)
                                 System.out.println("You did not choose a free time for the new event!");
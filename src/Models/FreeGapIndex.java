@@ -0,0 +1,118 @@
+package Models;
+
+import java.util.*;
+
+/**
+ * Подредени списъци със свободните интервали в работното време за всеки ден, в който има събития.
+ * <p>
+ * Списъците се поддържат локално при всяка промяна: добавено събитие разделя или скъсява
+ * интервалите, които пресича, а премахнато събитие освобождава своята част от деня и тя се слива
+ * със съседните свободни интервали. Ден без събития е изцяло свободен в работното време.
+ * </p>
+ */
+class FreeGapIndex {
+    /** Епохален ден -> свободните интервали, подредени по начало. */
+    private final Map<Long, List<Gap>> gaps = new HashMap<>();
+    private WorkingHours work;
+
+    FreeGapIndex(WorkingHours work) {
+        this.work = work;
+    }
+
+    /**
+     * Свободните интервали за даден ден.
+     * @param epochDay денят
+     * @return списък само за четене
+     */
+    List<Gap> on(long epochDay) {
+        List<Gap> day = gaps.get(epochDay);
+        if (day == null)
+            return List.of(new Gap(work.startMinute(), work.endMinute()));
+        return Collections.unmodifiableList(day);
+    }
+
+    /**
+     * Отбелязва интервала {@code [from, to)} от деня като зает.
+     */
+    void booked(long epochDay, int from, int to) {
+        from = Math.max(from, work.startMinute());
+        to = Math.min(to, work.endMinute());
+        List<Gap> day = gaps.computeIfAbsent(epochDay,
+                k -> new ArrayList<>(List.of(new Gap(work.startMinute(), work.endMinute()))));
+        if (from >= to)
+            return;
+        int i = firstEndingAfter(day, from);
+        while (i < day.size() && day.get(i).startMinute() < to) {
+            Gap gap = day.remove(i);
+            if (gap.startMinute() < from)
+                day.add(i++, new Gap(gap.startMinute(), from));
+            if (gap.endMinute() > to)
+                day.add(i++, new Gap(to, gap.endMinute()));
+        }
+    }
+
+    /**
+     * Освобождава частите от {@code [from, to)}, които вече не са заети от друго събитие в деня.
+     *
+     * @param epochDay денят
+     * @param busy     заетостта на деня след премахването; {@code null}, ако в деня вече няма събития
+     * @param from     началото на освободения интервал
+     * @param to       краят на освободения интервал
+     */
+    void released(long epochDay, OccupancyBitmap busy, int from, int to) {
+        if (busy == null) {
+            gaps.remove(epochDay);
+            return;
+        }
+        List<Gap> day = gaps.get(epochDay);
+        from = Math.max(from, work.startMinute());
+        to = Math.min(to, work.endMinute());
+        if (day == null || from >= to)
+            return;
+        for (Gap piece : busy.freeGaps(from, to)) {
+            int i = firstEndingAfter(day, piece.startMinute() - 1);
+            int start = piece.startMinute();
+            int end = piece.endMinute();
+            // сливане със съседите, които докосват или застъпват освободената част
+            while (i < day.size() && day.get(i).startMinute() <= end) {
+                Gap neighbor = day.remove(i);
+                start = Math.min(start, neighbor.startMinute());
+                end = Math.max(end, neighbor.endMinute());
+            }
+            day.add(i, new Gap(start, end));
+        }
+    }
+
+    /**
+     * Задава наготово изчислените свободни интервали за даден ден.
+     * @param epochDay денят
+     * @param day      свободните интервали, подредени по начало
+     */
+    void set(long epochDay, List<Gap> day) {
+        gaps.put(epochDay, new ArrayList<>(day));
+    }
+
+    /**
+     * Изчиства всички списъци и задава работното време, спрямо което се пазят.
+     * @param work работното време
+     */
+    void reset(WorkingHours work) {
+        this.work = work;
+        gaps.clear();
+    }
+
+    /**
+     * Индексът на първия интервал, който завършва след дадена минута.
+     */
+    private static int firstEndingAfter(List<Gap> day, int minute) {
+        int lo = 0, hi = day.size();
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (day.get(mid).endMinute() <= minute)
+                lo = mid + 1;
+            else
+                hi = mid;
+        }
+        return lo;
+    }
+}
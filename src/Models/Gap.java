@@ -0,0 +1,17 @@
+package Models;
+
+/**
+ * Свободен интервал в рамките на един ден, в минути от началото на деня.
+ *
+ * @param startMinute началната минута
+ * @param endMinute   крайната минута (изключително)
+ */
+public record Gap(int startMinute, int endMinute) {
+    /**
+     * Продължителност на интервала в минути.
+     * @return броят минути
+     */
+    public int length() {
+        return endMinute - startMinute;
+    }
+}
@@ -1,6 +1,7 @@
 package Models;
 
 import java.time.LocalDate;
+import java.util.Collections;
 import java.util.Set;
 import java.util.HashSet;
 
@@ -8,28 +9,34 @@ import java.util.HashSet;
  * Класът {@code Holidays} представлява мениджър за официални почивни дни.
  * Използва се Singleton дизайн шаблон за гарантиране на единствена инстанция.
  * Поддържа колекция от дати, маркирани като почивни дни.
+ * <p>
+ * Проверките се извършват от много нишки без заключване: при всяка промяна се създава ново
+ * множество, което замества старото наведнъж, така че четящите виждат или старото, или новото.
+ * </p>
  */
 public class Holidays {
-    /** Колекция от всички официални почивни дни. */
-    private Set<LocalDate> holidays = new HashSet<>();
-    /** Единствена инстанция на класа Holidays (Singleton). */
-    private static Holidays holidayInstance;
+    /** Колекция от всички официални почивни дни. Не се променя, а се заменя изцяло. */
+    private volatile Set<LocalDate> holidays = Collections.emptySet();
+    /** Брояч на промените, използван за обезсилване на кеширани резултати. */
+    private volatile long version;
+    /** Държи единствената инстанция на класа Holidays (Singleton), създавана при първото използване. */
+    private static final class Holder {
+        private static final Holidays INSTANCE = new Holidays();
+    }
     /**
      * Връща единствената инстанция на класа Holidays.
-     * Ако все още не съществува, създава нова.
+     * Създава се при първото извикване, веднъж за всички нишки.
      *
      * @return инстанцията на Holidays
      */
     public static Holidays getInstance()
     {
-        if (holidayInstance == null)
-            holidayInstance = new Holidays();
-        return holidayInstance;
+        return Holder.INSTANCE;
     }
     /**
      * Връща всички зададени почивни дни.
      *
-     * @return множество от дати, които са почивни дни
+     * @return множество от дати, които са почивни дни (само за четене)
      */
     public Set<LocalDate> getHolidays() {
         return holidays;
@@ -39,8 +46,17 @@ public class Holidays {
      *
      * @param holidays множество от дати, които да се считат за почивни
      */
-    public void setHolidays(Set<LocalDate> holidays) {
-        this.holidays = holidays;
+    public synchronized void setHolidays(Set<LocalDate> holidays) {
+        this.holidays = Collections.unmodifiableSet(new HashSet<>(holidays));
+        version++;
+    }
+    /**
+     * Връща версията на почивните дни, която се увеличава при всяка промяна.
+     *
+     * @return текущата версия
+     */
+    public long getVersion() {
+        return version;
     }
     /**
      * Проверява дали дадена дата е почивен ден.
@@ -59,8 +75,13 @@ public class Holidays {
      *
      * @param date датата, която да бъде добавена като почивен ден
      */
-    public void addHoliday(LocalDate date)
+    public synchronized void addHoliday(LocalDate date)
     {
-        holidays.add(date);
+        if (holidays.contains(date))
+            return;
+        Set<LocalDate> updated = new HashSet<>(holidays);
+        updated.add(date);
+        holidays = Collections.unmodifiableSet(updated);
+        version++;
     }
 }
@@ -0,0 +1,238 @@
+package Models;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Аугментирано интервално дърво (AVL) върху абсолютни минути.
+ * <p>
+ * Всяко събитие се представя като полуотворен интервал {@code [начало, край)}, където
+ * началото и краят са минути от епохата ({@code епохален ден * 1440 + минута от деня}).
+ * Всеки възел пази и най-големия край в своето поддърво, което позволява
+ * намиране на всички пресичащи се интервали за {@code O(log n + k)}.
+ * </p>
+ */
+class IntervalTree {
+    /** Брой минути в едно денонощие. */
+    static final int MINUTES_PER_DAY = 24 * 60;
+
+    /**
+     * Възел на дървото.
+     */
+    private static final class Node {
+        final Event event;
+        final long start;
+        final long end;
+        final long seq;
+        long maxEnd;
+        int height = 1;
+        Node left, right;
+
+        Node(Event event, long start, long end, long seq) {
+            this.event = event;
+            this.start = start;
+            this.end = end;
+            this.seq = seq;
+            this.maxEnd = end;
+        }
+    }
+
+    private Node root;
+    private long nextSeq;
+    /** Възлите по събитие, за да може премахването да не зависи от текущите полета на събитието. */
+    private final Map<Event, Node> nodes = new IdentityHashMap<>();
+
+    /**
+     * Връща началото на събитието в абсолютни минути.
+     * @param e събитието
+     * @return минути от епохата
+     */
+    static long start(Event e) {
+        return e.getDate().toEpochDay() * MINUTES_PER_DAY + e.getStartTime().getHour() * 60 + e.getStartTime().getMinute();
+    }
+
+    /**
+     * Връща края на събитието в абсолютни минути.
+     * Събитие с нулева продължителност се разглежда като една минута.
+     * @param e събитието
+     * @return минути от епохата (изключително)
+     */
+    static long end(Event e) {
+        long end = e.getDate().toEpochDay() * MINUTES_PER_DAY + e.getEndTime().getHour() * 60 + e.getEndTime().getMinute();
+        return Math.max(end, start(e) + 1);
+    }
+
+    /**
+     * Проверява дали две събития се застъпват.
+     * @param a първото събитие
+     * @param b второто събитие
+     * @return true ако интервалите им се пресичат
+     */
+    static boolean overlaps(Event a, Event b) {
+        return start(a) < end(b) && start(b) < end(a);
+    }
+
+    public int size() {
+        return nodes.size();
+    }
+
+    /**
+     * Изчиства дървото.
+     */
+    public void clear() {
+        root = null;
+        nodes.clear();
+    }
+
+    /**
+     * Добавя събитие в дървото.
+     * @param event събитието
+     */
+    public void insert(Event event) {
+        if (nodes.containsKey(event))
+            return;
+        Node node = new Node(event, start(event), end(event), nextSeq++);
+        nodes.put(event, node);
+        root = insert(root, node);
+    }
+
+    /**
+     * Премахва събитие от дървото.
+     * @param event събитието
+     * @return true ако събитието е било в дървото
+     */
+    public boolean remove(Event event) {
+        Node node = nodes.remove(event);
+        if (node == null)
+            return false;
+        root = remove(root, node);
+        return true;
+    }
+
+    /**
+     * Намира всички събития, чиито интервали пресичат {@code [start, end)}.
+     * @param start начало в абсолютни минути
+     * @param end край в абсолютни минути (изключително)
+     * @return списък със събитията, подредени по начало
+     */
+    public List<Event> query(long start, long end) {
+        List<Event> result = new ArrayList<>();
+        query(root, start, end, result);
+        return result;
+    }
+
+    /**
+     * Намира всички събития, които се застъпват с даденото.
+     * @param event събитието
+     * @return списък със събитията, подредени по начало
+     */
+    public List<Event> query(Event event) {
+        return query(start(event), end(event));
+    }
+
+    private static void query(Node node, long start, long end, List<Event> out) {
+        while (node != null && node.maxEnd > start) {
+            query(node.left, start, end, out);
+            if (node.start >= end)
+                return;
+            if (node.end > start)
+                out.add(node.event);
+            node = node.right;
+        }
+    }
+
+    private static int compare(Node a, Node b) {
+        int c = Long.compare(a.start, b.start);
+        return c != 0 ? c : Long.compare(a.seq, b.seq);
+    }
+
+    private static Node insert(Node node, Node added) {
+        if (node == null)
+            return added;
+        if (compare(added, node) < 0)
+            node.left = insert(node.left, added);
+        else
+            node.right = insert(node.right, added);
+        return balance(node);
+    }
+
+    private static Node remove(Node node, Node removed) {
+        if (node == null)
+            return null;
+        int c = compare(removed, node);
+        if (c < 0)
+            node.left = remove(node.left, removed);
+        else if (c > 0)
+            node.right = remove(node.right, removed);
+        else {
+            if (node.left == null)
+                return node.right;
+            if (node.right == null)
+                return node.left;
+            Node successor = node.right;
+            while (successor.left != null)
+                successor = successor.left;
+            successor.right = removeMin(node.right);
+            successor.left = node.left;
+            return balance(successor);
+        }
+        return balance(node);
+    }
+
+    private static Node removeMin(Node node) {
+        if (node.left == null)
+            return node.right;
+        node.left = removeMin(node.left);
+        return balance(node);
+    }
+
+    private static int height(Node node) {
+        return node == null ? 0 : node.height;
+    }
+
+    private static void update(Node node) {
+        node.height = 1 + Math.max(height(node.left), height(node.right));
+        long max = node.end;
+        if (node.left != null && node.left.maxEnd > max)
+            max = node.left.maxEnd;
+        if (node.right != null && node.right.maxEnd > max)
+            max = node.right.maxEnd;
+        node.maxEnd = max;
+    }
+
+    private static Node rotateRight(Node node) {
+        Node pivot = node.left;
+        node.left = pivot.right;
+        pivot.right = node;
+        update(node);
+        update(pivot);
+        return pivot;
+    }
+
+    private static Node rotateLeft(Node node) {
+        Node pivot = node.right;
+        node.right = pivot.left;
+        pivot.left = node;
+        update(node);
+        update(pivot);
+        return pivot;
+    }
+
+    private static Node balance(Node node) {
+        update(node);
+        int diff = height(node.left) - height(node.right);
+        if (diff > 1) {
+            if (height(node.left.left) < height(node.left.right))
+                node.left = rotateLeft(node.left);
+            return rotateRight(node);
+        }
+        if (diff < -1) {
+            if (height(node.right.right) < height(node.right.left))
+                node.right = rotateRight(node.right);
+            return rotateLeft(node);
+        }
+        return node;
+    }
+}
@@ -0,0 +1,196 @@
+package Models;
+
+import Interfaces.CalendarListener;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.List;
+
+/**
+ * Журнал с предварителен запис (write-ahead log) за промените в календара.
+ * <p>
+ * Всяко добавяне или премахване на събитие се дописва като един ред в края на файла
+ * и се изпраща към диска веднага, така че при срив промените от сесията не се губят.
+ * Първият ред указва основния файл, спрямо който са записани промените:
+ * {@code #base <име>}. Следващите редове са {@code +<ред>} за добавено и
+ * {@code -<ред>} за премахнато събитие, където {@code <ред>} е в текстовия формат на календара.
+ * </p>
+ * <p>
+ * След определен брой записи журналът трябва да се свие: календарът се записва в основния файл
+ * и журналът започва отначало. Самият журнал само отбелязва, че свиването е нужно
+ * ({@link #isCompactionDue()}), а {@link FileController#compactJournal()} го извършва след края
+ * на командата, а не по време на уведомяването. При стартиране незавършен журнал се прилага върху основния файл.
+ * </p>
+ */
+public class Journal implements CalendarListener {
+    /** Име на файла на журнала по подразбиране. */
+    public static final String DEFAULT_FILE = "calendar.journal";
+    /** Брой записи, след които журналът трябва да се свие в основния файл. */
+    public static final int COMPACT_EVERY = 500;
+
+    private static final String BASE_PREFIX = "#base ";
+
+    private final Path path;
+    private final Calendar calendar;
+    private BufferedWriter writer;
+    private String base;
+    private int records;
+
+    /**
+     * Създава журнал за даден календар.
+     *
+     * @param path     файлът на журнала
+     * @param calendar календарът, чиито промени се записват
+     */
+    public Journal(Path path, Calendar calendar) {
+        this.path = path;
+        this.calendar = calendar;
+    }
+
+    /**
+     * Брой записи от последното свиване насам.
+     * @return брой записи
+     */
+    public synchronized int size() {
+        return records;
+    }
+
+    /**
+     * Дали журналът е натрупал достатъчно записи, за да бъде свит в основния файл.
+     * @return {@code true} след {@value #COMPACT_EVERY} записа
+     */
+    public synchronized boolean isCompactionDue() {
+        return records >= COMPACT_EVERY;
+    }
+
+    /**
+     * Започва нов журнал спрямо даден основен файл. Старите записи се изтриват.
+     * @param base името на основния файл (без {@code .txt})
+     */
+    public synchronized void start(String base) {
+        discard();
+        this.base = base;
+    }
+
+    /**
+     * Затваря и изтрива файла на журнала.
+     */
+    public synchronized void discard() {
+        close();
+        records = 0;
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            System.out.println("Could not delete the journal: " + e.getMessage());
+        }
+    }
+
+    @Override
+    public void eventAdded(Event event) {
+        append('+', event);
+    }
+
+    @Override
+    public void eventRemoved(Event event) {
+        append('-', event);
+    }
+
+    /**
+     * Възстановява календара от незавършен журнал, ако има такъв:
+     * зарежда основния файл и прилага записаните промени.
+     *
+     * @param fileController контролерът, чрез който се зарежда основният файл
+     * @return името на основния файл или {@code null}, ако няма журнал
+     * @throws IOException при грешка при четене
+     */
+    public String recover(FileController fileController) throws IOException {
+        if (!Files.exists(path))
+            return null;
+        List<String> lines = Files.readAllLines(path, StandardCharsets.UTF_8);
+        if (lines.isEmpty() || !lines.get(0).startsWith(BASE_PREFIX)) {
+            System.out.println("Journal file is not valid and was ignored.");
+            return null;
+        }
+        base = lines.get(0).substring(BASE_PREFIX.length()).trim();
+        System.out.println("Recovering " + (lines.size() - 1) + " unsaved change/s from the journal...");
+        if (!base.isEmpty())
+            fileController.readFile(base);
+
+        EventFileParser parser = new EventFileParser();
+        int applied = 0;
+        for (String line : lines.subList(1, lines.size())) {
+            if (line.isEmpty())
+                continue;
+            char op = line.charAt(0);
+            boolean ok = parser.parseLine(line.substring(1), (name, epochDay, start, end, desc) -> {
+                Event e = new Event(name, LocalDate.ofEpochDay(epochDay),
+                        LocalTime.of(start / 60, start % 60), LocalTime.of(end / 60, end % 60), desc);
+                if (op == '+')
+                    calendar.restore(e);
+                else
+                    discardMatching(e);
+            });
+            if (ok)
+                applied++;
+        }
+        records = applied;
+        System.out.println("Recovered " + applied + " change/s.");
+        return base;
+    }
+
+    /**
+     * Премахва от календара събитието, което съвпада по всички полета с даденото.
+     */
+    private void discardMatching(Event e) {
+        for (Event candidate : calendar.eventsOn(e.getDate())) {
+            if (candidate.getStartTime().equals(e.getStartTime()) && candidate.getEndTime().equals(e.getEndTime())
+                    && candidate.getName().equals(e.getName()) && candidate.getDesc().equals(e.getDesc())) {
+                calendar.discard(candidate);
+                return;
+            }
+        }
+    }
+
+    /**
+     * Дописва запис в журнала и го изпраща към диска.
+     */
+    private synchronized void append(char op, Event event) {
+        try {
+            if (writer == null) {
+                // журналът на календар в подпапка може да се създаде преди самия календар
+                Files.createDirectories(path.toAbsolutePath().getParent());
+                boolean fresh = !Files.exists(path);
+                writer = Files.newBufferedWriter(path, StandardCharsets.UTF_8,
+                        StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+                if (fresh) {
+                    writer.write(BASE_PREFIX + (base == null ? "" : base));
+                    writer.newLine();
+                }
+            }
+            writer.write(op);
+            writer.write(FileController.formatLine(event));
+            writer.newLine();
+            writer.flush();
+            records++;
+        } catch (IOException e) {
+            System.out.println("Could not write to the journal: " + e.getMessage());
+        }
+    }
+
+    private void close() {
+        if (writer == null)
+            return;
+        try {
+            writer.close();
+        } catch (IOException e) {
+            System.out.println("Could not close the journal: " + e.getMessage());
+        }
+        writer = null;
+    }
+}
@@ -0,0 +1,183 @@
+package Models;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Битова карта на заетостта в рамките на едно денонощие с точност до минута.
+ * <p>
+ * Всеки от 1440-те бита отговаря на една минута от деня; вдигнат бит означава заета минута.
+ * Битовете се пазят в масив от {@code long}, така че проверките и обединяването
+ * на няколко календара се извършват дума по дума.
+ * </p>
+ */
+public class OccupancyBitmap {
+    /** Брой минути в едно денонощие. */
+    public static final int MINUTES = IntervalTree.MINUTES_PER_DAY;
+
+    private final long[] words = new long[(MINUTES + 63) / 64];
+
+    /**
+     * Създава празна (изцяло свободна) карта.
+     */
+    public OccupancyBitmap() {
+    }
+
+    /**
+     * Копиращ конструктор.
+     * @param other картата, която се копира
+     */
+    public OccupancyBitmap(OccupancyBitmap other) {
+        System.arraycopy(other.words, 0, words, 0, words.length);
+    }
+
+    /**
+     * Връща началната минута на събитие в рамките на деня му.
+     * @param e събитието
+     * @return минута от деня
+     */
+    public static int startMinute(Event e) {
+        return e.getStartTime().getHour() * 60 + e.getStartTime().getMinute();
+    }
+
+    /**
+     * Връща крайната минута (изключително) на събитие в рамките на деня му.
+     * Събитие с нулева продължителност заема една минута.
+     * @param e събитието
+     * @return минута от деня
+     */
+    public static int endMinute(Event e) {
+        int end = e.getEndTime().getHour() * 60 + e.getEndTime().getMinute();
+        return Math.min(MINUTES, Math.max(end, startMinute(e) + 1));
+    }
+
+    /**
+     * Маркира минутите на събитието като заети.
+     * @param e събитието
+     */
+    public void add(Event e) {
+        set(startMinute(e), endMinute(e));
+    }
+
+    /**
+     * Маркира интервала {@code [from, to)} като зает.
+     * @param from начална минута
+     * @param to крайна минута (изключително)
+     */
+    public void set(int from, int to) {
+        for (int w = from >>> 6; from < to; w++) {
+            int next = Math.min(to, (w + 1) << 6);
+            words[w] |= mask(from, next);
+            from = next;
+        }
+    }
+
+    /**
+     * Маркира интервала {@code [from, to)} като свободен.
+     * @param from начална минута
+     * @param to крайна минута (изключително)
+     */
+    public void clear(int from, int to) {
+        for (int w = from >>> 6; from < to; w++) {
+            int next = Math.min(to, (w + 1) << 6);
+            words[w] &= ~mask(from, next);
+            from = next;
+        }
+    }
+
+    /**
+     * Изчиства цялата карта.
+     */
+    public void clear() {
+        Arrays.fill(words, 0L);
+    }
+
+    /**
+     * Проверява дали интервалът {@code [from, to)} е изцяло свободен.
+     * @param from начална минута
+     * @param to крайна минута (изключително)
+     * @return true ако няма заета минута в интервала
+     */
+    public boolean isFree(int from, int to) {
+        for (int w = from >>> 6; from < to; w++) {
+            int next = Math.min(to, (w + 1) << 6);
+            if ((words[w] & mask(from, next)) != 0)
+                return false;
+            from = next;
+        }
+        return true;
+    }
+
+    /**
+     * Връща свободните интервали в {@code [from, to)}, като обхожда картата дума по дума.
+     * @param from начална минута
+     * @param to крайна минута (изключително)
+     * @return свободните интервали по реда им в деня
+     */
+    public List<Gap> freeGaps(int from, int to) {
+        List<Gap> gaps = new ArrayList<>();
+        int start = nextFree(from, to);
+        while (start < to) {
+            int end = nextBusy(start, to);
+            gaps.add(new Gap(start, end));
+            start = nextFree(end, to);
+        }
+        return gaps;
+    }
+
+    /**
+     * Първата свободна минута от {@code from} нататък, или {@code to}, ако няма такава преди {@code to}.
+     */
+    private int nextFree(int from, int to) {
+        for (int w = from >>> 6; from < to; w++, from = w << 6) {
+            long free = ~words[w] & (-1L << (from & 63));
+            if (free != 0)
+                return Math.min(to, (w << 6) + Long.numberOfTrailingZeros(free));
+        }
+        return to;
+    }
+
+    /**
+     * Първата заета минута от {@code from} нататък, или {@code to}, ако няма такава преди {@code to}.
+     */
+    private int nextBusy(int from, int to) {
+        for (int w = from >>> 6; from < to; w++, from = w << 6) {
+            long busy = words[w] & (-1L << (from & 63));
+            if (busy != 0)
+                return Math.min(to, (w << 6) + Long.numberOfTrailingZeros(busy));
+        }
+        return to;
+    }
+
+    /**
+     * Проверява дали в деня няма нито една заета минута.
+     * @return true ако картата е празна
+     */
+    public boolean isEmpty() {
+        for (long word : words) {
+            if (word != 0)
+                return false;
+        }
+        return true;
+    }
+
+    /**
+     * Обединява заетостта с тази на друга карта (побитово ИЛИ).
+     * @param other другата карта
+     * @return тази карта
+     */
+    public OccupancyBitmap or(OccupancyBitmap other) {
+        for (int i = 0; i < words.length; i++)
+            words[i] |= other.words[i];
+        return this;
+    }
+
+    /**
+     * Маска с вдигнати битове за минутите {@code [from, to)} от една и съща дума.
+     */
+    private static long mask(int from, int to) {
+        long high = (to & 63) == 0 ? -1L : (1L << (to & 63)) - 1;
+        return high & (-1L << (from & 63));
+    }
+}
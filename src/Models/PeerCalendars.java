@@ -0,0 +1,128 @@
+package Models;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Зарежда чужди календари (на колеги) за търсене на общо свободно време.
+ * <p>
+ * Файловете се четат паралелно в колонни хранилища ({@link EventStore}) без извеждане на съобщения.
+ * Прочетените хранилища се пазят в кеш с ограничен размер, чийто ключ е самоличността на файла
+ * (път, размер и време на промяна), така че непроменен файл не се чете повторно.
+ * </p>
+ */
+public class PeerCalendars {
+    /** Размер на кеша по подразбиране. */
+    public static final int DEFAULT_CAPACITY = 64;
+
+    private final LinkedHashMap<String, EventStore> cache;
+
+    /**
+     * Създава зареждач с кеш за даден брой файлове.
+     * @param capacity максималният брой запазени календари
+     */
+    public PeerCalendars(int capacity) {
+        this.cache = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, EventStore> eldest) {
+                return size() > capacity;
+            }
+        };
+    }
+
+    /**
+     * Разкрива имената, подадени от потребителя: всяка директория се заменя с календарите в нея
+     * (файловете {@code .txt} и {@code .calb}), а останалите имена се запазват.
+     *
+     * @param names имената на календари или директории
+     * @return имената на календарите, в реда на подаване (файловете в директория са подредени по име)
+     * @throws IOException при грешка при четене на директория
+     */
+    public static List<String> resolve(List<String> names) throws IOException {
+        List<String> result = new ArrayList<>();
+        for (String name : names) {
+            Path path = Path.of(name);
+            if (!Files.isDirectory(path)) {
+                result.add(name);
+                continue;
+            }
+            try (Stream<Path> files = Files.list(path)) {
+                for (Path file : files.sorted().collect(Collectors.toList())) {
+                    String fileName = file.toString();
+                    if (BinarySnapshot.isBinary(fileName))
+                        result.add(fileName);
+                    else if (fileName.endsWith(".txt"))
+                        result.add(fileName.substring(0, fileName.length() - ".txt".length()));
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Връща самоличността на всички календари, подходяща за ключ в кеш.
+     *
+     * @param names имената на календарите
+     * @return самоличностите, съединени с {@code ;}
+     * @throws NoSuchFileException ако някой от файловете не съществува
+     */
+    public static String identity(List<String> names) throws NoSuchFileException {
+        StringJoiner joiner = new StringJoiner(";");
+        for (String name : names) {
+            String identity = FileController.fileIdentity(name);
+            if (identity == null)
+                throw new NoSuchFileException(FileController.fileName(name));
+            joiner.add(identity);
+        }
+        return joiner.toString();
+    }
+
+    /**
+     * Зарежда календарите паралелно, като използва кеша за непроменените файлове.
+     *
+     * @param names имената на календарите
+     * @return хранилищата в реда на имената
+     * @throws IOException при грешка при четене на някой от файловете
+     */
+    public List<EventStore> load(List<String> names) throws IOException {
+        try {
+            return names.parallelStream().map(name -> {
+                try {
+                    return load(name);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }).collect(Collectors.toList());
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    private EventStore load(String name) throws IOException {
+        String identity = FileController.fileIdentity(name);
+        if (identity == null)
+            throw new NoSuchFileException(FileController.fileName(name));
+        synchronized (cache) {
+            EventStore cached = cache.get(identity);
+            if (cached != null)
+                return cached;
+        }
+        EventStore store = new EventStore();
+        Path path = Path.of(FileController.fileName(name));
+        if (BinarySnapshot.isBinary(name))
+            BinarySnapshot.read(path, store::add);
+        else
+            new EventFileParser().parse(path, store::add);
+        store.sort();
+        synchronized (cache) {
+            cache.put(identity, store);
+        }
+        return store;
+    }
+}
@@ -0,0 +1,302 @@
+package Models;
+
+import java.util.*;
+
+/**
+ * Индекс за търсене на събития по ключови думи.
+ * <p>
+ * Пази два обърнати индекса върху името и описанието на всяко събитие, записани с главни букви:
+ * <ul>
+ *     <li>по думи (поредици от букви и цифри) – използва се за кратки ключови думи;</li>
+ *     <li>по триграми (всеки три поредни знака) – използва се за ключови думи с поне три знака.</li>
+ * </ul>
+ * За всяка дума или триграма се пази подреден списък от номерата на събитията, в които се среща.
+ * Номерата се раздават при добавяне и се използват повторно след премахване.
+ * </p>
+ * <p>
+ * Търсенето запазва досегашното поведение: ключовата дума може да е произволна част от текста.
+ * Всички триграми на ключовата дума трябва да се срещат в събитието, а при кратките ключови думи се
+ * обединяват списъците на всички думи от речника, които ги съдържат. Списъците за различните
+ * ключови думи се пресичат и накрая всеки кандидат се проверява точно.
+ * </p>
+ */
+class SearchIndex {
+    private final Map<Event, Integer> ids = new IdentityHashMap<>();
+    /** Номер -> събитие; {@code null} за освободените номера. */
+    private final List<Event> events = new ArrayList<>();
+    private final Deque<Integer> freeIds = new ArrayDeque<>();
+    /** Дума -> номерата на събитията, в които се среща. */
+    private final Map<String, Posting> words = new HashMap<>();
+    /** Триграма (три знака, събрани в едно число) -> номерата на събитията, в които се среща. */
+    private final TrigramTable trigrams = new TrigramTable();
+    /** Номерата на всички събития в индекса. */
+    private final BitSet live = new BitSet();
+
+    /**
+     * Добавя събитие в индекса.
+     * @param event събитието
+     */
+    void add(Event event) {
+        if (ids.containsKey(event))
+            return;
+        int id;
+        if (freeIds.isEmpty()) {
+            id = events.size();
+            events.add(event);
+        } else {
+            id = freeIds.pop();
+            events.set(id, event);
+        }
+        ids.put(event, id);
+        live.set(id);
+        String name = event.getName().toUpperCase();
+        String desc = event.getDesc().toUpperCase();
+        for (String word : words(name, desc))
+            words.computeIfAbsent(word, k -> new Posting()).add(id);
+        for (long trigram : trigrams(name, desc))
+            trigrams.getOrCreate(trigram).add(id);
+    }
+
+    /**
+     * Премахва събитие от индекса. Трябва да се извика преди промяна на името или описанието му.
+     * @param event събитието
+     */
+    void remove(Event event) {
+        Integer id = ids.remove(event);
+        if (id == null)
+            return;
+        String name = event.getName().toUpperCase();
+        String desc = event.getDesc().toUpperCase();
+        for (String word : words(name, desc))
+            removeFrom(words, word, id);
+        for (long trigram : trigrams(name, desc)) {
+            Posting posting = trigrams.get(trigram);
+            if (posting != null)
+                posting.remove(id);
+        }
+        live.clear(id);
+        events.set(id, null);
+        freeIds.push(id);
+    }
+
+    private static void removeFrom(Map<String, Posting> index, String key, int id) {
+        Posting posting = index.get(key);
+        if (posting != null && posting.remove(id) && posting.size == 0)
+            index.remove(key);
+    }
+
+    /**
+     * Намира събитията, чието име или описание съдържа всяка от ключовите думи (без значение от регистъра).
+     *
+     * @param keywords ключовите думи, разделени с интервали
+     * @return съвпадащите събития в произволен ред
+     */
+    List<Event> search(String keywords) {
+        String[] query = keywords.trim().toUpperCase().split("\\s+");
+        BitSet candidates = (BitSet) live.clone();
+        for (String keyword : query) {
+            if (keyword.length() >= 3)
+                candidates.and(withTrigrams(keyword));
+            else {
+                for (String word : words(keyword, ""))
+                    candidates.and(withWord(word));
+            }
+            if (candidates.isEmpty())
+                return new ArrayList<>();
+        }
+
+        List<Event> result = new ArrayList<>();
+        for (int id = candidates.nextSetBit(0); id >= 0; id = candidates.nextSetBit(id + 1)) {
+            Event e = events.get(id);
+            if (matches(e, query))
+                result.add(e);
+        }
+        return result;
+    }
+
+    /**
+     * Пресича списъците на всички триграми на ключовата дума, като започва от най-краткия.
+     */
+    private BitSet withTrigrams(String keyword) {
+        List<Posting> postings = new ArrayList<>();
+        for (long trigram : trigrams(keyword, "")) {
+            Posting posting = trigrams.get(trigram);
+            if (posting == null || posting.size == 0)
+                return new BitSet();
+            postings.add(posting);
+        }
+        postings.sort(Comparator.comparingInt(p -> p.size));
+        Posting smallest = postings.get(0);
+        BitSet result = new BitSet();
+        for (int i = 0; i < smallest.size; i++) {
+            int id = smallest.ids[i];
+            boolean all = true;
+            for (int j = 1; j < postings.size() && all; j++)
+                all = postings.get(j).contains(id);
+            if (all)
+                result.set(id);
+        }
+        return result;
+    }
+
+    /**
+     * Обединява номерата на събитията за всички думи от речника, които съдържат даден низ.
+     */
+    private BitSet withWord(String word) {
+        BitSet union = new BitSet();
+        for (Map.Entry<String, Posting> entry : words.entrySet()) {
+            if (entry.getKey().contains(word)) {
+                Posting posting = entry.getValue();
+                for (int i = 0; i < posting.size; i++)
+                    union.set(posting.ids[i]);
+            }
+        }
+        return union;
+    }
+
+    /**
+     * Точна проверка: всяка ключова дума се среща в името или в описанието.
+     */
+    static boolean matches(Event e, String[] query) {
+        String name = e.getName().toUpperCase();
+        String desc = e.getDesc().toUpperCase();
+        for (String keyword : query) {
+            if (!name.contains(keyword) && !desc.contains(keyword))
+                return false;
+        }
+        return true;
+    }
+
+    /**
+     * Разделя текстовете на думи от букви и цифри.
+     */
+    private static Set<String> words(String... texts) {
+        Set<String> result = new HashSet<>();
+        for (String text : texts) {
+            int start = -1;
+            for (int i = 0; i <= text.length(); i++) {
+                boolean inWord = i < text.length() && Character.isLetterOrDigit(text.charAt(i));
+                if (inWord && start < 0)
+                    start = i;
+                else if (!inWord && start >= 0) {
+                    result.add(text.substring(start, i));
+                    start = -1;
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Връща различните триграми на текстовете, всяка събрана в едно число от три 16-битови знака.
+     */
+    private static long[] trigrams(String... texts) {
+        int total = 0;
+        for (String text : texts)
+            total += Math.max(0, text.length() - 2);
+        long[] result = new long[total];
+        int n = 0;
+        for (String text : texts) {
+            for (int i = 0; i + 3 <= text.length(); i++)
+                result[n++] = ((long) text.charAt(i) << 32) | ((long) text.charAt(i + 1) << 16) | text.charAt(i + 2);
+        }
+        Arrays.sort(result);
+        int distinct = 0;
+        for (int i = 0; i < n; i++) {
+            if (i == 0 || result[i] != result[i - 1])
+                result[distinct++] = result[i];
+        }
+        return Arrays.copyOf(result, distinct);
+    }
+
+    /**
+     * Хеш таблица с отворено адресиране от триграма към списък с номера.
+     * Не използва обекти за ключовете, което има значение при милиони добавяния.
+     * Празните списъци остават в таблицата, тъй като броят на различните триграми е ограничен.
+     */
+    private static final class TrigramTable {
+        private long[] keys = new long[1024];
+        private Posting[] values = new Posting[1024];
+        private int size;
+
+        Posting get(long key) {
+            int mask = keys.length - 1;
+            for (int slot = slot(key, mask); values[slot] != null; slot = (slot + 1) & mask) {
+                if (keys[slot] == key)
+                    return values[slot];
+            }
+            return null;
+        }
+
+        Posting getOrCreate(long key) {
+            int mask = keys.length - 1;
+            int slot = slot(key, mask);
+            for (; values[slot] != null; slot = (slot + 1) & mask) {
+                if (keys[slot] == key)
+                    return values[slot];
+            }
+            Posting posting = new Posting();
+            keys[slot] = key;
+            values[slot] = posting;
+            if (++size * 2 > keys.length)
+                grow();
+            return posting;
+        }
+
+        private void grow() {
+            long[] oldKeys = keys;
+            Posting[] oldValues = values;
+            keys = new long[oldKeys.length * 2];
+            values = new Posting[oldKeys.length * 2];
+            int mask = keys.length - 1;
+            for (int i = 0; i < oldKeys.length; i++) {
+                if (oldValues[i] == null)
+                    continue;
+                int slot = slot(oldKeys[i], mask);
+                while (values[slot] != null)
+                    slot = (slot + 1) & mask;
+                keys[slot] = oldKeys[i];
+                values[slot] = oldValues[i];
+            }
+        }
+
+        private static int slot(long key, int mask) {
+            return (int) ((key * 0x9E3779B97F4A7C15L) >>> 32) & mask;
+        }
+    }
+
+    /**
+     * Подреден списък от номера на събития. Заема памет, пропорционална на броя събития в него,
+     * за разлика от {@link BitSet}, който зависи от най-големия номер.
+     */
+    private static final class Posting {
+        private int[] ids = new int[2];
+        private int size;
+
+        void add(int id) {
+            int pos = size > 0 && ids[size - 1] < id ? size : Arrays.binarySearch(ids, 0, size, id);
+            if (pos >= 0 && pos < size)
+                return;
+            if (pos < 0)
+                pos = -pos - 1;
+            if (size == ids.length)
+                ids = Arrays.copyOf(ids, size * 2);
+            System.arraycopy(ids, pos, ids, pos + 1, size - pos);
+            ids[pos] = id;
+            size++;
+        }
+
+        boolean remove(int id) {
+            int pos = Arrays.binarySearch(ids, 0, size, id);
+            if (pos < 0)
+                return false;
+            System.arraycopy(ids, pos + 1, ids, pos, size - pos - 1);
+            size--;
+            return true;
+        }
+
+        boolean contains(int id) {
+            return Arrays.binarySearch(ids, 0, size, id) >= 0;
+        }
+    }
+}
@@ -0,0 +1,118 @@
+package Models;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Кеш с ограничен размер за резултатите от търсенето на свободни интервали.
+ * <p>
+ * Ключът включва датата, продължителността, версията на календара и версията на почивните дни,
+ * а при търсене заедно с файл – и самоличността на файла (път, размер и време на промяна).
+ * Всяка промяна в календара или в почивните дни увеличава съответната версия, така че
+ * старите записи вече не съвпадат и постепенно се изместват. При препълване се премахва
+ * най-отдавна използваният запис.
+ * </p>
+ */
+public class SlotCache {
+    /** Размер на кеша по подразбиране. */
+    public static final int DEFAULT_CAPACITY = 256;
+
+    /**
+     * Ключ на запис в кеша.
+     *
+     * @param date            датата
+     * @param duration        продължителността на търсения интервал
+     * @param calendarVersion версията на календара
+     * @param holidayVersion  версията на почивните дни
+     * @param peer            самоличността на файла, с който се търси общо време, или {@code null}
+     */
+    public record Key(LocalDate date, LocalTime duration, long calendarVersion, long holidayVersion, String peer) {
+    }
+
+    private final int capacity;
+    private final LinkedHashMap<Key, List<Event>> entries;
+    private long hits;
+    private long misses;
+
+    /**
+     * Създава кеш с даден максимален брой записи.
+     * @param capacity максималният брой записи
+     */
+    public SlotCache(int capacity) {
+        if (capacity < 1)
+            throw new IllegalArgumentException("Cache capacity must be positive!");
+        this.capacity = capacity;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, List<Event>> eldest) {
+                return size() > SlotCache.this.capacity;
+            }
+        };
+    }
+
+    /**
+     * Връща резултата за даден ключ от кеша или го изчислява и запазва.
+     * Изчислението се извършва извън заключването, така че няколко нишки могат да смятат
+     * различни ключове едновременно.
+     *
+     * @param key     ключът
+     * @param compute изчислява резултата при липса в кеша; ако върне {@code null}, нищо не се запазва
+     * @return резултатът (само за четене) или {@code null}
+     */
+    public List<Event> get(Key key, Supplier<List<Event>> compute) {
+        synchronized (this) {
+            List<Event> cached = entries.get(key);
+            if (cached != null) {
+                hits++;
+                return cached;
+            }
+            misses++;
+        }
+        List<Event> computed = compute.get();
+        if (computed == null)
+            return null;
+        List<Event> result = List.copyOf(computed);
+        synchronized (this) {
+            entries.put(key, result);
+        }
+        return result;
+    }
+
+    /**
+     * Изпразва кеша и нулира броячите.
+     */
+    public synchronized void clear() {
+        entries.clear();
+        hits = 0;
+        misses = 0;
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    public synchronized long getHits() {
+        return hits;
+    }
+
+    public synchronized long getMisses() {
+        return misses;
+    }
+
+    /**
+     * Дял на заявките, обслужени от кеша.
+     * @return число между 0 и 1 (0, ако още няма заявки)
+     */
+    public synchronized double hitRate() {
+        long total = hits + misses;
+        return total == 0 ? 0 : (double) hits / total;
+    }
+}
@@ -0,0 +1,130 @@
+package Models;
+
+import java.util.Scanner;
+
+/**
+ * Общият вход от конзолата и правилото за потвърждения.
+ * <p>
+ * Всички въпроси към потребителя минават оттук, за да се чете от един {@link Scanner} върху
+ * {@code System.in}: отделните скенери буферират вход, който после липсва на останалите.
+ * При пакетно изпълнение потвърждаванията не се питат, а се решават от зададеното правило
+ * ({@link Policy#YES} или {@link Policy#NO}), и въпросите не се извеждат.
+ * </p>
+ */
+public final class UserInput {
+    /**
+     * Как се отговаря на въпросите за потвърждение.
+     */
+    public enum Policy {
+        /** Въпросът се задава и отговорът се чете от конзолата. */
+        ASK,
+        /** Всички действия се потвърждават без въпрос. */
+        YES,
+        /** Всички действия се отказват без въпрос. */
+        NO
+    }
+
+    private static final Scanner SCANNER = new Scanner(System.in);
+    private static Policy policy = Policy.ASK;
+
+    private UserInput() {
+    }
+
+    public static Policy getPolicy() {
+        return policy;
+    }
+
+    public static void setPolicy(Policy policy) {
+        UserInput.policy = policy;
+    }
+
+    /**
+     * Дали въпросите се задават на потребителя.
+     * @return {@code true} при правило {@link Policy#ASK}
+     */
+    public static boolean isInteractive() {
+        return policy == Policy.ASK;
+    }
+
+    /**
+     * Дали има още редове на входа.
+     * @return {@code false} в края на входа
+     */
+    public static boolean hasNextLine() {
+        return SCANNER.hasNextLine();
+    }
+
+    /**
+     * Прочита следващия ред от конзолата.
+     *
+     * @return редът без знака за нов ред
+     * @throws IllegalStateException ако въпросите не се задават (пакетно изпълнение) или входът е свършил
+     */
+    public static String nextLine() {
+        requireConsole();
+        if (!SCANNER.hasNextLine())
+            throw new IllegalStateException("No more console input!");
+        return SCANNER.nextLine();
+    }
+
+    /**
+     * Проверява, че командата може да събира данни от конзолата, преди да е извела първия въпрос.
+     *
+     * @throws IllegalStateException ако въпросите не се задават (пакетно изпълнение)
+     */
+    public static void requireConsole() {
+        if (!isInteractive())
+            throw new IllegalStateException("This command needs console input, give its arguments inline instead!");
+    }
+
+    /**
+     * Иска потвърждение за действие.
+     *
+     * @param question въпросът, който се извежда само при {@link Policy#ASK}
+     * @param answer   отговорът, който потвърждава действието (без значение главни или малки букви)
+     * @return дали действието е потвърдено
+     */
+    public static boolean confirm(String question, String answer) {
+        switch (policy) {
+            case YES:
+                return true;
+            case NO:
+                return false;
+            default:
+                System.out.println(question);
+                return nextLine().trim().equalsIgnoreCase(answer);
+        }
+    }
+
+    /**
+     * Иска избор на число от меню. Грешно въведените редове се пропускат.
+     *
+     * @param yes изборът при правило {@link Policy#YES}
+     * @param no  изборът при правило {@link Policy#NO}
+     * @return избраното число
+     */
+    public static int choose(int yes, int no) {
+        switch (policy) {
+            case YES:
+                return yes;
+            case NO:
+                return no;
+            default:
+                while (true) {
+                    try {
+                        return Integer.parseInt(nextLine().trim());
+                    } catch (NumberFormatException e) {
+                        System.out.println("Error, invalid number entered!");
+                    }
+                }
+        }
+    }
+
+    /**
+     * Изчаква потребителя да натисне Enter. При пакетно изпълнение не прави нищо.
+     */
+    public static void pause() {
+        if (isInteractive() && SCANNER.hasNextLine())
+            SCANNER.nextLine();
+    }
+}
@@ -0,0 +1,43 @@
+package Models;
+
+import java.time.LocalTime;
+
+/**
+ * Работното време, в което се търсят свободни интервали, и стъпката между
+ * началата на предлаганите интервали.
+ *
+ * @param startMinute началото на работното време, в минути от началото на деня
+ * @param endMinute   краят на работното време (изключително)
+ * @param step        стъпката в минути
+ */
+public record WorkingHours(int startMinute, int endMinute, int step) {
+    /** Работно време по подразбиране: от 08:00 до 17:00 през час. */
+    public static final WorkingHours DEFAULT = new WorkingHours(8 * 60, 17 * 60, 60);
+
+    /**
+     * @throws IllegalArgumentException ако краят не е след началото или стъпката не е положителна
+     */
+    public WorkingHours {
+        if (startMinute < 0 || endMinute > OccupancyBitmap.MINUTES || startMinute >= endMinute)
+            throw new IllegalArgumentException("Working hours must start before they end!");
+        if (step < 1)
+            throw new IllegalArgumentException("Step must be at least 1 minute!");
+    }
+
+    /**
+     * Създава работно време от часове.
+     * @param start началото
+     * @param end   краят
+     * @param step  стъпката в минути
+     * @return работното време
+     */
+    public static WorkingHours of(LocalTime start, LocalTime end, int step) {
+        return new WorkingHours(start.getHour() * 60 + start.getMinute(), end.getHour() * 60 + end.getMinute(), step);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%02d:%02d - %02d:%02d, every %d min",
+                startMinute / 60, startMinute % 60, endMinute / 60, endMinute % 60, step);
+    }
+}
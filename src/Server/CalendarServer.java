@@ -0,0 +1,262 @@
+package Server;
+
+import Codecs.JsonLinesEncoder;
+import Commands.Agenda;
+import Commands.Book;
+import Commands.Find;
+import Commands.FindSlot;
+import Commands.ShowBusy;
+import Commands.Unbook;
+import Interfaces.QueryCommand;
+import Models.Calendar;
+import Models.CalendarRegistry;
+import Models.Event;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * HTTP сървър, който отговаря на справки и промени в календарите с JSON.
+ * <p>
+ * Всяка крайна точка съответства на конзолна команда и използва нейното разчитане на аргументите:
+ * параметрите от заявката се подреждат в масив като при въвеждане от конзолата и се подават на
+ * {@link QueryCommand#query(Calendar, String[])}. Календарът се избира с параметъра {@code calendar}
+ * (по подразбиране {@value CalendarRegistry#DEFAULT}) и се зарежда от {@link CalendarRegistry}.
+ * Име, което излиза от работната папка на сървъра, се отказва с код 400.
+ * </p>
+ * <pre>
+ * GET  /agenda?from=dd/mm[&amp;to=dd/mm][&amp;limit=N][&amp;offset=N]
+ * GET  /find?q=keywords
+ * GET  /findslot?from=dd/mm[&amp;to=dd/mm]&amp;hours=hh:mm[&amp;limit=N]
+ * GET  /showbusy?from=dd/mm&amp;to=dd/mm[&amp;days=N]
+ * POST /book?date=dd/mm&amp;start=hh:mm&amp;end=hh:mm&amp;name=...[&amp;desc=...]
+ * POST /unbook?date=dd/mm&amp;start=hh:mm&amp;end=hh:mm
+ * </pre>
+ * <p>
+ * Отговорът е {@code {"result": ...}} или {@code {"error": "..."}} с код 400 при грешни аргументи
+ * или липсващ задължителен параметър (параметрите в квадратни скоби не са задължителни).
+ * Промените във всеки календар се записват в журнала му, ако е включен, и журналът
+ * се свива след заявката, която го е напълнил, докато календарът още е взет от заявката.
+ * Всяка заявка се обработва във виртуална нишка, когато JVM ги поддържа (Java 21+),
+ * а иначе – в пул от нишки, който расте при нужда.
+ * </p>
+ */
+public class CalendarServer {
+    /** Порт по подразбиране. */
+    public static final int DEFAULT_PORT = 8080;
+
+    static {
+        // заглавията и тялото на отговора се изпращат поотделно; без TCP_NODELAY алгоритъмът на Nagle
+        // задържа тялото до потвърждението на клиента, което идва със закъснение от около 40 ms
+        if (System.getProperty("sun.net.httpserver.nodelay") == null)
+            System.setProperty("sun.net.httpserver.nodelay", "true");
+    }
+
+    /**
+     * Крайна точка: командата, HTTP методът, имената на параметрите по реда на конзолните аргументи
+     * и тези от тях, без които заявката се отказва.
+     */
+    private record Endpoint(QueryCommand command, String method, List<String> params, List<String> required) {
+    }
+
+    private final CalendarRegistry registry;
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private final Map<String, Endpoint> endpoints = new HashMap<>();
+
+    /**
+     * Създава сървър върху даден порт. Сървърът не приема заявки до извикването на {@link #start()}.
+     *
+     * @param registry регистърът с календарите
+     * @param port     портът ({@code 0} за произволен свободен порт)
+     * @throws IOException ако портът не може да бъде зает
+     */
+    public CalendarServer(CalendarRegistry registry, int port) throws IOException {
+        this.registry = registry;
+        endpoints.put("agenda", new Endpoint(new Agenda(), "GET",
+                List.of("from", "to", "limit", "offset"), List.of("from")));
+        endpoints.put("find", new Endpoint(new Find(), "GET", List.of("q"), List.of("q")));
+        endpoints.put("findslot", new Endpoint(new FindSlot(), "GET",
+                List.of("from", "to", "hours", "limit"), List.of("from", "hours")));
+        endpoints.put("showbusy", new Endpoint(new ShowBusy(), "GET",
+                List.of("from", "to", "days"), List.of("from", "to")));
+        endpoints.put("book", new Endpoint(new Book(), "POST",
+                List.of("date", "start", "end", "name", "desc"), List.of("date", "start", "end", "name")));
+        endpoints.put("unbook", new Endpoint(new Unbook(), "POST",
+                List.of("date", "start", "end"), List.of("date", "start", "end")));
+
+        server = HttpServer.create(new InetSocketAddress(port), 0);
+        executor = newExecutor();
+        server.setExecutor(executor);
+        server.createContext("/", this::handle);
+    }
+
+    /**
+     * Започва приемането на заявки.
+     */
+    public void start() {
+        server.start();
+    }
+
+    /**
+     * Спира сървъра, като изчаква текущите заявки до една секунда.
+     */
+    public void stop() {
+        server.stop(1);
+        executor.shutdown();
+    }
+
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    /**
+     * Изпълнител с по една виртуална нишка на заявка, ако JVM ги поддържа.
+     * Търси се чрез отражение, за да може проектът да се компилира и с Java 17.
+     */
+    private static ExecutorService newExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            return Executors.newCachedThreadPool();
+        }
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            String name = exchange.getRequestURI().getPath().replaceAll("^/+|/+$", "").toLowerCase();
+            Endpoint endpoint = endpoints.get(name);
+            if (endpoint == null) {
+                respond(exchange, 404, error("Unknown endpoint: '/" + name + "'"));
+                return;
+            }
+            if (!endpoint.method().equals(exchange.getRequestMethod())) {
+                exchange.getResponseHeaders().set("Allow", endpoint.method());
+                respond(exchange, 405, error("Use " + endpoint.method() + " for /" + name));
+                return;
+            }
+
+            Map<String, String> params = parseParams(exchange.getRequestURI().getRawQuery());
+            if (endpoint.method().equals("POST"))
+                params.putAll(parseParams(readBody(exchange.getRequestBody())));
+            for (String param : endpoint.required()) {
+                String value = params.get(param);
+                if (value == null || value.isEmpty()) {
+                    respond(exchange, 400, error("Missing parameter '" + param + "' for /" + name));
+                    return;
+                }
+            }
+
+            List<String> args = new ArrayList<>();
+            args.add(name);
+            for (String param : endpoint.params()) {
+                String value = params.get(param);
+                if (value != null && !value.isEmpty())
+                    args.add(value);
+            }
+
+            Object result;
+            String calendarName = params.getOrDefault("calendar", CalendarRegistry.DEFAULT);
+            try {
+                // календарът се взима за времето на заявката, за да не бъде освободен от друга заявка
+                Calendar calendar = registry.acquire(calendarName);
+                try {
+                    result = endpoint.command().query(calendar, args.toArray(new String[0]));
+                    // свиването записва календара, затова става, преди регистърът да може да го освободи
+                    if (endpoint.method().equals("POST"))
+                        registry.files(calendarName).compactJournal();
+                } finally {
+                    registry.release(calendarName);
+                }
+            } catch (IllegalArgumentException e) {
+                respond(exchange, 400, error(e.getMessage()));
+                return;
+            } catch (RuntimeException e) {
+                respond(exchange, 500, error("Unexpected error: " + e.getMessage()));
+                return;
+            }
+
+            StringWriter json = new StringWriter();
+            json.write("{\"result\":");
+            writeValue(result, json);
+            json.write('}');
+            respond(exchange, 200, json.toString());
+        }
+    }
+
+    private static void respond(HttpExchange exchange, int status, String json) throws IOException {
+        byte[] body = json.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        exchange.sendResponseHeaders(status, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+
+    private static String error(String message) throws IOException {
+        StringWriter json = new StringWriter();
+        json.write("{\"error\":");
+        JsonLinesEncoder.writeString(message == null ? "" : message, json);
+        json.write('}');
+        return json.toString();
+    }
+
+    /**
+     * Записва резултата от заявка като JSON: събития, дни с натовареност, списъци от тях,
+     * логически стойности и {@code null}.
+     */
+    private static void writeValue(Object value, Writer out) throws IOException {
+        if (value == null)
+            out.write("null");
+        else if (value instanceof Event)
+            JsonLinesEncoder.writeEvent((Event) value, out);
+        else if (value instanceof Calendar.DayBusyness) {
+            Calendar.DayBusyness day = (Calendar.DayBusyness) value;
+            out.write("{\"date\":\"" + day.date() + "\",\"hours\":" + day.totalHours() + "}");
+        } else if (value instanceof Collection) {
+            out.write('[');
+            boolean first = true;
+            for (Object item : (Collection<?>) value) {
+                if (!first)
+                    out.write(',');
+                writeValue(item, out);
+                first = false;
+            }
+            out.write(']');
+        } else if (value instanceof Boolean || value instanceof Number)
+            out.write(value.toString());
+        else
+            JsonLinesEncoder.writeString(value.toString(), out);
+    }
+
+    /**
+     * Разчита параметри във вида {@code a=1&b=2}.
+     */
+    private static Map<String, String> parseParams(String query) {
+        Map<String, String> params = new HashMap<>();
+        if (query == null || query.isEmpty())
+            return params;
+        for (String pair : query.split("&")) {
+            int eq = pair.indexOf('=');
+            String key = eq < 0 ? pair : pair.substring(0, eq);
+            String value = eq < 0 ? "" : pair.substring(eq + 1);
+            params.put(URLDecoder.decode(key, StandardCharsets.UTF_8), URLDecoder.decode(value, StandardCharsets.UTF_8));
+        }
+        return params;
+    }
+
+    private static String readBody(InputStream in) throws IOException {
+        return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,146 @@
+package Server;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Локален клиент за натоварване на {@link CalendarServer}.
+ * <p>
+ * Изпраща даден брой заявки от няколко нишки едновременно, като редува справките
+ * {@code agenda}, {@code findslot}, {@code find} и {@code showbusy}, и накрая извежда
+ * броя заявки в секунда и времето за отговор (медиана, 99-и перцентил и най-лошото).
+ * </p>
+ *
+ * <p><b>Пример:</b> {@code java Server.LoadTest http://localhost:8080 20000 32 ivan}</p>
+ */
+public class LoadTest {
+    /** Пътищата, които се редуват при натоварването. */
+    private static final String[] PATHS = {
+            "/agenda?from=01/03&to=31/03&limit=20",
+            "/findslot?from=05/03&hours=01:00",
+            "/find?q=meet",
+            "/showbusy?from=01/01&to=31/12&days=5"
+    };
+
+    /**
+     * Резултатът от едно натоварване.
+     *
+     * @param requests   броят изпратени заявки
+     * @param errors     броят заявки с код, различен от 200, или без отговор
+     * @param seconds    общото време
+     * @param latencies  времената за отговор в наносекунди, подредени по големина
+     */
+    public record Report(int requests, int errors, double seconds, long[] latencies) {
+        /**
+         * Времето за отговор при даден перцентил, в милисекунди.
+         * @param percentile между 0 и 100
+         * @return времето
+         */
+        public double percentile(double percentile) {
+            if (latencies.length == 0)
+                return 0;
+            int index = (int) Math.ceil(percentile / 100 * latencies.length) - 1;
+            return latencies[Math.max(0, Math.min(index, latencies.length - 1))] / 1e6;
+        }
+
+        public double throughput() {
+            return requests / seconds;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%d requests (%d errors) in %.2f s: %.0f req/s, p50 %.2f ms, p99 %.2f ms, max %.2f ms",
+                    requests, errors, seconds, throughput(), percentile(50), percentile(99), percentile(100));
+        }
+    }
+
+    /**
+     * Изпраща заявките и измерва времената за отговор.
+     *
+     * @param baseUrl     адресът на сървъра, например {@code http://localhost:8080}
+     * @param requests    общият брой заявки
+     * @param concurrency броят едновременни клиенти
+     * @param calendar    календарът, към който се изпращат заявките, или {@code null} за този по подразбиране
+     * @return резултатът
+     * @throws InterruptedException ако нишката бъде прекъсната
+     */
+    public static Report run(String baseUrl, int requests, int concurrency, String calendar) throws InterruptedException {
+        if (requests < 1 || concurrency < 1)
+            throw new IllegalArgumentException("Requests and concurrency must be positive!");
+        HttpClient client = HttpClient.newHttpClient();
+        List<URI> uris = new ArrayList<>();
+        for (String path : PATHS)
+            uris.add(URI.create(baseUrl + path + (calendar == null ? "" : "&calendar=" + URLEncoder.encode(calendar, StandardCharsets.UTF_8))));
+
+        long[] latencies = new long[requests];
+        AtomicInteger next = new AtomicInteger();
+        AtomicInteger errors = new AtomicInteger();
+        ExecutorService pool = Executors.newFixedThreadPool(concurrency);
+        List<Future<?>> workers = new ArrayList<>();
+        long start = System.nanoTime();
+        for (int i = 0; i < concurrency; i++) {
+            workers.add(pool.submit(() -> {
+                for (int n = next.getAndIncrement(); n < requests; n = next.getAndIncrement()) {
+                    HttpRequest request = HttpRequest.newBuilder(uris.get(n % uris.size())).GET().build();
+                    long sent = System.nanoTime();
+                    try {
+                        HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+                        if (response.statusCode() != 200)
+                            errors.incrementAndGet();
+                    } catch (IOException e) {
+                        errors.incrementAndGet();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        return;
+                    }
+                    latencies[n] = System.nanoTime() - sent;
+                }
+            }));
+        }
+        for (Future<?> worker : workers) {
+            try {
+                worker.get();
+            } catch (ExecutionException e) {
+                errors.incrementAndGet();
+            }
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+        pool.shutdown();
+        Arrays.sort(latencies);
+        return new Report(requests, errors.get(), seconds, latencies);
+    }
+
+    /**
+     * Стартира натоварването от командния ред:
+     * {@code LoadTest <адрес> [брой заявки] [едновременни клиенти] [календар]}.
+     *
+     * @param args аргументите
+     * @throws InterruptedException ако нишката бъде прекъсната
+     */
+    public static void main(String[] args) throws InterruptedException {
+        if (args.length < 1 || args.length > 4) {
+            System.out.println("Usage: LoadTest <baseUrl> [requests] [concurrency] [calendar]");
+            return;
+        }
+        int requests = args.length > 1 ? Integer.parseInt(args[1]) : 10000;
+        int concurrency = args.length > 2 ? Integer.parseInt(args[2]) : 16;
+        String calendar = args.length > 3 ? args[3] : null;
+
+        // загряване, за да не се мерят зареждането на класовете и компилацията
+        run(args[0], Math.min(requests, 2000), concurrency, calendar);
+        System.out.println(run(args[0], requests, concurrency, calendar));
+    }
+}
@@ -1,9 +1,17 @@
 import Commands.*;
 import Interfaces.Command;
 import Interfaces.FileCommand;
+import Models.BackgroundJobs;
 import Models.Calendar;
+import Models.CalendarRegistry;
 import Models.FileController;
+import Models.UserInput;
 
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.*;
 
 /**
@@ -13,6 +21,18 @@ import java.util.*;
  * <p>
  * Поддържа основен цикъл за въвеждане на команди и извежда съответните съобщения и резултати.
  * Предоставя възможност за изход с опция за записване на текущото състояние на календара.
+ * Докато програмата работи, всяка промяна се записва в журнал, който се възстановява
+ * при следващо стартиране, ако програмата не е била затворена нормално.
+ * </p>
+ * <p>
+ * Командите се изпълняват върху календара, избран с {@code use}. Календарите на отделните потребители
+ * се зареждат при нужда от {@link CalendarRegistry} и се записват обратно при освобождаване и при изход.
+ * Всеки от тях има собствен журнал, а след команда, която го е напълнил, журналът на избрания
+ * календар се свива в основния му файл.
+ * </p>
+ * <p>
+ * Файловите команди се изпълняват във фонов режим чрез {@link BackgroundJobs}, а командите
+ * за календара – веднага, освен ако трябва да изчакат фонова команда за същия календар.
  * </p>
  */
 public class UI {
@@ -20,7 +40,8 @@ public class UI {
     private Map<String, Command> commands;
     private Map<String, FileCommand> fileCommands;
     private FileController fileController = new FileController();
-    private Calendar calendar = Calendar.getInstance();
+    private CalendarRegistry registry = new CalendarRegistry(fileController);
+    private BackgroundJobs jobs = new BackgroundJobs();
     boolean exit = false;
 
     /**
@@ -33,14 +54,20 @@ public class UI {
 
         commands.put("agenda", new Agenda());
         commands.put("book", new Book());
+        commands.put("cache", new Cache());
         commands.put("change", new Change());
         commands.put("find", new Find());
         commands.put("findslot", new FindSlot());
         commands.put("findslotwith", new FindSlotWith());
+        commands.put("format", new Format());
         commands.put("help", new Help());
+        commands.put("jobs", new Jobs(jobs));
+        commands.put("nextfree", new NextFree());
         commands.put("showall", new ShowAll());
         commands.put("showbusy", new ShowBusy());
         commands.put("unbook", new Unbook());
+        commands.put("use", new Use(registry, jobs));
+        commands.put("workhours", new WorkHours());
 
         fileCommands.put("holiday", new Holiday());
         fileCommands.put("merge", new Merge());
@@ -48,68 +75,183 @@ public class UI {
         fileCommands.put("saveas", new SaveAs());
         fileCommands.put("write", new Write());
         fileController.readHolidays();
+        fileController.openJournal();
     }
 
     /**
      * Стартира основния цикъл на потребителския интерфейс.
      * Изчаква въвеждане на команди от потребителя, обработва ги и извежда резултатите.
      * Позволява изход чрез команда "exit" с възможност за запазване на календара.
+     * В края на входа (например при пренасочен файл) цикълът приключва, а незаписаните промени остават в журнала.
      */
     public void mainLoop() {
-        Scanner scanner = new Scanner(System.in);
         System.out.println("Please enter a command!");
         System.out.println("[Type 'help' for a list of commands.]");
 
         while (!exit) {
             System.out.print("> ");
-            String inputLine = scanner.nextLine();
+            if (!UserInput.hasNextLine()) {
+                // входът е свършил и няма кого да питаме: промените остават в журнала
+                System.out.println();
+                jobs.awaitAll();
+                registry.saveAll();
+                System.out.println("Unsaved changes stay in the journal and will be recovered on the next start.");
+                break;
+            }
+            String inputLine = UserInput.nextLine();
 
             if (inputLine.trim().equalsIgnoreCase("exit")) {
-                String save = fileController.getLastSaved();// Обработка на изхода с потвърждение
-                if (save != null && !save.isEmpty()) {
-                    System.out.print("Write 'yes' if you would you like to save the calendar to the last .txt file you wrote to before exiting?");
-                    System.out.print("( " + save + ".txt )\n");
-                    String answer = scanner.nextLine();
-                    if (answer.equalsIgnoreCase("yes")) {
-                        FileCommand fileCommand = fileCommands.get("write");
-                        fileCommand.execute(fileController, new String[]{"write", save});
-                    }
-                    exit = true;
-                } else {
-                    System.out.print("Calendar hasn't been saved to a .txt file before, are you sure you want to exit?");
-                    System.out.print("Write 'confirm' to exit.\n");
-                    String answer = scanner.nextLine();
-                    if (answer.equalsIgnoreCase("confirm"))
-                        exit = true;
-                }
+                exit = confirmExit();
                 continue;
             }
 
             handleCommand(inputLine);
         }
 
-        scanner.close();
         System.out.println("Exiting...");
     }
 
+    /**
+     * Изпълнява командите от файл, по една на ред, без въпроси към потребителя.
+     * <p>
+     * Празните редове и редовете, започващи с {@code #}, се пропускат, а {@code exit} спира изпълнението.
+     * Потвърждаванията се решават от правилото в {@link UserInput}, затова командите, които събират
+     * данни интерактивно, трябва да получат аргументите си направо (например {@code book 12/06 10:00 11:00 Standup}).
+     * Файловите команди се изпълняват във фонов режим както в конзолата и се изчакват преди края.
+     * Накрая се извеждат броят изпълнени и неуспешни команди и скоростта, след което
+     * календарите се записват както при изход.
+     * </p>
+     *
+     * @param file файлът с командите
+     * @throws IOException при грешка при четене на файла
+     */
+    public void runBatch(Path file) throws IOException {
+        int executed = 0, failed = 0;
+        long start = System.nanoTime();
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            String inputLine;
+            while ((inputLine = reader.readLine()) != null) {
+                String trimmed = inputLine.trim();
+                if (trimmed.isEmpty() || trimmed.startsWith("#"))
+                    continue;
+                if (trimmed.equalsIgnoreCase("exit"))
+                    break;
+                executed++;
+                if (!handleCommand(inputLine))
+                    failed++;
+            }
+        }
+        jobs.awaitAll();
+        failed += jobs.getFailed();
+        double seconds = (System.nanoTime() - start) / 1e9;
+        System.out.printf("Batch finished: %d command/s (%d failed) in %.2f s (%.0f per second).%n",
+                executed, failed, seconds, executed / Math.max(seconds, 1e-9));
+
+        if (!confirmExit())
+            System.out.println("Unsaved changes stay in the journal and will be recovered on the next start.");
+    }
+
+    /**
+     * Записва календарите на потребителите и пита дали календарът по подразбиране да се запише
+     * в последния му файл, преди програмата да приключи.
+     *
+     * @return {@code true}, ако програмата може да приключи
+     */
+    private boolean confirmExit() {
+        if (jobs.size() > 0) {
+            System.out.println("Waiting for " + jobs.size() + " background job/s to finish...");
+            jobs.awaitAll();
+        }
+        registry.saveAll();
+        String save = fileController.getLastSaved();// Обработка на изхода с потвърждение
+        if (save != null && !save.isEmpty()) {
+            if (UserInput.confirm("Write 'yes' if you would you like to save the calendar to the last file you wrote to before exiting?"
+                    + "( " + FileController.fileName(save) + " )", "yes")) {
+                FileCommand fileCommand = fileCommands.get("write");
+                fileCommand.execute(fileController, new String[]{"write", save});
+            }
+            fileController.closeJournal();
+            return true;
+        }
+        if (UserInput.confirm("Calendar hasn't been saved to a .txt file before, are you sure you want to exit?"
+                + "Write 'confirm' to exit.", "confirm")) {
+            fileController.closeJournal();
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Свива журнала на избрания календар, ако е натрупал достатъчно записи. Свиването записва календара
+     * в основния му файл, затова се подава като фонова задача след файловите команди за него.
+     */
+    private void compactJournal() {
+        FileController files = registry.currentFiles();
+        if (files.isCompactionDue())
+            submit("compact journal", files, false, files::compactJournal);
+    }
+
+    /**
+     * Подава задача за избрания календар във фонов режим. Календарът остава зареден
+     * в регистъра, докато задачата не приключи.
+     *
+     * @return номерът на задачата
+     */
+    private long submit(String command, FileController files, boolean changes, Runnable task) {
+        String name = registry.getSelected();
+        registry.acquire(name);
+        try {
+            return jobs.submit(command, name, files.getCalendar(), changes, () -> {
+                try {
+                    task.run();
+                } finally {
+                    registry.release(name);
+                }
+            });
+        } catch (RuntimeException e) {
+            // задачата не е подадена и няма да освободи календара
+            registry.release(name);
+            throw e;
+        }
+    }
+
     /**
      * Обработва въведена от потребителя команда.
      * Определя дали командата е файлов тип или обикновена, и съответно я изпълнява.
+     * Файловите команди се подават за изпълнение във фонов режим (освен ако ще задават въпроси),
+     * а обикновените се изпълняват веднага след фоновите команди, с които са в конфликт.
      * При грешки в изпълнението извежда подходящи съобщения.
      *
      * @param inputLine Входният низ с командата и аргументите
+     * @return {@code false}, ако командата е непозната или е завършила с грешка
+     *         (грешките на фоновите команди се отчитат от {@link BackgroundJobs})
      */
-    private void handleCommand(String inputLine) {
+    private boolean handleCommand(String inputLine) {
         String[] parts = inputLine.trim().split("\\s+");
         if (parts.length == 0 || parts[0].isEmpty()) {
-            return; // Игнорира празни редове
+            return true; // Игнорира празни редове
         }
 
         String commandName = parts[0].toLowerCase();
         FileCommand fCommand = fileCommands.get(commandName);
         if (fCommand != null) {
+            FileController files = registry.currentFiles();
+            Calendar calendar = files.getCalendar();
             try {
-                fCommand.execute(fileController, parts); // Изпълнява командата
+                if (UserInput.isInteractive()) {
+                    // дали командата ще пита, зависи от състоянието на календара след по-ранните команди
+                    jobs.await(calendar, false);
+                    if (fCommand.needsConsole(files)) {
+                        jobs.await(calendar, true);
+                        fCommand.execute(files, parts); // Изпълнява командата
+                        return true;
+                    }
+                }
+                String[] args = parts;
+                long id = submit(inputLine.trim(), files, fCommand.changesCalendar(), () -> fCommand.execute(files, args));
+                if (UserInput.isInteractive() && jobs.size() > 0)
+                    System.out.println("Started job #" + id + " in the background (see 'jobs').");
+                return true;
             } catch (IllegalArgumentException | IllegalStateException e) {
                 System.out.println("Error: " + e.getMessage());
             } catch (Exception e) {
@@ -122,7 +264,12 @@ public class UI {
                 try {
                     if (commandName.equalsIgnoreCase("find"))
                         parts = inputLine.split(" ", 2);
+                    Calendar calendar = registry.current();
+                    jobs.await(calendar, command.changesCalendar());
                     command.execute(calendar, parts); // Изпълнява командата
+                    if (command.changesCalendar())
+                        compactJournal();
+                    return true;
                 } catch (IllegalArgumentException | IllegalStateException e) {
                     System.out.println("Error: " + e.getMessage());
                 } catch (Exception e) {
@@ -132,5 +279,6 @@ public class UI {
                 System.out.println("Unknown command: '" + commandName + "'. Feel free to use 'help' to check all valid commands.");
             }
         }
+        return false;
     }
 }